@@ -0,0 +1,98 @@
+package tech.mogami.java.client.benchmark;
+
+import lombok.experimental.UtilityClass;
+import org.web3j.crypto.Credentials;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.constant.version.X402Versions.X402_SUPPORTED_VERSION_BY_MOGAMI;
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_NAME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_VERSION;
+
+/**
+ * Data shared by the benchmarks (same values as the functional tests).
+ */
+@UtilityClass
+@SuppressWarnings("HideUtilityClassConstructor")
+public class BenchmarkData {
+
+    /** Number of entries in the large "accepts" list. */
+    public static final int LARGE_ACCEPTS_SIZE = 100;
+
+    /** Credentials of the client. */
+    public static final Credentials CREDENTIALS = Credentials.create("0x9d2675820d55300a05c8991df217a619bcfdc86e2fd91e56443dbbcf159337fd");
+
+    /** Payment requirements. */
+    public static final PaymentRequirements PAYMENT_REQUIREMENTS = PaymentRequirements.builder()
+            .scheme(EXACT_SCHEME.name())
+            .network(BASE_SEPOLIA.name())
+            .maxAmountRequired("10000")
+            .resource("http://localhost/weather")
+            .payTo("0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1")
+            .maxTimeoutSeconds(60)
+            .asset("0x036CbD53842c5426634e7929541eC2318f3dCF7e")
+            .extra(EXACT_SCHEME_PARAMETER_NAME, "USDC")
+            .extra(EXACT_SCHEME_PARAMETER_VERSION, "2")
+            .build();
+
+    /** Unsigned payment payload. */
+    public static final PaymentPayload UNSIGNED_PAYMENT_PAYLOAD = PaymentPayload.builder()
+            .x402Version(X402_SUPPORTED_VERSION_BY_MOGAMI.version())
+            .scheme(EXACT_SCHEME.name())
+            .network(BASE_SEPOLIA.name())
+            .payload(ExactSchemePayload.builder()
+                    .authorization(ExactSchemePayload.Authorization.builder()
+                            .from("0x2980bc24bBFB34DE1BBC91479Cb712ffbCE02F73")
+                            .to("0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1")
+                            .value("10000")
+                            .validAfter("1748534647")
+                            .validBefore("1748534767")
+                            .nonce("0x9b750f5097972d82c02ac371278b83ecf3ca3be8387db59e664eb38c98f97a3d")
+                            .build())
+                    .build())
+            .build();
+
+    /** Signed payment payload. */
+    public static final PaymentPayload SIGNED_PAYMENT_PAYLOAD = UNSIGNED_PAYMENT_PAYLOAD.toBuilder()
+            .payload(((ExactSchemePayload) UNSIGNED_PAYMENT_PAYLOAD.payload()).toBuilder()
+                    .signature("0xde533856d81c76984a8dbc8d563bbb6d6d4ca36ce6c4d6e8cf315de3bfc14ab26d6bcdc37549aeed78bf92e39d5180268f8f399a4ffb816cfbf500823882b6001c")
+                    .build())
+            .build();
+
+    /** X-PAYMENT-RESPONSE header. */
+    public static final String SETTLE_RESPONSE_HEADER = "eyJzdWNjZXNzIjp0cnVlLCJuZXR3b3JrIjoiYmFzZS1zZXBvbGlhIiwidHJhbnNhY3Rpb24iOiIweDI5YWEzYzdhMDgyNzRlNmRmZjY2Yzc5YjFiMDg2ZDQzM2MyYWI5Yzg1MDUxZWNlZTAyNGIwNTMxYjIyOTQ0ZGUiLCJlcnJvclJlYXNvbiI6bnVsbCwicGF5ZXIiOiIweDI5ODBiYzI0YkJGQjM0REUxQkJDOTE0NzlDYjcxMmZmYkNFMDJGNzMifQ";
+
+    /**
+     * Returns a 402 body with the given number of payment requirements in "accepts".
+     *
+     * @param size number of payment requirements
+     * @return the 402 body
+     */
+    public static String paymentRequiredBody(final int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> """
+                        {
+                          "scheme": "exact",
+                          "network": "base-sepolia",
+                          "maxAmountRequired": "%d",
+                          "resource": "http://localhost/weather",
+                          "description": "Description number %d",
+                          "mimeType": "application/json",
+                          "payTo": "0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1",
+                          "maxTimeoutSeconds": 60,
+                          "asset": "0x036CbD53842c5426634e7929541eC2318f3dCF7e",
+                          "extra": {
+                            "name": "USDC",
+                            "version": "2"
+                          }
+                        }""".formatted(1000 + i, i))
+                .collect(Collectors.joining(",", "{\"x402Version\":1,\"accepts\":[", "],\"error\":\"Payment required\"}"));
+    }
+
+}
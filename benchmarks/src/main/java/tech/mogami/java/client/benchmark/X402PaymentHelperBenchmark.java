@@ -0,0 +1,116 @@
+package tech.mogami.java.client.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequired;
+import tech.mogami.java.client.helper.X402PaymentHelper;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static tech.mogami.java.client.benchmark.BenchmarkData.CREDENTIALS;
+import static tech.mogami.java.client.benchmark.BenchmarkData.LARGE_ACCEPTS_SIZE;
+import static tech.mogami.java.client.benchmark.BenchmarkData.PAYMENT_REQUIREMENTS;
+import static tech.mogami.java.client.benchmark.BenchmarkData.SETTLE_RESPONSE_HEADER;
+import static tech.mogami.java.client.benchmark.BenchmarkData.SIGNED_PAYMENT_PAYLOAD;
+import static tech.mogami.java.client.benchmark.BenchmarkData.UNSIGNED_PAYMENT_PAYLOAD;
+
+/**
+ * Single-threaded throughput of the {@link X402PaymentHelper} hot paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class X402PaymentHelperBenchmark {
+
+    /** 402 body with a single payment requirements. */
+    private String smallPaymentRequiredBody;
+
+    /** 402 body with many payment requirements. */
+    private String largePaymentRequiredBody;
+
+    /**
+     * Prepares the 402 bodies.
+     */
+    @Setup
+    public void setup() {
+        smallPaymentRequiredBody = BenchmarkData.paymentRequiredBody(1);
+        largePaymentRequiredBody = BenchmarkData.paymentRequiredBody(LARGE_ACCEPTS_SIZE);
+    }
+
+    /**
+     * Parses a 402 body with a single payment requirements.
+     *
+     * @return the parsed payment required
+     */
+    @Benchmark
+    public Optional<PaymentRequired> getPaymentRequiredFromSmallBody() {
+        return X402PaymentHelper.getPaymentRequiredFromBody(smallPaymentRequiredBody);
+    }
+
+    /**
+     * Parses a 402 body with many payment requirements.
+     *
+     * @return the parsed payment required
+     */
+    @Benchmark
+    public Optional<PaymentRequired> getPaymentRequiredFromLargeBody() {
+        return X402PaymentHelper.getPaymentRequiredFromBody(largePaymentRequiredBody);
+    }
+
+    /**
+     * Builds an unsigned payment payload.
+     *
+     * @return the payment payload
+     */
+    @Benchmark
+    public PaymentPayload getPayloadFromPaymentRequirements() {
+        return X402PaymentHelper.getPayloadFromPaymentRequirements(null, CREDENTIALS.getAddress(), PAYMENT_REQUIREMENTS);
+    }
+
+    /**
+     * Signs a payment payload.
+     *
+     * @return the signed payment payload
+     */
+    @Benchmark
+    public PaymentPayload getSignedPayload() {
+        return X402PaymentHelper.getSignedPayload(CREDENTIALS, PAYMENT_REQUIREMENTS, UNSIGNED_PAYMENT_PAYLOAD);
+    }
+
+    /**
+     * Encodes a signed payment payload into the X-PAYMENT header.
+     *
+     * @return the header value
+     */
+    @Benchmark
+    public String getPayloadHeader() {
+        return X402PaymentHelper.getPayloadHeader(SIGNED_PAYMENT_PAYLOAD);
+    }
+
+    /**
+     * Decodes the X-PAYMENT-RESPONSE header.
+     *
+     * @return the settle response
+     */
+    @Benchmark
+    public Optional<SettleResponse> getSettleResponseFromHeader() {
+        return X402PaymentHelper.getSettleResponseFromHeader(SETTLE_RESPONSE_HEADER);
+    }
+
+}
@@ -0,0 +1,11 @@
+package tech.mogami.java.client.benchmark;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Multi-threaded throughput of the {@link tech.mogami.java.client.helper.X402PaymentHelper} hot paths.
+ * Runs every benchmark of {@link X402PaymentHelperBenchmark} with one thread per available processor, to expose contention.
+ */
+@Threads(Threads.MAX)
+public class X402PaymentHelperMultiThreadedBenchmark extends X402PaymentHelperBenchmark {
+}
@@ -0,0 +1,4 @@
+/**
+ * JMH benchmarks of the X402PaymentHelper hot paths.
+ */
+package tech.mogami.java.client.benchmark;
@@ -0,0 +1,306 @@
+package tech.mogami.java.client.loadtest;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Sign;
+import org.web3j.crypto.StructuredDataEncoder;
+import org.web3j.utils.Numeric;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+import tech.mogami.commons.util.Base64Util;
+import tech.mogami.commons.util.JsonUtil;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.SignatureException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static tech.mogami.commons.constant.BlockchainConstants.BLOCKCHAIN_ADDRESS_PREFIX;
+import static tech.mogami.commons.constant.network.Networks.BASE;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_NAME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_VERSION;
+
+/**
+ * Facilitator stand-in, called in-process by the local server: it verifies exact scheme payments the way a real
+ * facilitator does (scheme, network, recipient, amount, validity window, nonce replay and EIP-712 signature) and
+ * settles them without any blockchain, the transaction hash being derived from the nonce.
+ * The EIP-712 digest is computed from the typed data with web3j, independently of the client signing code, so that a
+ * bug in the client's hashing shows up as rejected payments.
+ */
+@SuppressWarnings("unused")
+public final class FakeFacilitator {
+
+    /** Error reason of an unsupported scheme. */
+    static final String INVALID_SCHEME = "invalid_scheme";
+
+    /** Error reason of a network not matching the payment requirements. */
+    static final String INVALID_NETWORK = "invalid_network";
+
+    /** Error reason of an X-PAYMENT header that can't be decoded. */
+    static final String INVALID_PAYLOAD = "invalid_payload";
+
+    /** Error reason of a recipient not matching the payment requirements. */
+    static final String INVALID_RECIPIENT = "invalid_exact_evm_payload_recipient_mismatch";
+
+    /** Error reason of an amount lower than required. */
+    static final String INVALID_VALUE = "invalid_exact_evm_payload_authorization_value";
+
+    /** Error reason of an authorization not valid yet. */
+    static final String INVALID_VALID_AFTER = "invalid_exact_evm_payload_authorization_valid_after";
+
+    /** Error reason of an expired authorization. */
+    static final String INVALID_VALID_BEFORE = "invalid_exact_evm_payload_authorization_valid_before";
+
+    /** Error reason of a signature not made by the payer. */
+    static final String INVALID_SIGNATURE = "invalid_exact_evm_payload_signature";
+
+    /** Error reason of a nonce already settled. */
+    static final String NONCE_REPLAYED = "invalid_transaction_state";
+
+    /** Size of a signature (r, s and v). */
+    private static final int SIGNATURE_SIZE = 65;
+
+    /** Size of the r and s components of a signature. */
+    private static final int SIGNATURE_COMPONENT_SIZE = 32;
+
+    /** Chain ids of the networks verified. */
+    private static final Map<String, Long> CHAIN_IDS = Map.of(
+            BASE.name(), BASE.chainId(),
+            BASE_SEPOLIA.name(), BASE_SEPOLIA.chainId());
+
+    /** Primary type of the typed data signed. */
+    private static final String PRIMARY_TYPE = "TransferWithAuthorization";
+
+    /** EIP-712 types of the typed data signed (ERC-3009 transfer with authorization). */
+    private static final Map<String, List<Map<String, String>>> TYPES = Map.of(
+            "EIP712Domain", List.of(
+                    field("name", "string"),
+                    field("version", "string"),
+                    field("chainId", "uint256"),
+                    field("verifyingContract", "address")),
+            PRIMARY_TYPE, List.of(
+                    field("from", "address"),
+                    field("to", "address"),
+                    field("value", "uint256"),
+                    field("validAfter", "uint256"),
+                    field("validBefore", "uint256"),
+                    field("nonce", "bytes32")));
+
+    /** True if the signatures are verified. */
+    private final boolean verifySignatures;
+
+    /** Nonces settled. */
+    private final Set<String> settledNonces = ConcurrentHashMap.newKeySet();
+
+    /** Number of payments settled. */
+    @Getter
+    private final LongAdder settled = new LongAdder();
+
+    /** Number of payments rejected. */
+    @Getter
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param verifySignatures true to verify the signatures (the most expensive check)
+     */
+    public FakeFacilitator(final boolean verifySignatures) {
+        this.verifySignatures = verifySignatures;
+    }
+
+    /**
+     * Verifies and settles a payment.
+     *
+     * @param paymentHeader       the X-PAYMENT header
+     * @param paymentRequirements the payment requirements paid
+     * @return the settle response
+     */
+    public SettleResponse settle(@NonNull final String paymentHeader, @NonNull final PaymentRequirements paymentRequirements) {
+        final PaymentHeader payment;
+        try {
+            payment = JsonUtil.fromJson(Base64Util.decode(paymentHeader), PaymentHeader.class);
+        } catch (Exception e) {
+            return reject(null, paymentRequirements, INVALID_PAYLOAD);
+        }
+        if (payment.payload() == null || payment.payload().authorization() == null || payment.payload().signature() == null) {
+            return reject(null, paymentRequirements, INVALID_PAYLOAD);
+        }
+        final ExactSchemePayload.Authorization authorization = payment.payload().authorization();
+        final String error = verify(payment, authorization, paymentRequirements);
+        if (error != null) {
+            return reject(authorization.from(), paymentRequirements, error);
+        }
+        settled.increment();
+        return SettleResponse.builder()
+                .success(true)
+                .network(paymentRequirements.network())
+                .transaction(Hash.sha3String(authorization.nonce()))
+                .payer(authorization.from())
+                .build();
+    }
+
+    /**
+     * Verifies a payment.
+     *
+     * @param payment             the payment
+     * @param authorization       the authorization of the payment
+     * @param paymentRequirements the payment requirements paid
+     * @return the error reason, or null if the payment is valid
+     */
+    private String verify(final PaymentHeader payment,
+                          final ExactSchemePayload.Authorization authorization,
+                          final PaymentRequirements paymentRequirements) {
+        if (!EXACT_SCHEME.name().equals(payment.scheme())) {
+            return INVALID_SCHEME;
+        }
+        if (!paymentRequirements.network().equals(payment.network())) {
+            return INVALID_NETWORK;
+        }
+        if (!paymentRequirements.payTo().equalsIgnoreCase(authorization.to())) {
+            return INVALID_RECIPIENT;
+        }
+        final long now = System.currentTimeMillis() / 1000;
+        try {
+            if (new BigInteger(authorization.value()).compareTo(new BigInteger(paymentRequirements.maxAmountRequired())) < 0) {
+                return INVALID_VALUE;
+            }
+            if (Long.parseLong(authorization.validAfter()) > now) {
+                return INVALID_VALID_AFTER;
+            }
+            if (Long.parseLong(authorization.validBefore()) <= now) {
+                return INVALID_VALID_BEFORE;
+            }
+        } catch (NumberFormatException e) {
+            return INVALID_PAYLOAD;
+        }
+        if (verifySignatures && !isSignedByPayer(payment, authorization, paymentRequirements)) {
+            return INVALID_SIGNATURE;
+        }
+        // Checked last: only valid payments consume their nonce.
+        if (!settledNonces.add(authorization.nonce())) {
+            return NONCE_REPLAYED;
+        }
+        return null;
+    }
+
+    /**
+     * Checks that the EIP-712 signature of a payment was made by its payer.
+     *
+     * @param payment             the payment
+     * @param authorization       the authorization of the payment
+     * @param paymentRequirements the payment requirements paid
+     * @return true if the signature recovers the payer address
+     */
+    private static boolean isSignedByPayer(final PaymentHeader payment,
+                                           final ExactSchemePayload.Authorization authorization,
+                                           final PaymentRequirements paymentRequirements) {
+        final byte[] signature = Numeric.hexStringToByteArray(payment.payload().signature());
+        if (signature.length != SIGNATURE_SIZE) {
+            return false;
+        }
+        return getTypedDataHash(authorization, paymentRequirements)
+                .map(hash -> {
+                    try {
+                        final BigInteger publicKey = Sign.signedMessageHashToKey(hash, new Sign.SignatureData(
+                                signature[SIGNATURE_SIZE - 1],
+                                Arrays.copyOfRange(signature, 0, SIGNATURE_COMPONENT_SIZE),
+                                Arrays.copyOfRange(signature, SIGNATURE_COMPONENT_SIZE, 2 * SIGNATURE_COMPONENT_SIZE)));
+                        return (BLOCKCHAIN_ADDRESS_PREFIX + Keys.getAddress(publicKey)).equalsIgnoreCase(authorization.from());
+                    } catch (SignatureException | IllegalArgumentException e) {
+                        return false;
+                    }
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Computes the EIP-712 digest of an authorization.
+     *
+     * @param authorization       the authorization
+     * @param paymentRequirements the payment requirements (network, asset and domain parameters)
+     * @return the digest, or empty if the network, the domain parameters or the authorization are not valid
+     */
+    private static Optional<byte[]> getTypedDataHash(final ExactSchemePayload.Authorization authorization,
+                                                     final PaymentRequirements paymentRequirements) {
+        final Long chainId = CHAIN_IDS.get(paymentRequirements.network());
+        final Map<String, ?> extra = paymentRequirements.extra();
+        if (chainId == null || extra == null
+                || !(extra.get(EXACT_SCHEME_PARAMETER_NAME) instanceof String name)
+                || !(extra.get(EXACT_SCHEME_PARAMETER_VERSION) instanceof String version)) {
+            return Optional.empty();
+        }
+        try {
+            final Map<String, Object> typedData = Map.of(
+                    "types", TYPES,
+                    "primaryType", PRIMARY_TYPE,
+                    "domain", Map.of(
+                            "name", name,
+                            "version", version,
+                            "chainId", chainId,
+                            "verifyingContract", paymentRequirements.asset()),
+                    "message", Map.of(
+                            "from", authorization.from(),
+                            "to", authorization.to(),
+                            "value", authorization.value(),
+                            "validAfter", authorization.validAfter(),
+                            "validBefore", authorization.validBefore(),
+                            "nonce", authorization.nonce()));
+            return Optional.of(new StructuredDataEncoder(JsonUtil.toJson(typedData)).hashStructuredData());
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the declaration of an EIP-712 struct field.
+     *
+     * @param name the field name
+     * @param type the field type
+     * @return the field declaration
+     */
+    private static Map<String, String> field(final String name, final String type) {
+        return Map.of("name", name, "type", type);
+    }
+
+    /**
+     * Rejects a payment.
+     *
+     * @param payer               the payer, if known
+     * @param paymentRequirements the payment requirements paid
+     * @param errorReason         the error reason
+     * @return the settle response
+     */
+    private SettleResponse reject(final String payer, final PaymentRequirements paymentRequirements, final String errorReason) {
+        rejected.increment();
+        return SettleResponse.builder()
+                .success(false)
+                .network(paymentRequirements.network())
+                .errorReason(errorReason)
+                .payer(payer)
+                .build();
+    }
+
+    /**
+     * Decoded X-PAYMENT header of an exact scheme payment.
+     *
+     * @param x402Version the x402 version
+     * @param scheme      the scheme
+     * @param network     the network
+     * @param payload     the exact scheme payload
+     */
+    private record PaymentHeader(int x402Version, String scheme, String network, ExactSchemePayload payload) {
+    }
+
+}
@@ -0,0 +1,214 @@
+package tech.mogami.java.client.loadtest;
+
+import lombok.NonNull;
+import org.web3j.crypto.Credentials;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.java.client.cache.PaymentRequiredCache;
+import tech.mogami.java.client.http.PaymentRequirementsSelector;
+import tech.mogami.java.client.http.X402HttpClient;
+import tech.mogami.java.client.http.X402HttpResponse;
+import tech.mogami.java.client.instrumentation.ConcurrentHistogram;
+import tech.mogami.java.client.instrumentation.HistogramPaymentInstrumentation;
+import tech.mogami.java.client.instrumentation.HistogramSnapshot;
+import tech.mogami.java.client.instrumentation.PaymentInstrumentations;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+
+/**
+ * Load test of the whole payment flow: 402 parsing, payload building, signing, X-PAYMENT encoding, retry and
+ * X-PAYMENT-RESPONSE decoding, by concurrent callers of one {@link X402HttpClient}, against a {@link LocalX402Server}.
+ * Allocation is measured with the per-thread allocation counters of the JVM: the server threads are counted apart,
+ * everything else is attributed to the client (callers, HTTP client and its selector).
+ */
+public final class LoadTest {
+
+    /** Credentials of the client. */
+    static final Credentials CREDENTIALS = Credentials.create("0x9d2675820d55300a05c8991df217a619bcfdc86e2fd91e56443dbbcf159337fd");
+
+    /** HTTP status code of a paid resource. */
+    private static final int OK_STATUS_CODE = 200;
+
+    /** Percentiles reported. */
+    private static final double P50 = 50;
+
+    /** 90th percentile. */
+    private static final double P90 = 90;
+
+    /** 99th percentile. */
+    private static final double P99 = 99;
+
+    /** 99.9th percentile. */
+    private static final double P999 = 99.9;
+
+    /** Configuration. */
+    private final LoadTestConfiguration configuration;
+
+    /** Local server. */
+    private final LocalX402Server server;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration the configuration
+     * @param server        the local server
+     */
+    public LoadTest(@NonNull final LoadTestConfiguration configuration, @NonNull final LocalX402Server server) {
+        this.configuration = configuration;
+        this.server = server;
+    }
+
+    /**
+     * Runs the load test with a thread mode: warm-up payments first, then the measured payments.
+     *
+     * @param threadMode the thread mode
+     * @return the report
+     */
+    public LoadTestReport run(@NonNull final ThreadMode threadMode) {
+        final HistogramPaymentInstrumentation instrumentation = new HistogramPaymentInstrumentation();
+        final ExecutorService httpClientExecutor = threadMode.newHttpClientExecutor();
+        try (HttpClient httpClient = HttpClient.newBuilder().executor(httpClientExecutor).build();
+             X402HttpClient client = X402HttpClient.builder()
+                     .httpClient(httpClient)
+                     .credentials(CREDENTIALS)
+                     .paymentRequirementsSelector(PaymentRequirementsSelector.firstExactOn(BASE_SEPOLIA.name()))
+                     .paymentRequiredCache(configuration.isPaymentRequiredCache() ? PaymentRequiredCache.builder().build() : null)
+                     .maxConcurrentRequests(configuration.getConcurrency())
+                     .build()) {
+            final HttpRequest request = HttpRequest.newBuilder(server.getResourceUri()).GET().build();
+            drive(client, request, threadMode, configuration.getWarmupPayments(), new ConcurrentHistogram(), new LongAdder());
+
+            PaymentInstrumentations.set(instrumentation);
+            final ConcurrentHistogram latency = new ConcurrentHistogram();
+            final LongAdder failures = new LongAdder();
+            final long clientAllocationStart = getTotalAllocatedBytes();
+            final long serverAllocationStart = getAllocatedBytes(server.getThreads());
+            final long start = System.nanoTime();
+            drive(client, request, threadMode, configuration.getPayments(), latency, failures);
+            final long durationNanos = System.nanoTime() - start;
+            final long serverAllocation = getAllocatedBytes(server.getThreads()) - serverAllocationStart;
+            final long clientAllocation = getTotalAllocatedBytes() - clientAllocationStart - serverAllocation;
+            PaymentInstrumentations.reset();
+
+            final int payments = configuration.getPayments();
+            final HistogramSnapshot snapshot = latency.snapshot();
+            return new LoadTestReport(threadMode,
+                    configuration.getConcurrency(),
+                    payments,
+                    failures.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                    payments * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos,
+                    snapshot.getMean() / TimeUnit.MICROSECONDS.toNanos(1),
+                    micros(snapshot.getValueAtPercentile(P50)),
+                    micros(snapshot.getValueAtPercentile(P90)),
+                    micros(snapshot.getValueAtPercentile(P99)),
+                    micros(snapshot.getValueAtPercentile(P999)),
+                    micros(snapshot.getMax()),
+                    clientAllocationStart < 0 ? -1 : clientAllocation / payments,
+                    serverAllocationStart < 0 ? -1 : serverAllocation / payments,
+                    instrumentation.getStatistics().stream()
+                            .map(statistics -> new LoadTestReport.PhaseReport(statistics.phase(),
+                                    statistics.latency().getCount(),
+                                    statistics.latency().getMean() / TimeUnit.MICROSECONDS.toNanos(1),
+                                    micros(statistics.latency().getValueAtPercentile(P50)),
+                                    micros(statistics.latency().getValueAtPercentile(P99))))
+                            .sorted(Comparator.comparing(LoadTestReport.PhaseReport::phase))
+                            .toList());
+        } finally {
+            PaymentInstrumentations.reset();
+            httpClientExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Makes payments with concurrent callers, until the number of payments is reached.
+     *
+     * @param client     the x402 client
+     * @param request    the request of the paid resource
+     * @param threadMode the thread mode of the callers
+     * @param payments   the number of payments
+     * @param latency    the histogram of the latencies, in nanoseconds
+     * @param failures   the counter of failed payments
+     */
+    private void drive(final X402HttpClient client,
+                       final HttpRequest request,
+                       final ThreadMode threadMode,
+                       final int payments,
+                       final ConcurrentHistogram latency,
+                       final LongAdder failures) {
+        final AtomicInteger remaining = new AtomicInteger(payments);
+        try (ExecutorService callers = threadMode.newCallerExecutor(configuration.getConcurrency())) {
+            for (int i = 0; i < configuration.getConcurrency(); i++) {
+                callers.execute(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        final long start = System.nanoTime();
+                        try {
+                            final X402HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.response().statusCode() != OK_STATUS_CODE
+                                    || !response.getSettleResponse().map(SettleResponse::success).orElse(false)) {
+                                failures.increment();
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            failures.increment();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        latency.record(System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Returns the memory allocated by all the threads of the JVM since it started.
+     *
+     * @return the number of bytes, or -1 if not supported
+     */
+    private static long getTotalAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+                && threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return threadMXBean.getTotalThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the memory allocated by some threads since they started.
+     *
+     * @param threads the threads
+     * @return the number of bytes, or -1 if not supported
+     */
+    private static long getAllocatedBytes(final Set<Thread> threads) {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+                && threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return threads.stream()
+                    .mapToLong(thread -> Math.max(0, threadMXBean.getThreadAllocatedBytes(thread.threadId())))
+                    .sum();
+        }
+        return -1;
+    }
+
+    /**
+     * Converts nanoseconds to microseconds.
+     *
+     * @param nanos the nanoseconds
+     * @return the microseconds
+     */
+    private static long micros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+}
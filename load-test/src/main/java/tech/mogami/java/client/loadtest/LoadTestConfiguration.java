@@ -0,0 +1,158 @@
+package tech.mogami.java.client.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Configuration of a load test run.
+ */
+@Getter
+@SuppressWarnings("unused")
+public final class LoadTestConfiguration {
+
+    /** Default number of measured payments per thread mode. */
+    public static final int DEFAULT_PAYMENTS = 20_000;
+
+    /** Default number of warm-up payments per thread mode, not measured. */
+    public static final int DEFAULT_WARMUP_PAYMENTS = 2_000;
+
+    /** Default number of concurrent callers. */
+    public static final int DEFAULT_CONCURRENCY = 64;
+
+    /** Default number of payment requirements in the 402 bodies. */
+    public static final int DEFAULT_ACCEPTS_SIZE = 4;
+
+    /** Prefix of the command line options. */
+    private static final String OPTION_PREFIX = "--";
+
+    /** Separator of the option names and values. */
+    private static final String OPTION_VALUE_SEPARATOR = "=";
+
+    /** Number of measured payments per thread mode. */
+    private final int payments;
+
+    /** Number of warm-up payments per thread mode. */
+    private final int warmupPayments;
+
+    /** Number of concurrent callers. */
+    private final int concurrency;
+
+    /** Thread modes run, in order. */
+    private final List<ThreadMode> threadModes;
+
+    /** Number of payment requirements in the 402 bodies (the one paid is the last). */
+    private final int acceptsSize;
+
+    /** Number of threads of the local server. */
+    private final int serverThreads;
+
+    /** True if the facilitator verifies the payment signatures. */
+    private final boolean verifySignatures;
+
+    /** True if the client caches the payment required, paying on the first request. */
+    private final boolean paymentRequiredCache;
+
+    /** File the JSON report is written to, or null. */
+    private final Path reportFile;
+
+    /**
+     * Creates a load test configuration.
+     *
+     * @param payments             the number of measured payments per thread mode
+     * @param warmupPayments       the number of warm-up payments per thread mode
+     * @param concurrency          the number of concurrent callers
+     * @param threadModes          the thread modes run (platform then virtual if null)
+     * @param acceptsSize          the number of payment requirements in the 402 bodies
+     * @param serverThreads        the number of threads of the local server (one per processor if null)
+     * @param verifySignatures     true if the facilitator verifies the payment signatures (true if null)
+     * @param paymentRequiredCache true if the client caches the payment required (false if null)
+     * @param reportFile           the file the JSON report is written to (none if null)
+     */
+    @Builder
+    private LoadTestConfiguration(final Integer payments,
+                                  final Integer warmupPayments,
+                                  final Integer concurrency,
+                                  final List<ThreadMode> threadModes,
+                                  final Integer acceptsSize,
+                                  final Integer serverThreads,
+                                  final Boolean verifySignatures,
+                                  final Boolean paymentRequiredCache,
+                                  final Path reportFile) {
+        this.payments = positive("Payments", Objects.requireNonNullElse(payments, DEFAULT_PAYMENTS));
+        this.warmupPayments = Objects.requireNonNullElse(warmupPayments, DEFAULT_WARMUP_PAYMENTS);
+        if (this.warmupPayments < 0) {
+            throw new IllegalArgumentException("Warm-up payments must not be negative: " + this.warmupPayments);
+        }
+        this.concurrency = positive("Concurrency", Objects.requireNonNullElse(concurrency, DEFAULT_CONCURRENCY));
+        this.threadModes = List.copyOf(Objects.requireNonNullElse(threadModes, List.of(ThreadMode.values())));
+        this.acceptsSize = positive("Accepts size", Objects.requireNonNullElse(acceptsSize, DEFAULT_ACCEPTS_SIZE));
+        this.serverThreads = positive("Server threads", Objects.requireNonNullElse(serverThreads, Runtime.getRuntime().availableProcessors()));
+        this.verifySignatures = Objects.requireNonNullElse(verifySignatures, true);
+        this.paymentRequiredCache = Objects.requireNonNullElse(paymentRequiredCache, false);
+        this.reportFile = reportFile;
+    }
+
+    /**
+     * Parses a configuration from command line options, such as {@code --concurrency=256 --threads=virtual}.
+     * Options: payments, warmup, concurrency, threads (platform, virtual or both, comma separated), accepts,
+     * server-threads, verify-signatures, cache and report (JSON report file).
+     *
+     * @param arguments the command line options
+     * @return the configuration
+     * @throws IllegalArgumentException if an option is unknown or invalid
+     */
+    public static LoadTestConfiguration fromArguments(final String... arguments) {
+        final LoadTestConfigurationBuilder builder = LoadTestConfiguration.builder();
+        for (String argument : arguments) {
+            final int separator = argument.indexOf(OPTION_VALUE_SEPARATOR);
+            if (!argument.startsWith(OPTION_PREFIX) || separator < 0) {
+                throw new IllegalArgumentException("Invalid option, expected --name=value: " + argument);
+            }
+            final String value = argument.substring(separator + 1);
+            try {
+                switch (argument.substring(OPTION_PREFIX.length(), separator)) {
+                    case "payments" -> builder.payments(Integer.parseInt(value));
+                    case "warmup" -> builder.warmupPayments(Integer.parseInt(value));
+                    case "concurrency" -> builder.concurrency(Integer.parseInt(value));
+                    case "threads" -> builder.threadModes(Arrays.stream(value.split(","))
+                            .map(threadMode -> "both".equalsIgnoreCase(threadMode)
+                                    ? List.of(ThreadMode.values())
+                                    : List.of(ThreadMode.valueOf(threadMode.trim().toUpperCase(Locale.ROOT))))
+                            .flatMap(List::stream)
+                            .distinct()
+                            .toList());
+                    case "accepts" -> builder.acceptsSize(Integer.parseInt(value));
+                    case "server-threads" -> builder.serverThreads(Integer.parseInt(value));
+                    case "verify-signatures" -> builder.verifySignatures(Boolean.parseBoolean(value));
+                    case "cache" -> builder.paymentRequiredCache(Boolean.parseBoolean(value));
+                    case "report" -> builder.reportFile(Path.of(value));
+                    default -> throw new IllegalArgumentException("Unknown option: " + argument);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in option: " + argument, e);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Checks that a value is positive.
+     *
+     * @param name  the name of the value
+     * @param value the value
+     * @return the value
+     */
+    private static int positive(final String name, final int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,85 @@
+package tech.mogami.java.client.loadtest;
+
+import tech.mogami.java.client.instrumentation.PaymentPhase;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Results of a load test run, for one thread mode. Durations are in microseconds.
+ *
+ * @param threadMode                 the thread mode
+ * @param concurrency                the number of concurrent callers
+ * @param payments                   the number of payments made
+ * @param failures                   the number of payments that failed (error or not settled)
+ * @param durationMillis             the duration of the run, in milliseconds
+ * @param throughput                 the number of payments per second
+ * @param meanLatency                the mean latency of a paid call
+ * @param p50Latency                 the median latency of a paid call
+ * @param p90Latency                 the 90th percentile of the latency of a paid call
+ * @param p99Latency                 the 99th percentile of the latency of a paid call
+ * @param p999Latency                the 99.9th percentile of the latency of a paid call
+ * @param maxLatency                 the maximum latency of a paid call
+ * @param clientAllocationPerPayment the memory allocated by the client per payment, in bytes (-1 if not supported)
+ * @param serverAllocationPerPayment the memory allocated by the local server per payment, in bytes (-1 if not supported)
+ * @param phases                     the latency of the payment phases measured by the client instrumentation
+ */
+public record LoadTestReport(
+        ThreadMode threadMode,
+        int concurrency,
+        long payments,
+        long failures,
+        long durationMillis,
+        double throughput,
+        double meanLatency,
+        long p50Latency,
+        long p90Latency,
+        long p99Latency,
+        long p999Latency,
+        long maxLatency,
+        long clientAllocationPerPayment,
+        long serverAllocationPerPayment,
+        List<PhaseReport> phases
+) {
+
+    /**
+     * Prints the report.
+     *
+     * @param out the output
+     */
+    public void print(final PrintStream out) {
+        out.printf(Locale.ROOT, "%n=== %s threads, %d concurrent callers ===%n", threadMode.name().toLowerCase(Locale.ROOT), concurrency);
+        out.printf(Locale.ROOT, "Payments:     %d in %d ms (%d failed)%n", payments, durationMillis, failures);
+        out.printf(Locale.ROOT, "Throughput:   %.1f payments/s%n", throughput);
+        out.printf(Locale.ROOT, "Latency (us): mean %.0f, p50 %d, p90 %d, p99 %d, p99.9 %d, max %d%n",
+                meanLatency, p50Latency, p90Latency, p99Latency, p999Latency, maxLatency);
+        out.printf(Locale.ROOT, "Allocation:   %s per payment in the client, %s in the local server%n",
+                bytes(clientAllocationPerPayment), bytes(serverAllocationPerPayment));
+        phases.forEach(phase -> out.printf(Locale.ROOT, "  %-24s count %d, mean %.1f us, p50 %d us, p99 %d us%n",
+                phase.phase(), phase.count(), phase.meanLatency(), phase.p50Latency(), phase.p99Latency()));
+    }
+
+    /**
+     * Formats a number of bytes.
+     *
+     * @param bytes the number of bytes
+     * @return the formatted number
+     */
+    private static String bytes(final long bytes) {
+        return bytes < 0 ? "n/a" : String.format(Locale.ROOT, "%.1f KiB", bytes / 1024.0);
+    }
+
+    /**
+     * Latency of a payment phase, in microseconds.
+     *
+     * @param phase       the phase
+     * @param count       the number of times the phase ran
+     * @param meanLatency the mean latency
+     * @param p50Latency  the median latency
+     * @param p99Latency  the 99th percentile of the latency
+     */
+    public record PhaseReport(PaymentPhase phase, long count, double meanLatency, long p50Latency, long p99Latency) {
+    }
+
+}
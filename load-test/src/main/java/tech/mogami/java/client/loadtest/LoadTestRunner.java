@@ -0,0 +1,132 @@
+package tech.mogami.java.client.loadtest;
+
+import lombok.experimental.UtilityClass;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+import tech.mogami.commons.util.Base64Util;
+import tech.mogami.commons.util.JsonUtil;
+import tech.mogami.commons.util.NonceUtil;
+import tech.mogami.java.client.signature.CachedEIP712Signer;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static tech.mogami.commons.constant.version.X402Versions.X402_SUPPORTED_VERSION_BY_MOGAMI;
+
+/**
+ * Starts the local x402 server and runs the load test with each thread mode, printing a report per mode.
+ * Options are described in {@link LoadTestConfiguration#fromArguments}; with --report=file, the reports are also
+ * written as JSON, to compare runs and catch regressions.
+ * When signatures are verified, the facilitator is first checked to accept a payment signed by the client and to reject
+ * the same payment tampered with, so that a run can't pass with a verification accepting anything.
+ */
+@UtilityClass
+@SuppressWarnings("HideUtilityClassConstructor")
+public class LoadTestRunner {
+
+    /** System property disabling Nagle's algorithm on the connections of the JDK HTTP server. */
+    private static final String SERVER_NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    /** Validity of the payments made by the facilitator check, in seconds. */
+    private static final long CHECK_VALIDITY_SECONDS = 60;
+
+    /**
+     * Main method.
+     *
+     * @param args the load test options
+     * @throws IOException if the JSON report can't be written
+     */
+    public static void main(final String[] args) throws IOException {
+        // Read once when the server classes are loaded: without it, small responses wait for delayed ACKs.
+        System.setProperty(SERVER_NODELAY_PROPERTY, "true");
+        final LoadTestConfiguration configuration = LoadTestConfiguration.fromArguments(args);
+        final List<LoadTestReport> reports = new ArrayList<>();
+        try (LocalX402Server server = new LocalX402Server(configuration.getAcceptsSize(),
+                configuration.getServerThreads(),
+                configuration.isVerifySignatures())) {
+            if (configuration.isVerifySignatures()) {
+                checkFacilitator(server.getPaymentRequirements());
+            }
+            System.out.printf("Local x402 server on %s, %d payments (%d warm-up) per thread mode%n",
+                    server.getResourceUri(), configuration.getPayments(), configuration.getWarmupPayments());
+            final LoadTest loadTest = new LoadTest(configuration, server);
+            for (ThreadMode threadMode : configuration.getThreadModes()) {
+                final LoadTestReport report = loadTest.run(threadMode);
+                report.print(System.out);
+                reports.add(report);
+            }
+            System.out.printf("%nFacilitator: %d settled, %d rejected%n",
+                    server.getFacilitator().getSettled().sum(), server.getFacilitator().getRejected().sum());
+        }
+        if (configuration.getReportFile() != null) {
+            Files.writeString(configuration.getReportFile(), JsonUtil.toJson(reports));
+        }
+    }
+
+    /**
+     * Checks, with a facilitator of its own, that the facilitator accepts a payment signed by the client and rejects
+     * the same payment with a tampered amount or nonce.
+     *
+     * @param paymentRequirements the payment requirements of the local server
+     * @throws IllegalStateException if the facilitator doesn't verify the signatures as expected
+     */
+    private static void checkFacilitator(final PaymentRequirements paymentRequirements) {
+        final FakeFacilitator facilitator = new FakeFacilitator(true);
+        final long now = System.currentTimeMillis() / 1000;
+        final ExactSchemePayload.Authorization authorization = ExactSchemePayload.Authorization.builder()
+                .from(LoadTest.CREDENTIALS.getAddress())
+                .to(paymentRequirements.payTo())
+                .value(paymentRequirements.maxAmountRequired())
+                .validAfter(Long.toString(now - CHECK_VALIDITY_SECONDS))
+                .validBefore(Long.toString(now + CHECK_VALIDITY_SECONDS))
+                .nonce(NonceUtil.generateNonce())
+                .build();
+        final PaymentPayload paymentPayload = PaymentPayload.builder()
+                .x402Version(X402_SUPPORTED_VERSION_BY_MOGAMI.version())
+                .scheme(paymentRequirements.scheme())
+                .network(paymentRequirements.network())
+                .payload(ExactSchemePayload.builder().authorization(authorization).build())
+                .build();
+        final String signature = CachedEIP712Signer.sign(LoadTest.CREDENTIALS, paymentRequirements, paymentPayload);
+
+        final ExactSchemePayload.Authorization tamperedValue = authorization.toBuilder()
+                .value(new BigInteger(authorization.value()).add(BigInteger.ONE).toString())
+                .build();
+        final ExactSchemePayload.Authorization tamperedNonce = authorization.toBuilder()
+                .nonce(NonceUtil.generateNonce())
+                .build();
+        for (ExactSchemePayload.Authorization tampered : List.of(tamperedValue, tamperedNonce)) {
+            final SettleResponse settleResponse = facilitator.settle(paymentHeader(paymentPayload, tampered, signature), paymentRequirements);
+            if (settleResponse.success() || !FakeFacilitator.INVALID_SIGNATURE.equals(settleResponse.errorReason())) {
+                throw new IllegalStateException("Facilitator did not reject a tampered payment: " + JsonUtil.toJson(settleResponse));
+            }
+        }
+        final SettleResponse settleResponse = facilitator.settle(paymentHeader(paymentPayload, authorization, signature), paymentRequirements);
+        if (!settleResponse.success() || !Objects.equals(settleResponse.payer(), authorization.from())) {
+            throw new IllegalStateException("Facilitator did not accept a payment signed by the client: " + JsonUtil.toJson(settleResponse));
+        }
+    }
+
+    /**
+     * Returns the X-PAYMENT header of a payment.
+     *
+     * @param paymentPayload the payment payload
+     * @param authorization  the authorization sent
+     * @param signature      the signature sent
+     * @return the header value
+     */
+    private static String paymentHeader(final PaymentPayload paymentPayload,
+                                        final ExactSchemePayload.Authorization authorization,
+                                        final String signature) {
+        return Base64Util.encode(JsonUtil.toJson(paymentPayload.toBuilder()
+                .payload(ExactSchemePayload.builder().authorization(authorization).signature(signature).build())
+                .build()));
+    }
+
+}
@@ -0,0 +1,238 @@
+package tech.mogami.java.client.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.commons.util.Base64Util;
+import tech.mogami.commons.util.JsonUtil;
+import tech.mogami.java.client.http.X402HttpClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static tech.mogami.commons.constant.network.Networks.BASE;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_NAME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_VERSION;
+
+/**
+ * Local x402 resource server: answers 402 with a payment required listing several payment requirements, and serves
+ * the resource once the X-PAYMENT header is verified and settled by the {@link FakeFacilitator}.
+ * Requests are handled by a pool of platform threads, so that the memory the server allocates can be told apart from
+ * the memory the client allocates.
+ */
+@SuppressWarnings("unused")
+public final class LocalX402Server implements AutoCloseable {
+
+    /** Path of the paid resource. */
+    public static final String RESOURCE_PATH = "/weather";
+
+    /** Prefix of the names of the server threads. */
+    static final String THREAD_NAME_PREFIX = "x402-load-server-";
+
+    /** Name of the thread accepting the connections of the JDK HTTP server. */
+    private static final String DISPATCHER_THREAD_NAME = "HTTP-Dispatcher";
+
+    /** Maximum number of pending connections. */
+    private static final int BACKLOG = 4096;
+
+    /** HTTP status code of a paid resource. */
+    private static final int OK_STATUS_CODE = 200;
+
+    /** HTTP status code of a request that isn't a GET. */
+    private static final int METHOD_NOT_ALLOWED_STATUS_CODE = 405;
+
+    /** Address the payments are made to. */
+    private static final String PAY_TO = "0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1";
+
+    /** USDC contract on Base Sepolia. */
+    private static final String BASE_SEPOLIA_USDC = "0x036CbD53842c5426634e7929541eC2318f3dCF7e";
+
+    /** USDC contract on Base. */
+    private static final String BASE_USDC = "0x833589fCD6eDb6E08f4c7C32D4f71b54bdA02913";
+
+    /** Amount required, in USDC atomic units. */
+    private static final String AMOUNT_REQUIRED = "1000";
+
+    /** Maximum time given to the facilitator, in seconds. */
+    private static final int MAX_TIMEOUT_SECONDS = 60;
+
+    /** Body of the paid resource. */
+    private static final byte[] RESOURCE_BODY = "{\"weather\":\"sunny\",\"temperature\":21}".getBytes(StandardCharsets.UTF_8);
+
+    /** HTTP server. */
+    private final HttpServer server;
+
+    /** Executor of the HTTP server. */
+    private final ExecutorService executor;
+
+    /** Threads of the server. */
+    @Getter
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    /** Facilitator verifying and settling the payments. */
+    @Getter
+    private final FakeFacilitator facilitator;
+
+    /** Payment requirements the client is expected to pay (the last of the 402 body). */
+    @Getter
+    private final PaymentRequirements paymentRequirements;
+
+    /** 402 body without payment. */
+    private final byte[] paymentRequiredBody;
+
+    /**
+     * Starts a local x402 server on a free port.
+     *
+     * @param acceptsSize      the number of payment requirements in the 402 bodies
+     * @param serverThreads    the number of threads handling the requests
+     * @param verifySignatures true if the facilitator verifies the payment signatures
+     */
+    public LocalX402Server(final int acceptsSize, final int serverThreads, final boolean verifySignatures) {
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), BACKLOG);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the local x402 server", e);
+        }
+        final ThreadFactory threadFactory = Thread.ofPlatform().name(THREAD_NAME_PREFIX, 0).daemon(true).factory();
+        this.executor = Executors.newFixedThreadPool(serverThreads, runnable -> {
+            Thread thread = threadFactory.newThread(runnable);
+            threads.add(thread);
+            return thread;
+        });
+        this.facilitator = new FakeFacilitator(verifySignatures);
+        final String resource = "http://localhost:" + server.getAddress().getPort() + RESOURCE_PATH;
+        this.paymentRequirements = PaymentRequirements.builder()
+                .scheme(EXACT_SCHEME.name())
+                .network(BASE_SEPOLIA.name())
+                .maxAmountRequired(AMOUNT_REQUIRED)
+                .resource(resource)
+                .description("Weather forecast")
+                .mimeType("application/json")
+                .payTo(PAY_TO)
+                .maxTimeoutSeconds(MAX_TIMEOUT_SECONDS)
+                .asset(BASE_SEPOLIA_USDC)
+                .extra(EXACT_SCHEME_PARAMETER_NAME, "USDC")
+                .extra(EXACT_SCHEME_PARAMETER_VERSION, "2")
+                .build();
+        this.paymentRequiredBody = paymentRequiredBody(resource, acceptsSize, "X-PAYMENT header is required")
+                .getBytes(StandardCharsets.UTF_8);
+
+        server.setExecutor(executor);
+        server.createContext(RESOURCE_PATH, this::handle);
+        server.start();
+        Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> DISPATCHER_THREAD_NAME.equals(thread.getName()))
+                .forEach(threads::add);
+    }
+
+    /**
+     * Returns the URI of the paid resource.
+     *
+     * @return the URI
+     */
+    public URI getResourceUri() {
+        return URI.create(paymentRequirements.resource());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Handles a request on the paid resource.
+     *
+     * @param exchange the exchange
+     * @throws IOException if the response can't be sent
+     */
+    private void handle(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(METHOD_NOT_ALLOWED_STATUS_CODE, -1);
+                return;
+            }
+            final String payment = exchange.getRequestHeaders().getFirst(X402HttpClient.X_PAYMENT_HEADER);
+            if (payment == null) {
+                respond(exchange, X402HttpClient.PAYMENT_REQUIRED_STATUS_CODE, paymentRequiredBody);
+                return;
+            }
+            final SettleResponse settleResponse = facilitator.settle(payment, paymentRequirements);
+            exchange.getResponseHeaders().add(X402HttpClient.X_PAYMENT_RESPONSE_HEADER, Base64Util.encode(JsonUtil.toJson(settleResponse)));
+            if (settleResponse.success()) {
+                respond(exchange, OK_STATUS_CODE, RESOURCE_BODY);
+            } else {
+                respond(exchange, X402HttpClient.PAYMENT_REQUIRED_STATUS_CODE,
+                        paymentRequiredBody(paymentRequirements.resource(), 1, settleResponse.errorReason()).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Sends a response.
+     *
+     * @param exchange   the exchange
+     * @param statusCode the status code
+     * @param body       the body
+     * @throws IOException if the response can't be sent
+     */
+    private static void respond(final HttpExchange exchange, final int statusCode, final byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Returns a 402 body: payment requirements on Base mainnet the client doesn't pay, then the Base Sepolia one.
+     *
+     * @param resource    the resource URL
+     * @param acceptsSize the number of payment requirements
+     * @param error       the error message
+     * @return the 402 body
+     */
+    private static String paymentRequiredBody(final String resource, final int acceptsSize, final String error) {
+        return IntStream.range(0, acceptsSize)
+                .mapToObj(i -> {
+                    boolean paid = i == acceptsSize - 1;
+                    return """
+                            {
+                              "scheme": "exact",
+                              "network": "%s",
+                              "maxAmountRequired": "%s",
+                              "resource": "%s",
+                              "description": "Weather forecast",
+                              "mimeType": "application/json",
+                              "payTo": "%s",
+                              "maxTimeoutSeconds": %d,
+                              "asset": "%s",
+                              "extra": {
+                                "name": "USDC",
+                                "version": "2"
+                              }
+                            }""".formatted(paid ? BASE_SEPOLIA.name() : BASE.name(),
+                            AMOUNT_REQUIRED,
+                            resource,
+                            PAY_TO,
+                            MAX_TIMEOUT_SECONDS,
+                            paid ? BASE_SEPOLIA_USDC : BASE_USDC);
+                })
+                .collect(Collectors.joining(",", "{\"x402Version\":1,\"accepts\":[", "],\"error\":\"" + error + "\"}"));
+    }
+
+}
@@ -0,0 +1,52 @@
+package tech.mogami.java.client.loadtest;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Kind of threads running the paid calls: the threads of the callers and the executor of the HTTP client.
+ */
+public enum ThreadMode {
+
+    /** One platform thread per concurrent caller, HTTP client on its default platform thread pool. */
+    PLATFORM {
+        @Override
+        ExecutorService newCallerExecutor(final int concurrency) {
+            return Executors.newFixedThreadPool(concurrency, Thread.ofPlatform().name("x402-load-caller-", 0).factory());
+        }
+
+        @Override
+        ExecutorService newHttpClientExecutor() {
+            return Executors.newCachedThreadPool(Thread.ofPlatform().name("x402-load-http-", 0).daemon(true).factory());
+        }
+    },
+
+    /** One virtual thread per concurrent caller, HTTP client on virtual threads. */
+    VIRTUAL {
+        @Override
+        ExecutorService newCallerExecutor(final int concurrency) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("x402-load-caller-", 0).factory());
+        }
+
+        @Override
+        ExecutorService newHttpClientExecutor() {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+    };
+
+    /**
+     * Creates the executor running the callers.
+     *
+     * @param concurrency the number of concurrent callers
+     * @return the executor
+     */
+    abstract ExecutorService newCallerExecutor(int concurrency);
+
+    /**
+     * Creates the executor of the HTTP client.
+     *
+     * @return the executor
+     */
+    abstract ExecutorService newHttpClientExecutor();
+
+}
@@ -0,0 +1,4 @@
+/**
+ * End-to-end load test of the x402 client against a local resource server and a fake facilitator.
+ */
+package tech.mogami.java.client.loadtest;
@@ -0,0 +1,41 @@
+package tech.mogami.java.client.batch;
+
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+
+import java.util.Optional;
+
+/**
+ * Result of the signing of one payment requirements in a batch.
+ *
+ * @param paymentRequirements the payment requirements signed
+ * @param paymentPayload      the signed payment payload (null if failed)
+ * @param header              the X-PAYMENT header value (null if failed)
+ * @param failure             the failure cause (null if succeeded)
+ */
+public record BatchPaymentResult(
+        PaymentRequirements paymentRequirements,
+        PaymentPayload paymentPayload,
+        String header,
+        Throwable failure
+) {
+
+    /**
+     * Indicates if the payment requirements were successfully signed.
+     *
+     * @return true if successful
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * Returns the X-PAYMENT header value if the signing succeeded.
+     *
+     * @return the header value
+     */
+    public Optional<String> getHeader() {
+        return Optional.ofNullable(header);
+    }
+
+}
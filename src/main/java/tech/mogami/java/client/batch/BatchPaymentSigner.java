@@ -0,0 +1,165 @@
+package tech.mogami.java.client.batch;
+
+import lombok.Builder;
+import lombok.NonNull;
+import org.web3j.crypto.Credentials;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequired;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.java.client.budget.SpendLedger;
+import tech.mogami.java.client.budget.SpendReservation;
+import tech.mogami.java.client.helper.X402PaymentHelper;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Builds, signs and encodes many payment payloads in parallel.
+ * Results are returned in the order of the payment requirements, and a failure on one item does not fail the batch.
+ * With a {@link SpendLedger}, every item is checked against the spend limits before being signed: an item that would
+ * exceed a limit fails with {@link tech.mogami.java.client.budget.BudgetExceededException}.
+ */
+@SuppressWarnings("unused")
+public final class BatchPaymentSigner implements AutoCloseable {
+
+    /** Executor running the signatures. */
+    private final ExecutorService executor;
+
+    /** True if the executor was created by this signer and must be closed with it. */
+    private final boolean ownedExecutor;
+
+    /** Optional ledger enforcing spend limits. */
+    private final SpendLedger spendLedger;
+
+    /**
+     * Creates a batch payment signer.
+     *
+     * @param executor    the executor running the signatures (a virtual thread per task executor if null)
+     * @param spendLedger the ledger enforcing spend limits (no limit if null)
+     */
+    @Builder
+    private BatchPaymentSigner(final ExecutorService executor, final SpendLedger spendLedger) {
+        this.ownedExecutor = executor == null;
+        this.executor = ownedExecutor ? Executors.newVirtualThreadPerTaskExecutor() : executor;
+        this.spendLedger = spendLedger;
+    }
+
+    /**
+     * Creates a batch payment signer running on virtual threads.
+     *
+     * @return a batch payment signer
+     */
+    public static BatchPaymentSigner virtualThreads() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a batch payment signer running on the common fork join pool.
+     *
+     * @return a batch payment signer
+     */
+    public static BatchPaymentSigner forkJoin() {
+        return builder().executor(ForkJoinPool.commonPool()).build();
+    }
+
+    /**
+     * Builds, signs and encodes a payment payload for every accepted payment requirements.
+     *
+     * @param credentials     the credentials of the user making the payment
+     * @param paymentRequired the payment required returned by the server
+     * @return the results, in the order of {@link PaymentRequired#accepts()}
+     */
+    public List<BatchPaymentResult> sign(@NonNull final Credentials credentials, @NonNull final PaymentRequired paymentRequired) {
+        return sign(credentials, paymentRequired.accepts());
+    }
+
+    /**
+     * Builds, signs and encodes a payment payload for every payment requirements.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements to sign
+     * @return the results, in the order of the payment requirements
+     */
+    public List<BatchPaymentResult> sign(@NonNull final Credentials credentials, @NonNull final List<PaymentRequirements> paymentRequirements) {
+        return signAsync(credentials, paymentRequirements).join();
+    }
+
+    /**
+     * Builds, signs and encodes a payment payload for every payment requirements, without blocking the caller.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements to sign
+     * @return a future of the results, in the order of the payment requirements
+     */
+    public CompletableFuture<List<BatchPaymentResult>> signAsync(@NonNull final Credentials credentials,
+                                                                 @NonNull final List<PaymentRequirements> paymentRequirements) {
+        List<CompletableFuture<BatchPaymentResult>> futures = paymentRequirements.stream()
+                .map(requirements -> CompletableFuture
+                        .supplyAsync(() -> signOne(credentials, requirements), executor)
+                        .exceptionally(throwable -> new BatchPaymentResult(requirements, null, null, unwrap(throwable))))
+                .toList();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(unused -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor) {
+            executor.close();
+        }
+    }
+
+    /**
+     * Builds, signs and encodes the payment payload of one payment requirements, after reserving it on the spend ledger.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements to sign
+     * @return the result
+     */
+    private BatchPaymentResult signOne(final Credentials credentials, final PaymentRequirements paymentRequirements) {
+        if (spendLedger == null) {
+            return signUnchecked(credentials, paymentRequirements);
+        }
+        SpendReservation reservation = spendLedger.reserve(credentials.getAddress(), paymentRequirements);
+        try {
+            BatchPaymentResult result = signUnchecked(credentials, paymentRequirements);
+            reservation.commit();
+            return result;
+        } catch (RuntimeException e) {
+            reservation.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * Builds, signs and encodes the payment payload of one payment requirements.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements to sign
+     * @return the result
+     */
+    private static BatchPaymentResult signUnchecked(final Credentials credentials, final PaymentRequirements paymentRequirements) {
+        PaymentPayload signedPayload = X402PaymentHelper.getSignedPayload(credentials,
+                paymentRequirements,
+                X402PaymentHelper.getPayloadFromPaymentRequirements(null, credentials.getAddress(), paymentRequirements));
+        return new BatchPaymentResult(paymentRequirements, signedPayload, X402PaymentHelper.getPayloadHeader(signedPayload), null);
+    }
+
+    /**
+     * Unwraps the completion exception added by {@link CompletableFuture}.
+     *
+     * @param throwable the throwable
+     * @return the cause
+     */
+    private static Throwable unwrap(final Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Parallel building, signing and encoding of many payment payloads at once.
+ */
+package tech.mogami.java.client.batch;
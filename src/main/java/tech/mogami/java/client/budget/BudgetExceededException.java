@@ -0,0 +1,45 @@
+package tech.mogami.java.client.budget;
+
+import lombok.Getter;
+
+import java.io.Serial;
+
+/**
+ * Raised when a payment would exceed a spend limit.
+ */
+@Getter
+public class BudgetExceededException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** The limit that would be exceeded. */
+    private final transient SpendLimit limit;
+
+    /** The value of the dimension (asset, payTo, resource or wallet). */
+    private final String key;
+
+    /** The asset of the rejected payment. */
+    private final String asset;
+
+    /** The amount of the rejected payment. */
+    private final long amount;
+
+    /**
+     * Constructor.
+     *
+     * @param limit  the limit that would be exceeded
+     * @param key    the value of the dimension
+     * @param asset  the asset of the rejected payment
+     * @param amount the amount of the rejected payment
+     */
+    public BudgetExceededException(final SpendLimit limit, final String key, final String asset, final long amount) {
+        super("Payment of " + amount + " " + asset + " would exceed the " + limit.dimension() + " limit of " + limit.maxAmount()
+                + " per " + limit.window() + " for " + key);
+        this.limit = limit;
+        this.key = key;
+        this.asset = asset;
+        this.amount = amount;
+    }
+
+}
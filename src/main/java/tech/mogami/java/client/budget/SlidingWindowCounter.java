@@ -0,0 +1,203 @@
+package tech.mogami.java.client.budget;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free amount counter over a sliding time window, split in buckets.
+ * The running total is only increased through a compare-and-set against the maximum, so that concurrent payments
+ * can never exceed it together. Amounts leave the total when their bucket expires; an amount may be counted up to
+ * one bucket longer than the window, never shorter.
+ * A counter whose window is empty can be retired, so that its ledger drops it: a retired counter refuses every
+ * reservation, and the ledger replaces it with a new one.
+ */
+final class SlidingWindowCounter {
+
+    /** Number of buckets in a window. */
+    static final int BUCKETS = 16;
+
+    /** Epoch marker of a bucket being recycled. */
+    private static final long ROTATING = Long.MIN_VALUE;
+
+    /** Total of a retired counter. */
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    /** Duration of a bucket, in nanoseconds. */
+    private final long bucketNanos;
+
+    /** Amount of each bucket. */
+    private final AtomicLongArray amounts = new AtomicLongArray(BUCKETS);
+
+    /** Epoch (time divided by the bucket duration) of each bucket. */
+    private final AtomicLongArray epochs = new AtomicLongArray(BUCKETS);
+
+    /** Sum of the amounts of the buckets plus the reservations not yet committed. */
+    private final AtomicLong total = new AtomicLong();
+
+    /** Last epoch at which expired buckets were recycled. */
+    private final AtomicLong lastExpiration = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param windowNanos the window duration, in nanoseconds
+     * @param now         the current time, in nanoseconds
+     */
+    SlidingWindowCounter(final long windowNanos, final long now) {
+        this.bucketNanos = Math.max(1, windowNanos / BUCKETS);
+        final long epoch = epoch(now);
+        for (int i = 0; i < BUCKETS; i++) {
+            epochs.set(i, slotEpoch(i, epoch));
+        }
+        lastExpiration.set(epoch);
+    }
+
+    /**
+     * Returns the epoch of a time.
+     *
+     * @param now the time, in nanoseconds
+     * @return the epoch
+     */
+    long epoch(final long now) {
+        return Math.floorDiv(now, bucketNanos);
+    }
+
+    /**
+     * Reserves an amount if it keeps the total within the maximum.
+     *
+     * @param amount    the amount
+     * @param maxAmount the maximum
+     * @param epoch     the current epoch
+     * @return true if reserved
+     */
+    boolean tryReserve(final long amount, final long maxAmount, final long epoch) {
+        expire(epoch);
+        long current;
+        do {
+            current = total.get();
+            if (current == RETIRED || current + amount > maxAmount || current + amount < current) {
+                return false;
+            }
+        } while (!total.compareAndSet(current, current + amount));
+        return true;
+    }
+
+    /**
+     * Cancels a reservation that was not committed.
+     *
+     * @param amount the amount reserved
+     */
+    void cancel(final long amount) {
+        total.addAndGet(-amount);
+    }
+
+    /**
+     * Commits a reservation in the bucket of the current epoch.
+     *
+     * @param amount the amount reserved
+     * @param epoch  the current epoch
+     */
+    void commit(final long amount, final long epoch) {
+        final int index = index(epoch);
+        while (true) {
+            final long bucketEpoch = epochs.get(index);
+            if (bucketEpoch == epoch) {
+                amounts.addAndGet(index, amount);
+                return;
+            } else if (bucketEpoch == ROTATING) {
+                Thread.onSpinWait();
+            } else if (bucketEpoch > epoch) {
+                // The caller is late: the amount goes to the newer bucket, which expires later (conservative).
+                amounts.addAndGet(index, amount);
+                return;
+            } else {
+                recycle(index, bucketEpoch, epoch);
+            }
+        }
+    }
+
+    /**
+     * Returns the amount counted in the window.
+     *
+     * @param epoch the current epoch
+     * @return the amount
+     */
+    long get(final long epoch) {
+        expire(epoch);
+        return total.get();
+    }
+
+    /**
+     * Retires the counter if its window is empty and no reservation is pending.
+     *
+     * @param epoch the current epoch
+     * @return true if retired
+     */
+    boolean retire(final long epoch) {
+        expire(epoch);
+        return total.compareAndSet(0, RETIRED);
+    }
+
+    /**
+     * Returns true if the counter is retired.
+     *
+     * @return true if retired
+     */
+    boolean isRetired() {
+        return total.get() == RETIRED;
+    }
+
+    /**
+     * Recycles the buckets that left the window.
+     *
+     * @param epoch the current epoch
+     */
+    private void expire(final long epoch) {
+        final long last = lastExpiration.get();
+        if (last >= epoch || !lastExpiration.compareAndSet(last, epoch)) {
+            return;
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            final long bucketEpoch = epochs.get(i);
+            if (bucketEpoch != ROTATING && epoch - bucketEpoch >= BUCKETS) {
+                recycle(i, bucketEpoch, epoch);
+            }
+        }
+    }
+
+    /**
+     * Recycles a bucket for the current window: its amount leaves the total.
+     *
+     * @param index       the bucket index
+     * @param bucketEpoch the epoch of the bucket seen by the caller
+     * @param epoch       the current epoch
+     */
+    private void recycle(final int index, final long bucketEpoch, final long epoch) {
+        if (epochs.compareAndSet(index, bucketEpoch, ROTATING)) {
+            total.addAndGet(-amounts.getAndSet(index, 0));
+            epochs.set(index, slotEpoch(index, epoch));
+        }
+    }
+
+    /**
+     * Returns the most recent epoch, not after the current one, that maps to a bucket.
+     *
+     * @param index the bucket index
+     * @param epoch the current epoch
+     * @return the epoch of the bucket
+     */
+    private static long slotEpoch(final int index, final long epoch) {
+        return epoch - Math.floorMod(epoch - index, BUCKETS);
+    }
+
+    /**
+     * Returns the bucket index of an epoch.
+     *
+     * @param epoch the epoch
+     * @return the bucket index
+     */
+    private static int index(final long epoch) {
+        return (int) Math.floorMod(epoch, (long) BUCKETS);
+    }
+
+}
@@ -0,0 +1,20 @@
+package tech.mogami.java.client.budget;
+
+/**
+ * Dimension along which spend is tracked and capped.
+ */
+public enum SpendDimension {
+
+    /** Asset contract paid with. */
+    ASSET,
+
+    /** Recipient of the payment. */
+    PAY_TO,
+
+    /** Resource paid for. */
+    RESOURCE,
+
+    /** Wallet paying. */
+    WALLET
+
+}
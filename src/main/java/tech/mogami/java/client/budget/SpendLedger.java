@@ -0,0 +1,322 @@
+package tech.mogami.java.client.budget;
+
+import lombok.Builder;
+import lombok.NonNull;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.commons.util.JsonUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent ledger of the amounts paid, per asset, payTo, resource and wallet, enforcing spend limits.
+ * A payment is reserved on every limit it falls under before it is signed: each limit counter only grows through a
+ * compare-and-set against its maximum, so concurrent payments can never exceed a limit together, without any lock.
+ * Totals since the creation of the ledger are kept in striped counters ({@link LongAdder}) for reconciliation.
+ * Amounts are in the atomic units of their asset, so counters and totals are always kept per asset.
+ * Payees and resources come from the servers paid, so neither map can grow without end: window counters are dropped
+ * once their window is empty, and the number of totals is capped. Beyond the cap, the amounts of new values are
+ * totalled under {@link #UNKNOWN_KEY} for their dimension and asset, or for an unknown asset if the asset is new too.
+ * <p>
+ * The ledger is consulted by the payment paths it is given to: {@link tech.mogami.java.client.http.X402HttpClient},
+ * {@link tech.mogami.java.client.batch.BatchPaymentSigner} and {@link tech.mogami.java.client.pool.PreSignedPaymentPool}.
+ * The static {@link tech.mogami.java.client.helper.X402PaymentHelper} methods never consult it: callers signing with
+ * them directly must {@link #reserve(String, PaymentRequirements)} the payment themselves.
+ */
+@SuppressWarnings("unused")
+public final class SpendLedger {
+
+    /** Default maximum number of totals. */
+    public static final int DEFAULT_MAX_KEYS = 4096;
+
+    /** Dimension value (and asset) under which the amounts are totalled once the maximum number of totals is reached. */
+    public static final String UNKNOWN_KEY = "unknown";
+
+    /** Minimum interval between two sweeps of the window counters. */
+    private static final Duration MINIMUM_SWEEP_INTERVAL = Duration.ofSeconds(1);
+
+    /** Dimensions, indexed by ordinal. */
+    private static final SpendDimension[] DIMENSIONS = SpendDimension.values();
+
+    /** Spend limits. */
+    private final List<SpendLimit> limits;
+
+    /** Normalized value capped by each limit, or null for limits capping every value separately. */
+    private final String[] limitKeys;
+
+    /** Normalized asset capped by each limit, or null for limits capping every asset separately. */
+    private final String[] limitAssets;
+
+    /** Window counters, per limit, dimension value and asset. */
+    private final Map<CounterKey, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+
+    /** Totals since the creation of the ledger, per dimension, dimension value and asset. */
+    private final Map<CounterKey, LongAdder> totals = new ConcurrentHashMap<>();
+
+    /** Maximum number of totals, the unknown ones excluded. */
+    private final int maxKeys;
+
+    /** Number of totals, the unknown ones excluded. */
+    private final AtomicInteger totalKeys = new AtomicInteger();
+
+    /** Interval between two sweeps of the window counters, in nanoseconds. */
+    private final long sweepIntervalNanos;
+
+    /** Time of the next sweep of the window counters, in nanoseconds. */
+    private final AtomicLong nextSweepAt;
+
+    /**
+     * Creates a spend ledger.
+     *
+     * @param limits  the spend limits (no limit if null)
+     * @param maxKeys the maximum number of totals, the unknown ones excluded ({@link #DEFAULT_MAX_KEYS} if null)
+     */
+    @Builder
+    private SpendLedger(final List<SpendLimit> limits, final Integer maxKeys) {
+        this.limits = List.copyOf(Objects.requireNonNullElse(limits, List.of()));
+        this.maxKeys = Objects.requireNonNullElse(maxKeys, DEFAULT_MAX_KEYS);
+        if (this.maxKeys <= 0) {
+            throw new IllegalArgumentException("Maximum number of keys must be positive: " + this.maxKeys);
+        }
+        this.limitKeys = this.limits.stream()
+                .map(limit -> normalize(limit.dimension(), limit.key()))
+                .toArray(String[]::new);
+        this.limitAssets = this.limits.stream()
+                .map(limit -> normalize(SpendDimension.ASSET, limit.asset()))
+                .toArray(String[]::new);
+        // A counter can't be dropped before its window is empty: sweeping more often than the shortest window is useless.
+        this.sweepIntervalNanos = Math.max(this.limits.stream()
+                .mapToLong(limit -> limit.window().toNanos())
+                .min()
+                .orElse(0), MINIMUM_SWEEP_INTERVAL.toNanos());
+        this.nextSweepAt = new AtomicLong(System.nanoTime() + sweepIntervalNanos);
+    }
+
+    /**
+     * Reserves a payment on every limit it falls under. The reservation must then be committed once the payment is
+     * signed, or cancelled if it is not.
+     *
+     * @param walletAddress       the address of the wallet paying
+     * @param paymentRequirements the payment requirements to pay
+     * @return the reservation
+     * @throws BudgetExceededException  if the payment would exceed a limit (nothing is reserved)
+     * @throws IllegalArgumentException if the amount required is not a valid amount, or the asset is missing
+     */
+    public SpendReservation reserve(@NonNull final String walletAddress, @NonNull final PaymentRequirements paymentRequirements) {
+        final long amount = getAmount(paymentRequirements);
+        if (paymentRequirements.asset() == null) {
+            throw new IllegalArgumentException("Missing asset in payment requirements");
+        }
+        final String[] keys = new String[DIMENSIONS.length];
+        keys[SpendDimension.ASSET.ordinal()] = normalize(SpendDimension.ASSET, paymentRequirements.asset());
+        keys[SpendDimension.PAY_TO.ordinal()] = normalize(SpendDimension.PAY_TO, paymentRequirements.payTo());
+        keys[SpendDimension.RESOURCE.ordinal()] = normalize(SpendDimension.RESOURCE, paymentRequirements.resource());
+        keys[SpendDimension.WALLET.ordinal()] = normalize(SpendDimension.WALLET, walletAddress);
+
+        final String asset = keys[SpendDimension.ASSET.ordinal()];
+        final long now = System.nanoTime();
+        sweep(now);
+        final List<SlidingWindowCounter> reserved = new ArrayList<>(limits.size());
+        for (int i = 0; i < limits.size(); i++) {
+            final SpendLimit limit = limits.get(i);
+            final String key = keys[limit.dimension().ordinal()];
+            if (key == null
+                    || limitKeys[i] != null && !limitKeys[i].equals(key)
+                    || limitAssets[i] != null && !limitAssets[i].equals(asset)) {
+                continue;
+            }
+            final CounterKey counterKey = new CounterKey(i, key, asset);
+            SlidingWindowCounter counter;
+            while (!(counter = counters.computeIfAbsent(counterKey, k -> new SlidingWindowCounter(limit.window().toNanos(), now)))
+                    .tryReserve(amount, limit.maxAmount(), counter.epoch(now))) {
+                if (!counter.isRetired()) {
+                    reserved.forEach(previous -> previous.cancel(amount));
+                    throw new BudgetExceededException(limit, key, asset, amount);
+                }
+                // Retired by a sweep since it was looked up: it is replaced by a new counter.
+                counters.remove(counterKey, counter);
+            }
+            reserved.add(counter);
+        }
+        return new SpendReservation(this, amount, keys, reserved);
+    }
+
+    /**
+     * Reserves and commits a payment at once.
+     *
+     * @param walletAddress       the address of the wallet paying
+     * @param paymentRequirements the payment requirements to pay
+     * @throws BudgetExceededException  if the payment would exceed a limit (nothing is charged)
+     * @throws IllegalArgumentException if the amount required is not a valid amount, or the asset is missing
+     */
+    public void charge(@NonNull final String walletAddress, @NonNull final PaymentRequirements paymentRequirements) {
+        reserve(walletAddress, paymentRequirements).commit();
+    }
+
+    /**
+     * Returns the amount of an asset spent, since the creation of the ledger, for a dimension value.
+     * Values seen once the maximum number of totals was reached are totalled under {@link #UNKNOWN_KEY}.
+     *
+     * @param dimension the dimension
+     * @param key       the dimension value (the asset itself for {@link SpendDimension#ASSET})
+     * @param asset     the asset
+     * @return the amount, in the asset atomic units
+     */
+    public long getTotal(@NonNull final SpendDimension dimension, @NonNull final String key, @NonNull final String asset) {
+        final LongAdder total = totals.get(new CounterKey(dimension.ordinal(), normalize(dimension, key), normalize(SpendDimension.ASSET, asset)));
+        return total == null ? 0 : total.sum();
+    }
+
+    /**
+     * Returns a snapshot of the totals and of the amounts within the limit windows.
+     * Counters are read one by one: payments made during the snapshot may or may not be included.
+     *
+     * @return the snapshot
+     */
+    public SpendSnapshot snapshot() {
+        final long now = System.nanoTime();
+        final Map<String, Map<SpendDimension, Map<String, Long>>> totalsSnapshot = new TreeMap<>();
+        totals.forEach((totalKey, total) -> totalsSnapshot
+                .computeIfAbsent(totalKey.asset(), asset -> new EnumMap<>(SpendDimension.class))
+                .computeIfAbsent(DIMENSIONS[totalKey.index()], dimension -> new TreeMap<>())
+                .put(totalKey.key(), total.sum()));
+        totalsSnapshot.replaceAll((asset, dimensions) -> {
+            dimensions.replaceAll((dimension, values) -> Collections.unmodifiableMap(values));
+            return Collections.unmodifiableMap(dimensions);
+        });
+        final List<SpendSnapshot.WindowSpend> windows = new ArrayList<>(counters.size());
+        counters.forEach((counterKey, counter) -> {
+            if (counter.isRetired()) {
+                return;
+            }
+            final SpendLimit limit = limits.get(counterKey.index());
+            windows.add(new SpendSnapshot.WindowSpend(limit.dimension(),
+                    counterKey.key(),
+                    counterKey.asset(),
+                    counter.get(counter.epoch(now)),
+                    limit.maxAmount(),
+                    limit.window().toMillis()));
+        });
+        return new SpendSnapshot(System.currentTimeMillis(), Collections.unmodifiableMap(totalsSnapshot), List.copyOf(windows));
+    }
+
+    /**
+     * Exports a snapshot of the ledger as JSON.
+     *
+     * @return the JSON snapshot
+     */
+    public String export() {
+        return JsonUtil.toJson(snapshot());
+    }
+
+    /**
+     * Adds a committed payment to the totals.
+     *
+     * @param amount the amount
+     * @param keys   the dimension values, indexed by dimension ordinal
+     */
+    void addToTotals(final long amount, final String[] keys) {
+        final String asset = keys[SpendDimension.ASSET.ordinal()];
+        for (SpendDimension dimension : DIMENSIONS) {
+            final String key = keys[dimension.ordinal()];
+            if (key != null) {
+                totalOf(dimension, key, asset).add(amount);
+            }
+        }
+    }
+
+    /**
+     * Returns the total of a dimension value, creating it if the maximum number of totals is not reached, or the
+     * total of the unknown value of the dimension otherwise. The cap is checked without lock, so concurrent threads
+     * may exceed it by a few totals.
+     *
+     * @param dimension the dimension
+     * @param key       the normalized dimension value
+     * @param asset     the normalized asset
+     * @return the total
+     */
+    private LongAdder totalOf(final SpendDimension dimension, final String key, final String asset) {
+        final CounterKey totalKey = new CounterKey(dimension.ordinal(), key, asset);
+        final LongAdder total = totals.get(totalKey);
+        if (total != null) {
+            return total;
+        }
+        if (totalKeys.get() < maxKeys) {
+            return totals.computeIfAbsent(totalKey, k -> {
+                totalKeys.incrementAndGet();
+                return new LongAdder();
+            });
+        }
+        // The asset totals come first: an asset not totalled yet can't be told apart from the other new assets.
+        final String unknownAsset = totals.containsKey(new CounterKey(SpendDimension.ASSET.ordinal(), asset, asset)) ? asset : UNKNOWN_KEY;
+        return totals.computeIfAbsent(new CounterKey(dimension.ordinal(), UNKNOWN_KEY, unknownAsset), k -> new LongAdder());
+    }
+
+    /**
+     * Drops the window counters whose window is empty, at most once per sweep interval and by a single thread.
+     *
+     * @param now the current time, in nanoseconds
+     */
+    private void sweep(final long now) {
+        final long sweepAt = nextSweepAt.get();
+        if (now - sweepAt >= 0 && nextSweepAt.compareAndSet(sweepAt, now + sweepIntervalNanos)) {
+            counters.values().removeIf(counter -> counter.retire(counter.epoch(now)));
+        }
+    }
+
+    /**
+     * Returns the amount required by a payment requirements.
+     *
+     * @param paymentRequirements the payment requirements
+     * @return the amount, in the asset atomic units
+     */
+    private static long getAmount(final PaymentRequirements paymentRequirements) {
+        final String maxAmountRequired = paymentRequirements.maxAmountRequired();
+        final long amount;
+        try {
+            amount = Long.parseLong(maxAmountRequired);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount required: " + maxAmountRequired, e);
+        }
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount required must not be negative: " + amount);
+        }
+        return amount;
+    }
+
+    /**
+     * Normalizes a dimension value: addresses are compared case-insensitively, resources as-is.
+     *
+     * @param dimension the dimension
+     * @param key       the dimension value
+     * @return the normalized value, or null if none
+     */
+    private static String normalize(final SpendDimension dimension, final String key) {
+        if (key == null || dimension == SpendDimension.RESOURCE) {
+            return key;
+        }
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Key of a window counter (index of the limit) or of a total (ordinal of the dimension).
+     *
+     * @param index the index of the limit, or the ordinal of the dimension
+     * @param key   the dimension value
+     * @param asset the asset
+     */
+    private record CounterKey(int index, String key, String asset) {
+    }
+
+}
@@ -0,0 +1,46 @@
+package tech.mogami.java.client.budget;
+
+import lombok.Builder;
+import lombok.NonNull;
+
+import java.time.Duration;
+
+/**
+ * Cap on the amount spent along a dimension within a sliding time window.
+ * Amounts of different assets are never added together: the limit caps each asset separately, unless it is
+ * restricted to a single asset.
+ *
+ * @param dimension the dimension capped
+ * @param key       the value capped (for example an asset address), or null to cap every value separately
+ * @param asset     the only asset capped, or null to cap every asset separately
+ * @param maxAmount the maximum amount, in the asset atomic units, within the window
+ * @param window    the sliding time window
+ */
+@Builder
+public record SpendLimit(
+        @NonNull SpendDimension dimension,
+        String key,
+        String asset,
+        long maxAmount,
+        @NonNull Duration window
+) {
+
+    /**
+     * Constructor.
+     *
+     * @param dimension the dimension capped
+     * @param key       the value capped, or null to cap every value separately
+     * @param asset     the only asset capped, or null to cap every asset separately
+     * @param maxAmount the maximum amount within the window
+     * @param window    the sliding time window
+     */
+    public SpendLimit {
+        if (maxAmount < 0) {
+            throw new IllegalArgumentException("Maximum amount must not be negative: " + maxAmount);
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+    }
+
+}
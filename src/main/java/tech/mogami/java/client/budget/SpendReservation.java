@@ -0,0 +1,66 @@
+package tech.mogami.java.client.budget;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Payment reserved on the spend limits of a {@link SpendLedger}, waiting for the payment to be signed.
+ * Committing adds it to the ledger totals; cancelling releases it from the limits. Only the first call counts.
+ */
+@SuppressWarnings("unused")
+public final class SpendReservation {
+
+    /** Ledger the payment is reserved in. */
+    private final SpendLedger ledger;
+
+    /** Amount reserved. */
+    @Getter
+    private final long amount;
+
+    /** Dimension values of the payment, indexed by dimension ordinal. */
+    private final String[] keys;
+
+    /** Counters of the limits the amount is reserved on. */
+    private final List<SlidingWindowCounter> counters;
+
+    /** True once committed or cancelled. */
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    /**
+     * Constructor.
+     *
+     * @param ledger   the ledger
+     * @param amount   the amount reserved
+     * @param keys     the dimension values of the payment
+     * @param counters the counters of the limits the amount is reserved on
+     */
+    SpendReservation(final SpendLedger ledger, final long amount, final String[] keys, final List<SlidingWindowCounter> counters) {
+        this.ledger = ledger;
+        this.amount = amount;
+        this.keys = keys;
+        this.counters = counters;
+    }
+
+    /**
+     * Commits the payment: it stays counted in the limit windows and is added to the ledger totals.
+     */
+    public void commit() {
+        if (completed.compareAndSet(false, true)) {
+            final long now = System.nanoTime();
+            counters.forEach(counter -> counter.commit(amount, counter.epoch(now)));
+            ledger.addToTotals(amount, keys);
+        }
+    }
+
+    /**
+     * Cancels the payment: it is released from the limits.
+     */
+    public void cancel() {
+        if (completed.compareAndSet(false, true)) {
+            counters.forEach(counter -> counter.cancel(amount));
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package tech.mogami.java.client.budget;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of a {@link SpendLedger}, for reconciliation.
+ *
+ * @param timestamp the time of the snapshot, in milliseconds since the epoch
+ * @param totals    the amounts spent since the creation of the ledger, per asset, dimension and dimension value
+ * @param windows   the amounts spent within the window of each limit, per dimension value and asset
+ */
+public record SpendSnapshot(
+        long timestamp,
+        Map<String, Map<SpendDimension, Map<String, Long>>> totals,
+        List<WindowSpend> windows
+) {
+
+    /**
+     * Amount spent within the window of a limit.
+     *
+     * @param dimension    the dimension capped
+     * @param key          the dimension value
+     * @param asset        the asset paid with
+     * @param amount       the amount spent within the window
+     * @param maxAmount    the maximum amount within the window
+     * @param windowMillis the window duration, in milliseconds
+     */
+    public record WindowSpend(
+            SpendDimension dimension,
+            String key,
+            String asset,
+            long amount,
+            long maxAmount,
+            long windowMillis
+    ) {
+    }
+
+}
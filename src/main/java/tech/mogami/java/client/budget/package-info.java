@@ -0,0 +1,4 @@
+/**
+ * Spend ledger enforcing budgets on the payments made by the client.
+ */
+package tech.mogami.java.client.budget;
@@ -0,0 +1,229 @@
+package tech.mogami.java.client.cache;
+
+import lombok.Builder;
+import lombok.NonNull;
+import tech.mogami.commons.header.payment.PaymentRequired;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.StreamSupport;
+
+/**
+ * Concurrent cache of the payment required returned by resources, keyed by HTTP method and URI.
+ * Entries expire after a time to live, the cache is bounded in size, and entries are invalidated when the server
+ * answers 402 anyway or rejects the payment.
+ */
+@SuppressWarnings("unused")
+public final class PaymentRequiredCache {
+
+    /** Default time to live of an entry. */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    /** Default maximum number of entries. */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    /** Number of entries examined to choose the one to evict. */
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    /** Minimum interval between two sweeps of the expired entries. */
+    private static final Duration MINIMUM_SWEEP_INTERVAL = Duration.ofSeconds(1);
+
+    /** Time to live of an entry, in nanoseconds. */
+    private final long timeToLiveNanos;
+
+    /** Maximum number of entries. */
+    private final int maximumSize;
+
+    /** Interval between two sweeps of the expired entries, in nanoseconds. */
+    private final long sweepIntervalNanos;
+
+    /** Time of the next sweep of the expired entries, in nanoseconds. */
+    private final AtomicLong nextSweepAt;
+
+    /** Entries. */
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Hits counter. */
+    private final LongAdder hits = new LongAdder();
+
+    /** Misses counter. */
+    private final LongAdder misses = new LongAdder();
+
+    /** Stale lookups counter. */
+    private final LongAdder stale = new LongAdder();
+
+    /** Invalidations counter. */
+    private final LongAdder invalidations = new LongAdder();
+
+    /** Evictions counter. */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a payment required cache.
+     *
+     * @param timeToLive  time to live of an entry
+     * @param maximumSize maximum number of entries
+     */
+    @Builder
+    private PaymentRequiredCache(final Duration timeToLive, final Integer maximumSize) {
+        this.timeToLiveNanos = Objects.requireNonNullElse(timeToLive, DEFAULT_TIME_TO_LIVE).toNanos();
+        this.maximumSize = Objects.requireNonNullElse(maximumSize, DEFAULT_MAXIMUM_SIZE);
+        if (this.maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + this.maximumSize);
+        }
+        this.sweepIntervalNanos = Math.max(timeToLiveNanos, MINIMUM_SWEEP_INTERVAL.toNanos());
+        this.nextSweepAt = new AtomicLong(System.nanoTime() + sweepIntervalNanos);
+    }
+
+    /**
+     * Returns the payment required of a resource, if known and not expired.
+     *
+     * @param method the HTTP method
+     * @param uri    the resource URI
+     * @return the payment required
+     */
+    public Optional<PaymentRequired> get(@NonNull final String method, @NonNull final URI uri) {
+        final Key key = new Key(method, uri);
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (entry.expiresAt() - System.nanoTime() < 0) {
+            stale.increment();
+            entries.remove(key, entry);
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.paymentRequired());
+    }
+
+    /**
+     * Stores the payment required of a resource.
+     *
+     * @param method          the HTTP method
+     * @param uri             the resource URI
+     * @param paymentRequired the payment required returned by the server
+     */
+    public void put(@NonNull final String method, @NonNull final URI uri, @NonNull final PaymentRequired paymentRequired) {
+        final long now = System.nanoTime();
+        if (entries.put(new Key(method, uri), new Entry(paymentRequired, now + timeToLiveNanos)) == null) {
+            sweep(now);
+            if (entries.size() > maximumSize) {
+                evict(now);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the payment required of a resource.
+     *
+     * @param method the HTTP method
+     * @param uri    the resource URI
+     */
+    public void invalidate(@NonNull final String method, @NonNull final URI uri) {
+        if (entries.remove(new Key(method, uri)) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Invalidates all the entries.
+     */
+    public void invalidateAll() {
+        final int size = entries.size();
+        entries.clear();
+        invalidations.add(size);
+    }
+
+    /**
+     * Returns a snapshot of the cache counters.
+     *
+     * @return the statistics
+     */
+    public PaymentRequiredCacheStatistics getStatistics() {
+        return new PaymentRequiredCacheStatistics(hits.sum(),
+                misses.sum(),
+                stale.sum(),
+                invalidations.sum(),
+                evictions.sum(),
+                entries.size());
+    }
+
+    /**
+     * Removes the expired entries, at most once per sweep interval and by a single thread.
+     *
+     * @param now the current time, in nanoseconds
+     */
+    private void sweep(final long now) {
+        final long sweepAt = nextSweepAt.get();
+        if (now - sweepAt >= 0 && nextSweepAt.compareAndSet(sweepAt, now + sweepIntervalNanos)) {
+            entries.values().removeIf(entry -> entry.expiresAt() - now < 0);
+        }
+    }
+
+    /**
+     * Removes entries until the maximum size is respected: each time, the one expiring first among a sample of
+     * entries taken at a random position in the map. Expired entries expire first, so they are chosen first.
+     *
+     * @param now the current time, in nanoseconds
+     */
+    private void evict(final long now) {
+        while (entries.size() > maximumSize) {
+            StreamSupport.stream(sample(), false)
+                    .limit(EVICTION_SAMPLE_SIZE)
+                    .min(Comparator.comparingLong(entry -> entry.getValue().expiresAt() - now))
+                    .filter(entry -> entries.remove(entry.getKey(), entry.getValue()))
+                    .ifPresent(entry -> evictions.increment());
+        }
+    }
+
+    /**
+     * Returns a spliterator over about {@link #EVICTION_SAMPLE_SIZE} entries at a random position in the map: the map
+     * spliterator is halved, keeping a random half each time, so only a logarithmic number of steps is needed.
+     *
+     * @return the spliterator
+     */
+    private Spliterator<Map.Entry<Key, Entry>> sample() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        Spliterator<Map.Entry<Key, Entry>> spliterator = entries.entrySet().spliterator();
+        while (spliterator.estimateSize() > EVICTION_SAMPLE_SIZE) {
+            final Spliterator<Map.Entry<Key, Entry>> prefix = spliterator.trySplit();
+            if (prefix == null) {
+                break;
+            }
+            if (random.nextBoolean()) {
+                spliterator = prefix;
+            }
+        }
+        return spliterator;
+    }
+
+    /**
+     * Cache key.
+     *
+     * @param method the HTTP method
+     * @param uri    the resource URI
+     */
+    private record Key(String method, URI uri) {
+    }
+
+    /**
+     * Cache entry.
+     *
+     * @param paymentRequired the payment required
+     * @param expiresAt       the expiration time, in nanoseconds
+     */
+    private record Entry(PaymentRequired paymentRequired, long expiresAt) {
+    }
+
+}
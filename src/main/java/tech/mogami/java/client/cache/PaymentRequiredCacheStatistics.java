@@ -0,0 +1,23 @@
+package tech.mogami.java.client.cache;
+
+/**
+ * Snapshot of the counters of a {@link PaymentRequiredCache}.
+ * Each hit is a request sent with a payment without waiting for a 402; hits that were not followed by an
+ * invalidation are saved round trips.
+ *
+ * @param hits          number of lookups that found fresh payment requirements
+ * @param misses        number of lookups that found nothing
+ * @param stale         number of lookups that found expired payment requirements (counted apart from misses)
+ * @param invalidations number of entries invalidated (402 answered anyway or payment rejected)
+ * @param evictions     number of entries evicted to respect the maximum size
+ * @param size          number of entries
+ */
+public record PaymentRequiredCacheStatistics(
+        long hits,
+        long misses,
+        long stale,
+        long invalidations,
+        long evictions,
+        int size
+) {
+}
@@ -0,0 +1,4 @@
+/**
+ * Cache of the payment requirements of resources, used to pay on the first request.
+ */
+package tech.mogami.java.client.cache;
@@ -0,0 +1,135 @@
+package tech.mogami.java.client.encoding;
+
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+
+import static tech.mogami.java.client.encoding.SettleResponseJsonReader.ERROR_REASON;
+import static tech.mogami.java.client.encoding.SettleResponseJsonReader.NETWORK;
+import static tech.mogami.java.client.encoding.SettleResponseJsonReader.PAYER;
+import static tech.mogami.java.client.encoding.SettleResponseJsonReader.SUCCESS;
+import static tech.mogami.java.client.encoding.SettleResponseJsonReader.TRANSACTION;
+
+/**
+ * Settle response decoded lazily by {@link SettleResponseHeaderDecoder#decodeLazily}: success and transaction are
+ * read at once, network, error reason and payer the first time they are requested.
+ * Thread-safe: concurrent first calls may read a field twice, with the same result.
+ */
+@SuppressWarnings("unused")
+public final class LazySettleResponse {
+
+    /** Marker of a field not read yet. */
+    private static final String NOT_READ = new String();
+
+    /** Decoded JSON. */
+    private final byte[] json;
+
+    /** JSON length. */
+    private final int length;
+
+    /** Offsets of the values of the known fields. */
+    private final int[] offsets;
+
+    /** Success. */
+    private final boolean success;
+
+    /** Transaction hash. */
+    private final String transaction;
+
+    /** Network, once read. */
+    private String network = NOT_READ;
+
+    /** Error reason, once read. */
+    private String errorReason = NOT_READ;
+
+    /** Payer, once read. */
+    private String payer = NOT_READ;
+
+    /**
+     * Constructor.
+     *
+     * @param json   the decoded JSON (owned by this instance)
+     * @param length the JSON length
+     */
+    LazySettleResponse(final byte[] json, final int length) {
+        this.json = json;
+        this.length = length;
+        this.offsets = SettleResponseJsonReader.scan(json, length);
+        this.success = SettleResponseJsonReader.readBoolean(json, offsets[SUCCESS], length);
+        this.transaction = SettleResponseJsonReader.readString(json, offsets[TRANSACTION], length);
+    }
+
+    /**
+     * Returns true if the payment was settled.
+     *
+     * @return the success
+     */
+    public boolean success() {
+        return success;
+    }
+
+    /**
+     * Returns the transaction hash.
+     *
+     * @return the transaction hash
+     */
+    public String transaction() {
+        return transaction;
+    }
+
+    /**
+     * Returns the network.
+     *
+     * @return the network
+     */
+    public String network() {
+        String value = network;
+        if (value == NOT_READ) {
+            value = SettleResponseJsonReader.readString(json, offsets[NETWORK], length);
+            network = value;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the error reason.
+     *
+     * @return the error reason
+     */
+    public String errorReason() {
+        String value = errorReason;
+        if (value == NOT_READ) {
+            value = SettleResponseJsonReader.readString(json, offsets[ERROR_REASON], length);
+            errorReason = value;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the payer.
+     *
+     * @return the payer
+     */
+    public String payer() {
+        String value = payer;
+        if (value == NOT_READ) {
+            value = SettleResponseJsonReader.readString(json, offsets[PAYER], length);
+            payer = value;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the settle response with all its fields.
+     *
+     * @return the settle response
+     */
+    public SettleResponse toSettleResponse() {
+        return SettleResponse.builder()
+                .success(success)
+                .network(network())
+                .transaction(transaction)
+                .errorReason(errorReason())
+                .payer(payer())
+                .build();
+    }
+
+}
@@ -0,0 +1,325 @@
+package tech.mogami.java.client.encoding;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+import tech.mogami.commons.util.Base64Util;
+import tech.mogami.commons.util.JsonUtil;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encoder of exact scheme payment payloads into the X-PAYMENT header.
+ * The JSON is written straight into a reusable thread-local byte buffer and Base64-encoded from it, without the
+ * intermediate Strings of {@link JsonUtil#toJson(Object)} and {@link Base64Util#encode(String)}.
+ * The output is identical to {@code Base64Util.encode(JsonUtil.toJson(paymentPayload))}: payloads this encoder can't
+ * write byte-for-byte (other schemes, null fields, non-ASCII values) go through that path.
+ */
+@UtilityClass
+@SuppressWarnings({"HideUtilityClassConstructor", "unused"})
+public class PaymentPayloadHeaderEncoder {
+
+    /** Initial size of the thread-local buffers. */
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    /** First non-control ASCII character. */
+    private static final char FIRST_PRINTABLE_CHARACTER = 0x20;
+
+    /** First non-ASCII character. */
+    private static final char FIRST_NON_ASCII_CHARACTER = 0x80;
+
+    /** Number of bits in an hexadecimal digit. */
+    private static final int HEX_DIGIT_BITS = 4;
+
+    /** Mask of the low 4 bits. */
+    private static final int HEX_DIGIT_MASK = 0x0F;
+
+    /** Mask of the low 6 bits. */
+    private static final int BASE64_DIGIT_MASK = 0x3F;
+
+    /** Mask of a byte. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /** Number of bits in a byte. */
+    private static final int BYTE_BITS = 8;
+
+    /** Number of bits in a Base64 digit. */
+    private static final int BASE64_DIGIT_BITS = 6;
+
+    /** Number of bytes in a Base64 group. */
+    private static final int BASE64_GROUP_BYTES = 3;
+
+    /** Number of digits in a Base64 group. */
+    private static final int BASE64_GROUP_DIGITS = 4;
+
+    /** Maximum length of an escaped character (backslash, 'u' and four hexadecimal digits). */
+    private static final int MAX_ESCAPED_CHARACTER_LENGTH = 6;
+
+    /** Hexadecimal digits used to escape control characters. */
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    /** Base64 alphabet, aligned on {@link Base64Util}. */
+    private static final byte[] BASE64_ALPHABET;
+
+    /** True if {@link Base64Util} pads its output. */
+    private static final boolean BASE64_PADDING;
+
+    static {
+        // Base64Util is probed once, so that this encoder always produces the same header.
+        final String urlSafeProbe = Base64Util.encode("~~~???");
+        BASE64_ALPHABET = (urlSafeProbe.indexOf('-') >= 0 || urlSafeProbe.indexOf('_') >= 0
+                ? "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+                : "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/").getBytes(StandardCharsets.US_ASCII);
+        BASE64_PADDING = Base64Util.encode("a").endsWith("=");
+    }
+
+    /** Thread-local buffers. */
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    /**
+     * Encodes the payment payload into the X-PAYMENT header value.
+     *
+     * @param paymentPayload the payment payload
+     * @return the header value
+     */
+    public static String encode(@NonNull final PaymentPayload paymentPayload) {
+        final Buffers buffers = BUFFERS.get();
+        final int length = encodeToBuffer(paymentPayload, buffers);
+        if (length < 0) {
+            return fallback(paymentPayload);
+        }
+        return new String(buffers.base64, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Encodes the payment payload into the X-PAYMENT header value, as ASCII bytes.
+     *
+     * @param paymentPayload the payment payload
+     * @return the header value bytes
+     */
+    public static byte[] encodeToBytes(@NonNull final PaymentPayload paymentPayload) {
+        final Buffers buffers = BUFFERS.get();
+        final int length = encodeToBuffer(paymentPayload, buffers);
+        if (length < 0) {
+            return fallback(paymentPayload).getBytes(StandardCharsets.US_ASCII);
+        }
+        return Arrays.copyOf(buffers.base64, length);
+    }
+
+    /**
+     * Encodes the payment payload into the X-PAYMENT header value, as ASCII bytes written in the target buffer.
+     *
+     * @param paymentPayload the payment payload
+     * @param target         the buffer receiving the header value, from its current position
+     * @return the number of bytes written
+     * @throws BufferOverflowException if the target buffer has not enough remaining space
+     */
+    public static int encode(@NonNull final PaymentPayload paymentPayload, @NonNull final ByteBuffer target) {
+        final Buffers buffers = BUFFERS.get();
+        final int length = encodeToBuffer(paymentPayload, buffers);
+        if (length < 0) {
+            final byte[] bytes = fallback(paymentPayload).getBytes(StandardCharsets.US_ASCII);
+            target.put(bytes);
+            return bytes.length;
+        }
+        target.put(buffers.base64, 0, length);
+        return length;
+    }
+
+    /**
+     * Encodes the payment payload the usual way.
+     *
+     * @param paymentPayload the payment payload
+     * @return the header value
+     */
+    private static String fallback(final PaymentPayload paymentPayload) {
+        return Base64Util.encode(JsonUtil.toJson(paymentPayload));
+    }
+
+    /**
+     * Writes the JSON of the payment payload then its Base64 encoding in the thread-local buffers.
+     *
+     * @param paymentPayload the payment payload
+     * @param buffers        the thread-local buffers
+     * @return the length of the Base64 encoding, or -1 if the payload can't be written by this encoder
+     */
+    private static int encodeToBuffer(final PaymentPayload paymentPayload, final Buffers buffers) {
+        if (!(paymentPayload.payload() instanceof ExactSchemePayload exactSchemePayload)
+                || exactSchemePayload.authorization() == null) {
+            return -1;
+        }
+        final ExactSchemePayload.Authorization authorization = exactSchemePayload.authorization();
+        buffers.jsonLength = 0;
+        if (!buffers.writeAscii("{\"x402Version\":")
+                || !buffers.writeAscii(Integer.toString(paymentPayload.x402Version()))
+                || !buffers.writeField(",\"scheme\":", paymentPayload.scheme())
+                || !buffers.writeField(",\"network\":", paymentPayload.network())
+                || !buffers.writeField(",\"payload\":{\"signature\":", exactSchemePayload.signature())
+                || !buffers.writeField(",\"authorization\":{\"from\":", authorization.from())
+                || !buffers.writeField(",\"to\":", authorization.to())
+                || !buffers.writeField(",\"value\":", authorization.value())
+                || !buffers.writeField(",\"validAfter\":", authorization.validAfter())
+                || !buffers.writeField(",\"validBefore\":", authorization.validBefore())
+                || !buffers.writeField(",\"nonce\":", authorization.nonce())
+                || !buffers.writeAscii("}}}")) {
+            return -1;
+        }
+        return buffers.encodeBase64();
+    }
+
+    /**
+     * Reusable buffers of a thread.
+     */
+    private static final class Buffers {
+
+        /** JSON bytes. */
+        private byte[] json = new byte[INITIAL_BUFFER_SIZE];
+
+        /** Number of JSON bytes written. */
+        private int jsonLength;
+
+        /** Base64 bytes. */
+        private byte[] base64 = new byte[INITIAL_BUFFER_SIZE / BASE64_GROUP_BYTES * BASE64_GROUP_DIGITS + BASE64_GROUP_DIGITS];
+
+        /**
+         * Writes a field name and its string value.
+         *
+         * @param prefix the JSON before the value (separator and field name)
+         * @param value  the value
+         * @return false if the value can't be written by this encoder
+         */
+        boolean writeField(final String prefix, final String value) {
+            return value != null && writeAscii(prefix) && writeString(value);
+        }
+
+        /**
+         * Writes raw ASCII characters.
+         *
+         * @param value the characters
+         * @return true
+         */
+        boolean writeAscii(final String value) {
+            ensureCapacity(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                json[jsonLength++] = (byte) value.charAt(i);
+            }
+            return true;
+        }
+
+        /**
+         * Writes a quoted and escaped JSON string.
+         *
+         * @param value the string
+         * @return false if the string contains non-ASCII characters
+         */
+        boolean writeString(final String value) {
+            // Worst case: every character escaped, plus the quotes.
+            ensureCapacity(value.length() * MAX_ESCAPED_CHARACTER_LENGTH + 2);
+            json[jsonLength++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c >= FIRST_NON_ASCII_CHARACTER) {
+                    return false;
+                } else if (c == '"' || c == '\\') {
+                    json[jsonLength++] = '\\';
+                    json[jsonLength++] = (byte) c;
+                } else if (c < FIRST_PRINTABLE_CHARACTER) {
+                    writeControlCharacter(c);
+                } else {
+                    json[jsonLength++] = (byte) c;
+                }
+            }
+            json[jsonLength++] = '"';
+            return true;
+        }
+
+        /**
+         * Writes an escaped control character, the same way Jackson does.
+         *
+         * @param c the control character
+         */
+        private void writeControlCharacter(final char c) {
+            json[jsonLength++] = '\\';
+            switch (c) {
+                case '\b' -> json[jsonLength++] = 'b';
+                case '\t' -> json[jsonLength++] = 't';
+                case '\n' -> json[jsonLength++] = 'n';
+                case '\f' -> json[jsonLength++] = 'f';
+                case '\r' -> json[jsonLength++] = 'r';
+                default -> {
+                    json[jsonLength++] = 'u';
+                    json[jsonLength++] = '0';
+                    json[jsonLength++] = '0';
+                    json[jsonLength++] = HEX_DIGITS[c >> HEX_DIGIT_BITS];
+                    json[jsonLength++] = HEX_DIGITS[c & HEX_DIGIT_MASK];
+                }
+            }
+        }
+
+        /**
+         * Grows the JSON buffer if needed.
+         *
+         * @param additional number of bytes about to be written
+         */
+        private void ensureCapacity(final int additional) {
+            if (jsonLength + additional > json.length) {
+                json = Arrays.copyOf(json, Math.max(json.length * 2, jsonLength + additional));
+            }
+        }
+
+        /**
+         * Base64-encodes the JSON buffer into the Base64 buffer.
+         *
+         * @return the length of the Base64 encoding
+         */
+        int encodeBase64() {
+            final int required = (jsonLength + 2) / BASE64_GROUP_BYTES * BASE64_GROUP_DIGITS;
+            if (base64.length < required) {
+                base64 = new byte[Math.max(base64.length * 2, required)];
+            }
+            int in = 0;
+            int out = 0;
+            final int fullGroupsEnd = jsonLength - jsonLength % BASE64_GROUP_BYTES;
+            while (in < fullGroupsEnd) {
+                final int bits = (json[in++] & BYTE_MASK) << (2 * BYTE_BITS)
+                        | (json[in++] & BYTE_MASK) << BYTE_BITS
+                        | (json[in++] & BYTE_MASK);
+                out = writeBase64Digits(bits, out, BASE64_GROUP_DIGITS);
+            }
+            final int remaining = jsonLength - fullGroupsEnd;
+            if (remaining > 0) {
+                final int bits = (json[in] & BYTE_MASK) << (2 * BYTE_BITS)
+                        | (remaining == 2 ? (json[in + 1] & BYTE_MASK) << BYTE_BITS : 0);
+                out = writeBase64Digits(bits, out, remaining + 1);
+                if (BASE64_PADDING) {
+                    for (int i = remaining + 1; i < BASE64_GROUP_DIGITS; i++) {
+                        base64[out++] = '=';
+                    }
+                }
+            }
+            return out;
+        }
+
+        /**
+         * Writes the Base64 digits of a group.
+         *
+         * @param bits   the 24 bits of the group
+         * @param offset the offset in the Base64 buffer
+         * @param digits the number of digits to write
+         * @return the offset after the digits written
+         */
+        private int writeBase64Digits(final int bits, final int offset, final int digits) {
+            int out = offset;
+            for (int i = 0; i < digits; i++) {
+                base64[out++] = BASE64_ALPHABET[bits >>> ((BASE64_GROUP_DIGITS - 1 - i) * BASE64_DIGIT_BITS) & BASE64_DIGIT_MASK];
+            }
+            return out;
+        }
+
+    }
+
+}
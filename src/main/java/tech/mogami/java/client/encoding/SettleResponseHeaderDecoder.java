@@ -0,0 +1,257 @@
+package tech.mogami.java.client.encoding;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.util.Base64Util;
+import tech.mogami.commons.util.JsonUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static tech.mogami.java.client.encoding.SettleResponseJsonReader.ERROR_REASON;
+import static tech.mogami.java.client.encoding.SettleResponseJsonReader.NETWORK;
+import static tech.mogami.java.client.encoding.SettleResponseJsonReader.PAYER;
+import static tech.mogami.java.client.encoding.SettleResponseJsonReader.SUCCESS;
+import static tech.mogami.java.client.encoding.SettleResponseJsonReader.TRANSACTION;
+
+/**
+ * Decoder of the X-PAYMENT-RESPONSE header into a settle response.
+ * The header, as bytes or as a {@link CharSequence} view, is Base64-decoded into a reusable thread-local buffer and
+ * the JSON is read in place by a hand-rolled reader, without the intermediate Strings of {@link Base64Util#decode}
+ * and {@link JsonUtil#fromJson}: only the final field values are created.
+ * Both Base64 alphabets are accepted, with or without padding.
+ */
+@UtilityClass
+@SuppressWarnings({"HideUtilityClassConstructor", "unused"})
+public class SettleResponseHeaderDecoder {
+
+    /** Initial size of the thread-local buffers. */
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    /** Maximum size of a buffer kept by a thread, larger headers get a buffer of their own. */
+    private static final int MAX_POOLED_BUFFER_SIZE = 16 * 1024;
+
+    /** Number of bits in a Base64 digit. */
+    private static final int BASE64_DIGIT_BITS = 6;
+
+    /** Number of bits in a byte. */
+    private static final int BYTE_BITS = 8;
+
+    /** Number of bytes in a Base64 group. */
+    private static final int BASE64_GROUP_BYTES = 3;
+
+    /** Number of digits in a Base64 group. */
+    private static final int BASE64_GROUP_DIGITS = 4;
+
+    /** Number of ASCII characters. */
+    private static final int ASCII_SIZE = 128;
+
+    /** Value of the characters that are not Base64 digits. */
+    private static final int INVALID_DIGIT = -1;
+
+    /** Value of each ASCII character as a Base64 digit, standard and URL-safe alphabets merged. */
+    private static final int[] BASE64_DIGITS = new int[ASCII_SIZE];
+
+    static {
+        Arrays.fill(BASE64_DIGITS, INVALID_DIGIT);
+        final byte[] alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < alphabet.length; i++) {
+            BASE64_DIGITS[alphabet[i]] = i;
+        }
+        BASE64_DIGITS['-'] = BASE64_DIGITS['+'];
+        BASE64_DIGITS['_'] = BASE64_DIGITS['/'];
+    }
+
+    /** Thread-local buffers. */
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+    /**
+     * Decodes an X-PAYMENT-RESPONSE header.
+     *
+     * @param header the header value
+     * @return the settle response
+     * @throws IllegalArgumentException if the header is not a valid settle response
+     */
+    public static SettleResponse decode(@NonNull final CharSequence header) {
+        final byte[] buffer = getBuffer(maxDecodedLength(header.length()));
+        return read(buffer, decodeBase64(header, buffer));
+    }
+
+    /**
+     * Decodes an X-PAYMENT-RESPONSE header.
+     *
+     * @param header the header value, as ASCII bytes
+     * @return the settle response
+     * @throws IllegalArgumentException if the header is not a valid settle response
+     */
+    public static SettleResponse decode(final byte @NonNull [] header) {
+        final byte[] buffer = getBuffer(maxDecodedLength(header.length));
+        return read(buffer, decodeBase64(header, buffer));
+    }
+
+    /**
+     * Decodes an X-PAYMENT-RESPONSE header lazily: only success and transaction are read now, the other fields
+     * when requested.
+     *
+     * @param header the header value
+     * @return the lazy settle response
+     * @throws IllegalArgumentException if the header is not a valid settle response
+     */
+    public static LazySettleResponse decodeLazily(@NonNull final CharSequence header) {
+        final byte[] json = new byte[maxDecodedLength(header.length())];
+        return new LazySettleResponse(json, decodeBase64(header, json));
+    }
+
+    /**
+     * Decodes an X-PAYMENT-RESPONSE header lazily: only success and transaction are read now, the other fields
+     * when requested.
+     *
+     * @param header the header value, as ASCII bytes
+     * @return the lazy settle response
+     * @throws IllegalArgumentException if the header is not a valid settle response
+     */
+    public static LazySettleResponse decodeLazily(final byte @NonNull [] header) {
+        final byte[] json = new byte[maxDecodedLength(header.length)];
+        return new LazySettleResponse(json, decodeBase64(header, json));
+    }
+
+    /**
+     * Reads a settle response from its JSON.
+     *
+     * @param json   the JSON bytes
+     * @param length the JSON length
+     * @return the settle response
+     */
+    private static SettleResponse read(final byte[] json, final int length) {
+        final int[] offsets = SettleResponseJsonReader.scan(json, length);
+        return SettleResponse.builder()
+                .success(SettleResponseJsonReader.readBoolean(json, offsets[SUCCESS], length))
+                .network(SettleResponseJsonReader.readString(json, offsets[NETWORK], length))
+                .transaction(SettleResponseJsonReader.readString(json, offsets[TRANSACTION], length))
+                .errorReason(SettleResponseJsonReader.readString(json, offsets[ERROR_REASON], length))
+                .payer(SettleResponseJsonReader.readString(json, offsets[PAYER], length))
+                .build();
+    }
+
+    /**
+     * Base64-decodes characters.
+     *
+     * @param header the Base64 characters
+     * @param target the buffer receiving the decoded bytes
+     * @return the number of decoded bytes
+     */
+    private static int decodeBase64(final CharSequence header, final byte[] target) {
+        final Base64Decoding decoding = new Base64Decoding(target);
+        final int length = header.length();
+        for (int i = 0; i < length && header.charAt(i) != '='; i++) {
+            decoding.add(header.charAt(i), i);
+        }
+        return decoding.finish();
+    }
+
+    /**
+     * Base64-decodes ASCII bytes.
+     *
+     * @param header the Base64 bytes
+     * @param target the buffer receiving the decoded bytes
+     * @return the number of decoded bytes
+     */
+    private static int decodeBase64(final byte[] header, final byte[] target) {
+        final Base64Decoding decoding = new Base64Decoding(target);
+        for (int i = 0; i < header.length && header[i] != '='; i++) {
+            decoding.add(header[i], i);
+        }
+        return decoding.finish();
+    }
+
+    /**
+     * Returns the maximum number of bytes decoded from Base64 characters.
+     *
+     * @param encodedLength the number of Base64 characters
+     * @return the maximum number of decoded bytes
+     */
+    private static int maxDecodedLength(final int encodedLength) {
+        return (int) ((long) encodedLength * BASE64_GROUP_BYTES / BASE64_GROUP_DIGITS) + BASE64_GROUP_BYTES;
+    }
+
+    /**
+     * Returns the thread-local buffer, large enough for a size.
+     *
+     * @param size the size needed
+     * @return the buffer
+     */
+    private static byte[] getBuffer(final int size) {
+        final byte[] buffer = BUFFERS.get();
+        if (buffer.length >= size) {
+            return buffer;
+        }
+        final byte[] larger = new byte[size];
+        if (size <= MAX_POOLED_BUFFER_SIZE) {
+            BUFFERS.set(larger);
+        }
+        return larger;
+    }
+
+    /**
+     * Running Base64 decoding: accumulates the bits of the digits and writes each complete byte.
+     * Allocated per call, it doesn't escape and is scalar-replaced by the JIT.
+     */
+    private static final class Base64Decoding {
+
+        /** Buffer receiving the decoded bytes. */
+        private final byte[] target;
+
+        /** Pending bits. */
+        private int bits;
+
+        /** Number of pending bits. */
+        private int bitCount;
+
+        /** Number of decoded bytes. */
+        private int length;
+
+        /**
+         * Constructor.
+         *
+         * @param target the buffer receiving the decoded bytes
+         */
+        Base64Decoding(final byte[] target) {
+            this.target = target;
+        }
+
+        /**
+         * Adds a Base64 digit.
+         *
+         * @param character the digit character
+         * @param index     the index of the character, for error messages
+         */
+        void add(final int character, final int index) {
+            final int digit = character >= 0 && character < ASCII_SIZE ? BASE64_DIGITS[character] : INVALID_DIGIT;
+            if (digit == INVALID_DIGIT) {
+                throw new IllegalArgumentException("Invalid Base64 character at " + index);
+            }
+            bits = bits << BASE64_DIGIT_BITS | digit;
+            bitCount += BASE64_DIGIT_BITS;
+            if (bitCount >= BYTE_BITS) {
+                bitCount -= BYTE_BITS;
+                target[length++] = (byte) (bits >> bitCount);
+                bits &= (1 << bitCount) - 1;
+            }
+        }
+
+        /**
+         * Ends the decoding.
+         *
+         * @return the number of decoded bytes
+         */
+        int finish() {
+            if (bitCount >= BASE64_DIGIT_BITS) {
+                throw new IllegalArgumentException("Truncated Base64 value");
+            }
+            return length;
+        }
+
+    }
+
+}
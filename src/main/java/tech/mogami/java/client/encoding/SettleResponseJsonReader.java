@@ -0,0 +1,374 @@
+package tech.mogami.java.client.encoding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Hand-rolled reader of the settle response JSON, working on the bytes in place.
+ * {@link #scan} locates the values of the known fields without decoding them; each value is then read on its own.
+ * Only the final field values are turned into Strings.
+ */
+final class SettleResponseJsonReader {
+
+    /** Index of the success field. */
+    static final int SUCCESS = 0;
+
+    /** Index of the network field. */
+    static final int NETWORK = 1;
+
+    /** Index of the transaction field. */
+    static final int TRANSACTION = 2;
+
+    /** Index of the error reason field. */
+    static final int ERROR_REASON = 3;
+
+    /** Index of the payer field. */
+    static final int PAYER = 4;
+
+    /** Number of known fields. */
+    static final int FIELD_COUNT = 5;
+
+    /** Offset of a field absent from the JSON. */
+    static final int ABSENT = -1;
+
+    /** Names of the known fields, by index. */
+    private static final byte[][] FIELD_NAMES = {
+            "success".getBytes(StandardCharsets.US_ASCII),
+            "network".getBytes(StandardCharsets.US_ASCII),
+            "transaction".getBytes(StandardCharsets.US_ASCII),
+            "errorReason".getBytes(StandardCharsets.US_ASCII),
+            "payer".getBytes(StandardCharsets.US_ASCII),
+    };
+
+    /** JSON true literal. */
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+
+    /** JSON false literal. */
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+
+    /** JSON null literal. */
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    /** Radix of the unicode escapes. */
+    private static final int HEX_RADIX = 16;
+
+    /** Number of hexadecimal digits of a unicode escape. */
+    private static final int UNICODE_ESCAPE_DIGITS = 4;
+
+    /**
+     * Constructor.
+     */
+    private SettleResponseJsonReader() {
+    }
+
+    /**
+     * Locates the values of the known fields of a JSON object.
+     *
+     * @param json the JSON bytes
+     * @param end  the end of the JSON in the bytes
+     * @return the offset of the value of each known field, by index, or {@link #ABSENT}
+     */
+    static int[] scan(final byte[] json, final int end) {
+        final int[] offsets = new int[FIELD_COUNT];
+        Arrays.fill(offsets, ABSENT);
+        int position = skipWhitespaces(json, 0, end);
+        expect(json, position, end, '{');
+        position = skipWhitespaces(json, position + 1, end);
+        if (byteAt(json, position, end) == '}') {
+            return offsets;
+        }
+        while (true) {
+            expect(json, position, end, '"');
+            final int nameEnd = skipString(json, position, end) - 1;
+            final int field = fieldIndex(json, position + 1, nameEnd);
+            position = skipWhitespaces(json, nameEnd + 1, end);
+            expect(json, position, end, ':');
+            position = skipWhitespaces(json, position + 1, end);
+            if (field != ABSENT) {
+                offsets[field] = position;
+            }
+            position = skipWhitespaces(json, skipValue(json, position, end), end);
+            final byte separator = byteAt(json, position, end);
+            if (separator == '}') {
+                return offsets;
+            }
+            expect(json, position, end, ',');
+            position = skipWhitespaces(json, position + 1, end);
+        }
+    }
+
+    /**
+     * Reads a boolean value.
+     *
+     * @param json     the JSON bytes
+     * @param position the offset of the value, or {@link #ABSENT}
+     * @param end      the end of the JSON in the bytes
+     * @return the value, false if absent or null
+     */
+    static boolean readBoolean(final byte[] json, final int position, final int end) {
+        if (position == ABSENT || matches(json, position, end, NULL)) {
+            return false;
+        }
+        if (matches(json, position, end, TRUE)) {
+            return true;
+        }
+        if (matches(json, position, end, FALSE)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Boolean expected at " + position);
+    }
+
+    /**
+     * Reads a string value.
+     *
+     * @param json     the JSON bytes
+     * @param position the offset of the value, or {@link #ABSENT}
+     * @param end      the end of the JSON in the bytes
+     * @return the value, null if absent or null
+     */
+    static String readString(final byte[] json, final int position, final int end) {
+        if (position == ABSENT || matches(json, position, end, NULL)) {
+            return null;
+        }
+        expect(json, position, end, '"');
+        final int start = position + 1;
+        for (int i = start; i < end; i++) {
+            if (json[i] == '"') {
+                return new String(json, start, i - start, StandardCharsets.UTF_8);
+            }
+            if (json[i] == '\\') {
+                return readEscapedString(json, start, i, end);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string at " + position);
+    }
+
+    /**
+     * Reads a string value containing escapes.
+     *
+     * @param json        the JSON bytes
+     * @param start       the offset of the first character of the string
+     * @param firstEscape the offset of the first backslash
+     * @param end         the end of the JSON in the bytes
+     * @return the value
+     */
+    private static String readEscapedString(final byte[] json, final int start, final int firstEscape, final int end) {
+        final StringBuilder value = new StringBuilder(firstEscape - start + HEX_RADIX);
+        int segmentStart = start;
+        int i = firstEscape;
+        while (i < end) {
+            final byte b = json[i];
+            if (b == '"') {
+                value.append(new String(json, segmentStart, i - segmentStart, StandardCharsets.UTF_8));
+                return value.toString();
+            }
+            if (b != '\\') {
+                i++;
+                continue;
+            }
+            value.append(new String(json, segmentStart, i - segmentStart, StandardCharsets.UTF_8));
+            final byte escaped = byteAt(json, i + 1, end);
+            switch (escaped) {
+                case '"', '\\', '/' -> value.append((char) escaped);
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> {
+                    if (i + 2 + UNICODE_ESCAPE_DIGITS > end) {
+                        throw new IllegalArgumentException("Truncated unicode escape at " + i);
+                    }
+                    value.append((char) Integer.parseInt(new String(json, i + 2, UNICODE_ESCAPE_DIGITS, StandardCharsets.US_ASCII), HEX_RADIX));
+                    i += UNICODE_ESCAPE_DIGITS;
+                }
+                default -> throw new IllegalArgumentException("Invalid escape at " + i);
+            }
+            i += 2;
+            segmentStart = i;
+        }
+        throw new IllegalArgumentException("Unterminated string at " + start);
+    }
+
+    /**
+     * Returns the index of a known field name.
+     *
+     * @param json  the JSON bytes
+     * @param start the offset of the name
+     * @param end   the end of the name
+     * @return the field index, or {@link #ABSENT} if unknown
+     */
+    private static int fieldIndex(final byte[] json, final int start, final int end) {
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if (Arrays.equals(json, start, end, FIELD_NAMES[field], 0, FIELD_NAMES[field].length)) {
+                return field;
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Skips a value.
+     *
+     * @param json     the JSON bytes
+     * @param position the offset of the value
+     * @param end      the end of the JSON in the bytes
+     * @return the offset after the value
+     */
+    private static int skipValue(final byte[] json, final int position, final int end) {
+        final byte first = byteAt(json, position, end);
+        switch (first) {
+            case '"' -> {
+                return skipString(json, position, end);
+            }
+            case '{', '[' -> {
+                return skipStructure(json, position, end);
+            }
+            case 't' -> {
+                return skipLiteral(json, position, end, TRUE);
+            }
+            case 'f' -> {
+                return skipLiteral(json, position, end, FALSE);
+            }
+            case 'n' -> {
+                return skipLiteral(json, position, end, NULL);
+            }
+            default -> {
+                int i = position;
+                while (i < end && (json[i] >= '0' && json[i] <= '9' || json[i] == '-' || json[i] == '+' || json[i] == '.'
+                        || json[i] == 'e' || json[i] == 'E')) {
+                    i++;
+                }
+                if (i == position) {
+                    throw new IllegalArgumentException("Value expected at " + position);
+                }
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Skips a string.
+     *
+     * @param json     the JSON bytes
+     * @param position the offset of the opening quote
+     * @param end      the end of the JSON in the bytes
+     * @return the offset after the closing quote
+     */
+    private static int skipString(final byte[] json, final int position, final int end) {
+        int i = position + 1;
+        while (i < end) {
+            if (json[i] == '"') {
+                return i + 1;
+            }
+            i += json[i] == '\\' ? 2 : 1;
+        }
+        throw new IllegalArgumentException("Unterminated string at " + position);
+    }
+
+    /**
+     * Skips an object or an array.
+     *
+     * @param json     the JSON bytes
+     * @param position the offset of the opening bracket
+     * @param end      the end of the JSON in the bytes
+     * @return the offset after the closing bracket
+     */
+    private static int skipStructure(final byte[] json, final int position, final int end) {
+        int depth = 0;
+        int i = position;
+        while (i < end) {
+            final byte b = json[i];
+            if (b == '"') {
+                i = skipString(json, i, end);
+                continue;
+            }
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        throw new IllegalArgumentException("Unterminated structure at " + position);
+    }
+
+    /**
+     * Skips a literal.
+     *
+     * @param json     the JSON bytes
+     * @param position the offset of the literal
+     * @param end      the end of the JSON in the bytes
+     * @param literal  the literal expected
+     * @return the offset after the literal
+     */
+    private static int skipLiteral(final byte[] json, final int position, final int end, final byte[] literal) {
+        if (!matches(json, position, end, literal)) {
+            throw new IllegalArgumentException("Invalid literal at " + position);
+        }
+        return position + literal.length;
+    }
+
+    /**
+     * Returns true if the bytes at an offset are a literal.
+     *
+     * @param json     the JSON bytes
+     * @param position the offset
+     * @param end      the end of the JSON in the bytes
+     * @param literal  the literal
+     * @return true if the literal is there
+     */
+    private static boolean matches(final byte[] json, final int position, final int end, final byte[] literal) {
+        return position + literal.length <= end
+                && Arrays.equals(json, position, position + literal.length, literal, 0, literal.length);
+    }
+
+    /**
+     * Skips whitespaces.
+     *
+     * @param json     the JSON bytes
+     * @param position the offset
+     * @param end      the end of the JSON in the bytes
+     * @return the offset of the next non-whitespace byte
+     */
+    private static int skipWhitespaces(final byte[] json, final int position, final int end) {
+        int i = position;
+        while (i < end && (json[i] == ' ' || json[i] == '\n' || json[i] == '\r' || json[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Checks the byte at an offset.
+     *
+     * @param json     the JSON bytes
+     * @param position the offset
+     * @param end      the end of the JSON in the bytes
+     * @param expected the expected character
+     */
+    private static void expect(final byte[] json, final int position, final int end, final char expected) {
+        if (byteAt(json, position, end) != expected) {
+            throw new IllegalArgumentException("'" + expected + "' expected at " + position);
+        }
+    }
+
+    /**
+     * Returns the byte at an offset.
+     *
+     * @param json     the JSON bytes
+     * @param position the offset
+     * @param end      the end of the JSON in the bytes
+     * @return the byte
+     */
+    private static byte byteAt(final byte[] json, final int position, final int end) {
+        if (position >= end) {
+            throw new IllegalArgumentException("Unexpected end of settle response");
+        }
+        return json[position];
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Allocation-lean encoders and decoders of the x402 headers.
+ */
+package tech.mogami.java.client.encoding;
@@ -6,23 +6,33 @@ import lombok.experimental.UtilityClass;
 import org.apache.commons.lang3.StringUtils;
 import org.web3j.crypto.Credentials;
 import tech.mogami.commons.api.facilitator.settle.SettleResponse;
-import tech.mogami.commons.crypto.signature.EIP712Helper;
 import tech.mogami.commons.header.payment.PaymentPayload;
 import tech.mogami.commons.header.payment.PaymentRequired;
 import tech.mogami.commons.header.payment.PaymentRequirements;
 import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
-import tech.mogami.commons.util.Base64Util;
 import tech.mogami.commons.util.JsonUtil;
-import tech.mogami.commons.util.NonceUtil;
+import tech.mogami.java.client.encoding.PaymentPayloadHeaderEncoder;
+import tech.mogami.java.client.encoding.SettleResponseHeaderDecoder;
+import tech.mogami.java.client.instrumentation.PaymentInstrumentation;
+import tech.mogami.java.client.instrumentation.PaymentInstrumentations;
+import tech.mogami.java.client.instrumentation.PaymentPhase;
+import tech.mogami.java.client.instrumentation.PaymentTags;
+import tech.mogami.java.client.nonce.NonceProvider;
+import tech.mogami.java.client.signature.CachedEIP712Signer;
+import tech.mogami.java.client.signer.Signer;
 
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static tech.mogami.commons.constant.version.X402Versions.X402_SUPPORTED_VERSION_BY_MOGAMI;
 import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
 
 /**
  * This class provides helper methods for handling X402 payments.
+ * Each operation is measured by the active {@link PaymentInstrumentations instrumentation} (none by default).
+ * These methods never consult a {@link tech.mogami.java.client.budget.SpendLedger spend ledger}: callers enforcing
+ * spend limits reserve each payment on their ledger before signing it.
  */
 @UtilityClass
 @SuppressWarnings({"HideUtilityClassConstructor", "unused"})
@@ -35,13 +45,32 @@ public class X402PaymentHelper {
      * @return A PaymentRequired object containing the parsed payment requirements.
      */
     public static Optional<PaymentRequired> getPaymentRequiredFromBody(final String xPaymentHeader) {
-        return Optional.ofNullable(xPaymentHeader)
-                .filter(StringUtils::isNotEmpty)
-                .map(header -> JsonUtil.fromJson(header, PaymentRequired.class));
+        if (StringUtils.isEmpty(xPaymentHeader)) {
+            return Optional.empty();
+        }
+        final PaymentInstrumentation instrumentation = PaymentInstrumentations.get();
+        if (!instrumentation.isEnabled()) {
+            return Optional.ofNullable(JsonUtil.fromJson(xPaymentHeader, PaymentRequired.class));
+        }
+        final long start = System.nanoTime();
+        final PaymentRequired paymentRequired;
+        try {
+            paymentRequired = JsonUtil.fromJson(xPaymentHeader, PaymentRequired.class);
+        } catch (Exception e) {
+            // Also catches the checked exceptions sneakily thrown by the JSON mapping.
+            onFailure(instrumentation, PaymentPhase.PARSE_PAYMENT_REQUIRED, PaymentTags.UNKNOWN, System.nanoTime() - start, e);
+            throw e;
+        }
+        onSuccess(instrumentation, PaymentPhase.PARSE_PAYMENT_REQUIRED,
+                paymentRequired == null ? PaymentTags.UNKNOWN : PaymentTags.of(paymentRequired),
+                System.nanoTime() - start,
+                xPaymentHeader.length());
+        return Optional.ofNullable(paymentRequired);
     }
 
     /**
      * Generate a PaymentPayload from a specific PaymentRequirements WITHOUT SIGNATURE.
+     * The nonce comes from the default {@link NonceProvider#threadLocal()} provider.
      *
      * @param signature           The signature of the payment payload.
      * @param fromAddress         The address from which the payment is made.
@@ -53,30 +82,44 @@ public class X402PaymentHelper {
             @NonNull final String fromAddress,
             @NonNull final PaymentRequirements paymentRequirements
     ) {
-        if (paymentRequirements.scheme().equals(EXACT_SCHEME.name())) {
-            return PaymentPayload.builder()
-                    .x402Version(X402_SUPPORTED_VERSION_BY_MOGAMI.version())
-                    .scheme(EXACT_SCHEME.name())
-                    .network(paymentRequirements.network())
-                    .payload(ExactSchemePayload.builder()
-                            .signature(signature)
-                            .authorization(ExactSchemePayload.Authorization.builder()
-                                    .from(fromAddress)
-                                    .to(paymentRequirements.payTo())
-                                    .value(paymentRequirements.maxAmountRequired())
-                                    .validAfter(Long.toString(Instant.now().getEpochSecond()))
-                                    .validBefore(Long.toString(Instant.now().getEpochSecond() + paymentRequirements.maxTimeoutSeconds()))
-                                    .nonce(NonceUtil.generateNonce())
-                                    .build())
-                            .build())
-                    .build();
-        } else {
-            throw new IllegalArgumentException("Unsupported payment scheme: " + paymentRequirements.scheme());
+        return getPayloadFromPaymentRequirements(signature, fromAddress, paymentRequirements, NonceProvider.threadLocal());
+    }
+
+    /**
+     * Generate a PaymentPayload from a specific PaymentRequirements WITHOUT SIGNATURE.
+     *
+     * @param signature           The signature of the payment payload.
+     * @param fromAddress         The address from which the payment is made.
+     * @param paymentRequirements The payment requirements to convert.
+     * @param nonceProvider       The provider of the authorization nonce.
+     * @return A PaymentPayload object containing the payment details.
+     */
+    public static PaymentPayload getPayloadFromPaymentRequirements(
+            final String signature,
+            @NonNull final String fromAddress,
+            @NonNull final PaymentRequirements paymentRequirements,
+            @NonNull final NonceProvider nonceProvider
+    ) {
+        final PaymentInstrumentation instrumentation = PaymentInstrumentations.get();
+        if (!instrumentation.isEnabled()) {
+            return buildPayload(signature, fromAddress, paymentRequirements, nonceProvider);
+        }
+        final long start = System.nanoTime();
+        final PaymentPayload paymentPayload;
+        try {
+            paymentPayload = buildPayload(signature, fromAddress, paymentRequirements, nonceProvider);
+        } catch (Exception e) {
+            onFailure(instrumentation, PaymentPhase.BUILD_PAYLOAD, PaymentTags.of(paymentRequirements), System.nanoTime() - start, e);
+            throw e;
         }
+        onSuccess(instrumentation, PaymentPhase.BUILD_PAYLOAD, PaymentTags.of(paymentRequirements),
+                System.nanoTime() - start, PaymentInstrumentation.NO_PAYLOAD_SIZE);
+        return paymentPayload;
     }
 
     /**
      * Generate a PaymentPayload from a specific PaymentRequirements with signature.
+     * The EIP-712 domain separator is cached by {@link CachedEIP712Signer}, only the message is hashed on each call.
      *
      * @param credentials          the credentials of the user making the payment
      * @param paymentsRequirements the payment requirements to convert
@@ -89,38 +132,221 @@ public class X402PaymentHelper {
             @NonNull final PaymentRequirements paymentsRequirements,
             @NonNull final PaymentPayload paymentPayload
     ) {
-        // We change the signature field in the payload with the one signed by the user.
-        ExactSchemePayload payload = ((ExactSchemePayload) paymentPayload.payload()).toBuilder()
-                .signature(EIP712Helper.sign(credentials, paymentsRequirements, paymentPayload))
-                .build();
+        final PaymentInstrumentation instrumentation = PaymentInstrumentations.get();
+        if (!instrumentation.isEnabled()) {
+            return signPayload(credentials, paymentsRequirements, paymentPayload);
+        }
+        final long start = System.nanoTime();
+        final PaymentPayload signedPayload;
+        try {
+            signedPayload = signPayload(credentials, paymentsRequirements, paymentPayload);
+        } catch (Exception e) {
+            onFailure(instrumentation, PaymentPhase.SIGN_PAYLOAD, PaymentTags.of(paymentsRequirements), System.nanoTime() - start, e);
+            throw e;
+        }
+        onSuccess(instrumentation, PaymentPhase.SIGN_PAYLOAD, PaymentTags.of(paymentsRequirements),
+                System.nanoTime() - start, PaymentInstrumentation.NO_PAYLOAD_SIZE);
+        return signedPayload;
+    }
 
-        // We return the payment payload with the new payload.
-        return paymentPayload.toBuilder()
-                .payload(payload)
-                .build();
+    /**
+     * Generate a PaymentPayload from a specific PaymentRequirements with a signature made by a {@link Signer},
+     * for example one in an external signing process: the private key never enters the JVM.
+     *
+     * @param signer               the signer of the user making the payment
+     * @param paymentsRequirements the payment requirements to convert
+     * @param paymentPayload       the payment payload to sign
+     * @return A future of the PaymentPayload object containing the signed payment details, failed with
+     * {@link IllegalArgumentException} if the network or the domain parameters are not supported.
+     */
+    public static CompletableFuture<PaymentPayload> getSignedPayloadAsync(
+            @NonNull final Signer signer,
+            @NonNull final PaymentRequirements paymentsRequirements,
+            @NonNull final PaymentPayload paymentPayload
+    ) {
+        final PaymentInstrumentation instrumentation = PaymentInstrumentations.get();
+        final long start = instrumentation.isEnabled() ? System.nanoTime() : 0;
+        final Optional<byte[]> typedDataHash = CachedEIP712Signer.getTypedDataHash(paymentsRequirements, paymentPayload);
+        final CompletableFuture<PaymentPayload> signedPayload = typedDataHash
+                .map(hash -> signer.signHash(hash)
+                        .thenApply(signature -> paymentPayload.toBuilder()
+                                .payload(((ExactSchemePayload) paymentPayload.payload()).toBuilder()
+                                        .signature(signature)
+                                        .build())
+                                .build()))
+                .orElseGet(() -> CompletableFuture.failedFuture(new IllegalArgumentException(
+                        "Unsupported network or domain for external signing: " + paymentsRequirements.network())));
+        if (!instrumentation.isEnabled()) {
+            return signedPayload;
+        }
+        return signedPayload.whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                onSuccess(instrumentation, PaymentPhase.SIGN_PAYLOAD, PaymentTags.of(paymentsRequirements),
+                        System.nanoTime() - start, PaymentInstrumentation.NO_PAYLOAD_SIZE);
+            } else {
+                onFailure(instrumentation, PaymentPhase.SIGN_PAYLOAD, PaymentTags.of(paymentsRequirements), System.nanoTime() - start, throwable);
+            }
+        });
     }
 
     /**
      * Encodes the PaymentPayload into a Base64 string to be used as X-PAYMENT header.
+     * Exact scheme payloads are written by {@link PaymentPayloadHeaderEncoder}, without intermediate JSON string.
      *
      * @param paymentPayload The PaymentPayload to encode.
      * @return A Base64 encoded string representation of the PaymentPayload.
      */
     public static String getPayloadHeader(@NonNull final PaymentPayload paymentPayload) {
-        return Base64Util.encode(JsonUtil.toJson(paymentPayload));
+        final PaymentInstrumentation instrumentation = PaymentInstrumentations.get();
+        if (!instrumentation.isEnabled()) {
+            return PaymentPayloadHeaderEncoder.encode(paymentPayload);
+        }
+        final PaymentTags tags = new PaymentTags(paymentPayload.scheme(), paymentPayload.network(), null);
+        final long start = System.nanoTime();
+        final String header;
+        try {
+            header = PaymentPayloadHeaderEncoder.encode(paymentPayload);
+        } catch (Exception e) {
+            onFailure(instrumentation, PaymentPhase.ENCODE_HEADER, tags, System.nanoTime() - start, e);
+            throw e;
+        }
+        onSuccess(instrumentation, PaymentPhase.ENCODE_HEADER, tags, System.nanoTime() - start, header.length());
+        return header;
     }
 
     /**
      * Decodes the X-PAYMENT-RESPONSE header and returns a SettleResponse object.
+     * The header is decoded in place by {@link SettleResponseHeaderDecoder}, without intermediate JSON string.
      *
      * @param xPaymentResponseHeader The Base64 encoded X-PAYMENT-RESPONSE header.
      * @return A SettleResponse object if the header is not empty, otherwise null.
      */
     public static Optional<SettleResponse> getSettleResponseFromHeader(final String xPaymentResponseHeader) {
-        return Optional.ofNullable(xPaymentResponseHeader)
-                .filter(StringUtils::isNotEmpty)
-                .map(Base64Util::decode)
-                .map(decoded -> JsonUtil.fromJson(decoded, SettleResponse.class));
+        if (StringUtils.isEmpty(xPaymentResponseHeader)) {
+            return Optional.empty();
+        }
+        final PaymentInstrumentation instrumentation = PaymentInstrumentations.get();
+        if (!instrumentation.isEnabled()) {
+            return Optional.of(SettleResponseHeaderDecoder.decode(xPaymentResponseHeader));
+        }
+        final long start = System.nanoTime();
+        final SettleResponse settleResponse;
+        try {
+            settleResponse = SettleResponseHeaderDecoder.decode(xPaymentResponseHeader);
+        } catch (Exception e) {
+            onFailure(instrumentation, PaymentPhase.DECODE_SETTLE_RESPONSE, PaymentTags.UNKNOWN, System.nanoTime() - start, e);
+            throw e;
+        }
+        onSuccess(instrumentation, PaymentPhase.DECODE_SETTLE_RESPONSE,
+                new PaymentTags(null, settleResponse.network(), null),
+                System.nanoTime() - start,
+                xPaymentResponseHeader.length());
+        return Optional.of(settleResponse);
+    }
+
+    /**
+     * Reports a phase success to the instrumentation. An exception thrown by the instrumentation is ignored: it must
+     * never fail the payment.
+     *
+     * @param instrumentation the instrumentation
+     * @param phase           the phase
+     * @param tags            the tags
+     * @param durationNanos   the duration of the phase, in nanoseconds
+     * @param payloadSize     the size of the payload, or {@link PaymentInstrumentation#NO_PAYLOAD_SIZE}
+     */
+    private static void onSuccess(final PaymentInstrumentation instrumentation,
+                                  final PaymentPhase phase,
+                                  final PaymentTags tags,
+                                  final long durationNanos,
+                                  final int payloadSize) {
+        try {
+            instrumentation.onSuccess(phase, tags, durationNanos, payloadSize);
+        } catch (RuntimeException e) {
+            PaymentInstrumentations.onInstrumentationError(e);
+        }
+    }
+
+    /**
+     * Reports a phase failure to the instrumentation. An exception thrown by the instrumentation is ignored: the
+     * original failure is the one reported to the caller.
+     *
+     * @param instrumentation the instrumentation
+     * @param phase           the phase
+     * @param tags            the tags
+     * @param durationNanos   the duration of the phase until the failure, in nanoseconds
+     * @param cause           the failure cause
+     */
+    private static void onFailure(final PaymentInstrumentation instrumentation,
+                                  final PaymentPhase phase,
+                                  final PaymentTags tags,
+                                  final long durationNanos,
+                                  final Throwable cause) {
+        try {
+            instrumentation.onFailure(phase, tags, durationNanos, cause);
+        } catch (RuntimeException e) {
+            PaymentInstrumentations.onInstrumentationError(e);
+        }
+    }
+
+    /**
+     * Builds the unsigned payment payload of a payment requirements.
+     *
+     * @param signature           The signature of the payment payload.
+     * @param fromAddress         The address from which the payment is made.
+     * @param paymentRequirements The payment requirements to convert.
+     * @param nonceProvider       The provider of the authorization nonce.
+     * @return A PaymentPayload object containing the payment details.
+     */
+    private static PaymentPayload buildPayload(
+            final String signature,
+            final String fromAddress,
+            final PaymentRequirements paymentRequirements,
+            final NonceProvider nonceProvider
+    ) {
+        if (paymentRequirements.scheme().equals(EXACT_SCHEME.name())) {
+            return PaymentPayload.builder()
+                    .x402Version(X402_SUPPORTED_VERSION_BY_MOGAMI.version())
+                    .scheme(EXACT_SCHEME.name())
+                    .network(paymentRequirements.network())
+                    .payload(ExactSchemePayload.builder()
+                            .signature(signature)
+                            .authorization(ExactSchemePayload.Authorization.builder()
+                                    .from(fromAddress)
+                                    .to(paymentRequirements.payTo())
+                                    .value(paymentRequirements.maxAmountRequired())
+                                    .validAfter(Long.toString(Instant.now().getEpochSecond()))
+                                    .validBefore(Long.toString(Instant.now().getEpochSecond() + paymentRequirements.maxTimeoutSeconds()))
+                                    .nonce(nonceProvider.nextNonce())
+                                    .build())
+                            .build())
+                    .build();
+        } else {
+            throw new IllegalArgumentException("Unsupported payment scheme: " + paymentRequirements.scheme());
+        }
+    }
+
+    /**
+     * Returns a copy of the payment payload with its signature.
+     *
+     * @param credentials          the credentials of the user making the payment
+     * @param paymentsRequirements the payment requirements
+     * @param paymentPayload       the payment payload to sign
+     * @return the signed payment payload
+     */
+    private static PaymentPayload signPayload(
+            final Credentials credentials,
+            final PaymentRequirements paymentsRequirements,
+            final PaymentPayload paymentPayload
+    ) {
+        // We change the signature field in the payload with the one signed by the user.
+        ExactSchemePayload payload = ((ExactSchemePayload) paymentPayload.payload()).toBuilder()
+                .signature(CachedEIP712Signer.sign(credentials, paymentsRequirements, paymentPayload))
+                .build();
+
+        // We return the payment payload with the new payload.
+        return paymentPayload.toBuilder()
+                .payload(payload)
+                .build();
     }
 
 }
@@ -0,0 +1,62 @@
+package tech.mogami.java.client.http;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking counting semaphore: waiting for a permit never blocks a thread, the caller gets a future instead.
+ */
+final class AsyncPermits {
+
+    /** Future of an immediately available permit. */
+    private static final CompletableFuture<Void> AVAILABLE = CompletableFuture.completedFuture(null);
+
+    /** Available permits (negative when callers are waiting). */
+    private final AtomicInteger permits;
+
+    /** Callers waiting for a permit. */
+    private final Queue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor.
+     *
+     * @param permits number of permits
+     */
+    AsyncPermits(final int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Permits must be positive: " + permits);
+        }
+        this.permits = new AtomicInteger(permits);
+    }
+
+    /**
+     * Acquires a permit.
+     *
+     * @return a future completed when the permit is granted
+     */
+    CompletableFuture<Void> acquire() {
+        if (permits.getAndDecrement() > 0) {
+            return AVAILABLE;
+        }
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+        return waiter;
+    }
+
+    /**
+     * Releases a permit, handing it to a waiting caller if any.
+     */
+    void release() {
+        if (permits.getAndIncrement() < 0) {
+            // A caller decremented the counter and is (or is about to be) in the queue.
+            CompletableFuture<Void> waiter;
+            while ((waiter = waiters.poll()) == null) {
+                Thread.onSpinWait();
+            }
+            waiter.complete(null);
+        }
+    }
+
+}
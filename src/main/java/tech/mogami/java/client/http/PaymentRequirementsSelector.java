@@ -0,0 +1,81 @@
+package tech.mogami.java.client.http;
+
+import lombok.NonNull;
+import tech.mogami.commons.header.payment.PaymentRequired;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+
+import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.Optional;
+
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+
+/**
+ * Strategy choosing which of the payment requirements returned by a server to pay.
+ */
+@FunctionalInterface
+public interface PaymentRequirementsSelector {
+
+    /**
+     * Chooses the payment requirements to pay.
+     *
+     * @param paymentRequired the payment required returned by the server
+     * @return the payment requirements to pay, or empty if none is acceptable
+     */
+    Optional<PaymentRequirements> select(PaymentRequired paymentRequired);
+
+    /**
+     * Selects the first exact scheme payment requirements.
+     *
+     * @return the selector
+     */
+    static PaymentRequirementsSelector firstExact() {
+        return paymentRequired -> paymentRequired.accepts().stream()
+                .filter(paymentRequirements -> EXACT_SCHEME.name().equals(paymentRequirements.scheme()))
+                .findFirst();
+    }
+
+    /**
+     * Selects the first exact scheme payment requirements on a network.
+     *
+     * @param network the network (for example "base")
+     * @return the selector
+     */
+    static PaymentRequirementsSelector firstExactOn(@NonNull final String network) {
+        return paymentRequired -> paymentRequired.accepts().stream()
+                .filter(paymentRequirements -> EXACT_SCHEME.name().equals(paymentRequirements.scheme()))
+                .filter(paymentRequirements -> network.equals(paymentRequirements.network()))
+                .findFirst();
+    }
+
+    /**
+     * Selects the exact scheme payment requirements with the lowest amount.
+     * Payment requirements whose amount is not a valid number are skipped.
+     *
+     * @return the selector
+     */
+    static PaymentRequirementsSelector cheapestExact() {
+        return paymentRequired -> paymentRequired.accepts().stream()
+                .filter(paymentRequirements -> EXACT_SCHEME.name().equals(paymentRequirements.scheme()))
+                .filter(paymentRequirements -> parseAmount(paymentRequirements.maxAmountRequired()) != null)
+                .min(Comparator.comparing(paymentRequirements -> parseAmount(paymentRequirements.maxAmountRequired())));
+    }
+
+    /**
+     * Parses an amount.
+     *
+     * @param amount the amount
+     * @return the amount, or null if it is not a valid number
+     */
+    private static BigInteger parseAmount(final String amount) {
+        if (amount == null) {
+            return null;
+        }
+        try {
+            return new BigInteger(amount);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,437 @@
+package tech.mogami.java.client.http;
+
+import lombok.Builder;
+import lombok.NonNull;
+import org.web3j.crypto.Credentials;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequired;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.java.client.budget.BudgetExceededException;
+import tech.mogami.java.client.budget.SpendLedger;
+import tech.mogami.java.client.budget.SpendReservation;
+import tech.mogami.java.client.cache.PaymentRequiredCache;
+import tech.mogami.java.client.helper.X402PaymentHelper;
+import tech.mogami.java.client.journal.SettlementJournal;
+import tech.mogami.java.client.nonce.NonceProvider;
+import tech.mogami.java.client.pool.PreSignedPaymentPool;
+import tech.mogami.java.client.signer.Signer;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous HTTP client paying x402 protected resources.
+ * When a resource answers 402, the payment required is parsed, a payment requirements is chosen by the
+ * {@link PaymentRequirementsSelector}, and the request is signed and sent again with the X-PAYMENT header.
+ * The X-PAYMENT-RESPONSE header of the final response is decoded into a settle response; a header that can't be
+ * decoded leaves the response without settle response rather than failing a call already paid.
+ * With a {@link PaymentRequiredCache}, known resources are paid on the first request, skipping the 402 round trip.
+ * With a {@link SpendLedger}, every payment is checked against the spend limits before being signed, and the call
+ * fails with {@link BudgetExceededException} instead of paying over budget. A {@link PreSignedPaymentPool} may enforce
+ * the ledger itself: the client then can't have one too, or every payment would be counted twice.
+ * With a {@link SettlementJournal}, every settle response received is appended to the journal with its payment.
+ * Payments are signed with the user {@link Credentials}, or with a {@link Signer} keeping the private key out of the JVM.
+ * Everything runs on {@link HttpClient#sendAsync}: no platform thread is blocked, and one instance (sharing its
+ * connections) can run thousands of concurrent paid calls, bounded by {@code maxConcurrentRequests}.
+ */
+@SuppressWarnings("unused")
+public final class X402HttpClient implements AutoCloseable {
+
+    /** Header carrying the payment. */
+    public static final String X_PAYMENT_HEADER = "X-PAYMENT";
+
+    /** Header carrying the settle response. */
+    public static final String X_PAYMENT_RESPONSE_HEADER = "X-PAYMENT-RESPONSE";
+
+    /** HTTP status code of a payment required response. */
+    public static final int PAYMENT_REQUIRED_STATUS_CODE = 402;
+
+    /** Default maximum number of concurrent paid calls. */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 1024;
+
+    /** HTTP client sending the requests. */
+    private final HttpClient httpClient;
+
+    /** Executor of the HTTP client when it was created by this client (closed with it), null otherwise. */
+    private final ExecutorService ownedExecutor;
+
+    /** Executor of the HTTP client, also used to sign payments. */
+    private final Executor executor;
+
+    /** Credentials of the user making the payments (null when signing with a signer). */
+    private final Credentials credentials;
+
+    /** Signer of the user making the payments (null when signing with credentials). */
+    private final Signer signer;
+
+    /** Address of the wallet making the payments. */
+    private final String walletAddress;
+
+    /** Strategy choosing the payment requirements to pay. */
+    private final PaymentRequirementsSelector paymentRequirementsSelector;
+
+    /** Provider of the authorization nonces. */
+    private final NonceProvider nonceProvider;
+
+    /** Optional pool of pre-signed payloads. */
+    private final PreSignedPaymentPool preSignedPaymentPool;
+
+    /** Optional cache of the payment required of resources. */
+    private final PaymentRequiredCache paymentRequiredCache;
+
+    /** Optional ledger enforcing spend limits. */
+    private final SpendLedger spendLedger;
+
+    /** Optional journal of the settlements. */
+    private final SettlementJournal settlementJournal;
+
+    /** Number of X-PAYMENT-RESPONSE headers that could not be decoded. */
+    private final LongAdder settleResponseFailures = new LongAdder();
+
+    /** Number of settlements that could not be appended to the journal. */
+    private final LongAdder journalFailures = new LongAdder();
+
+    /** Permits bounding the number of concurrent calls. */
+    private final AsyncPermits permits;
+
+    /**
+     * Creates an x402 HTTP client.
+     *
+     * @param httpClient                  the HTTP client (one running on virtual threads if null)
+     * @param credentials                 the credentials of the user making the payments (required without signer)
+     * @param signer                      the signer of the user making the payments (required without credentials)
+     * @param paymentRequirementsSelector the payment requirements selection strategy (first exact scheme if null)
+     * @param nonceProvider               the provider of the authorization nonces (thread-local provider if null)
+     * @param preSignedPaymentPool        the pool of pre-signed payloads, only with credentials (signed inline if null)
+     * @param paymentRequiredCache        the cache of payment required (every call waits for the 402 if null)
+     * @param spendLedger                 the ledger enforcing spend limits, not with a pool having one (no limit if null)
+     * @param settlementJournal           the journal of the settlements, not closed with the client (not journaled if null)
+     * @param maxConcurrentRequests       the maximum number of concurrent calls
+     */
+    @Builder
+    private X402HttpClient(final HttpClient httpClient,
+                           final Credentials credentials,
+                           final Signer signer,
+                           final PaymentRequirementsSelector paymentRequirementsSelector,
+                           final NonceProvider nonceProvider,
+                           final PreSignedPaymentPool preSignedPaymentPool,
+                           final PaymentRequiredCache paymentRequiredCache,
+                           final SpendLedger spendLedger,
+                           final SettlementJournal settlementJournal,
+                           final Integer maxConcurrentRequests) {
+        if ((credentials == null) == (signer == null)) {
+            throw new IllegalArgumentException("Exactly one of credentials and signer is required");
+        }
+        if (signer != null && preSignedPaymentPool != null) {
+            throw new IllegalArgumentException("Pre-signed payment pool requires credentials");
+        }
+        if (spendLedger != null && preSignedPaymentPool != null && preSignedPaymentPool.hasSpendLedger()) {
+            throw new IllegalArgumentException("Spend ledger set on both the client and its pre-signed payment pool: "
+                    + "payments would be counted twice");
+        }
+        if (httpClient == null) {
+            this.ownedExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            this.httpClient = HttpClient.newBuilder().executor(ownedExecutor).build();
+        } else {
+            this.ownedExecutor = null;
+            this.httpClient = httpClient;
+        }
+        this.executor = this.httpClient.executor().orElseGet(ForkJoinPool::commonPool);
+        this.credentials = credentials;
+        this.signer = signer;
+        this.walletAddress = signer != null ? signer.getAddress() : credentials.getAddress();
+        this.paymentRequirementsSelector = Objects.requireNonNullElseGet(paymentRequirementsSelector, PaymentRequirementsSelector::firstExact);
+        this.nonceProvider = Objects.requireNonNullElseGet(nonceProvider, NonceProvider::threadLocal);
+        this.preSignedPaymentPool = preSignedPaymentPool;
+        this.paymentRequiredCache = paymentRequiredCache;
+        this.spendLedger = spendLedger;
+        this.settlementJournal = settlementJournal;
+        this.permits = new AsyncPermits(Objects.requireNonNullElse(maxConcurrentRequests, DEFAULT_MAX_CONCURRENT_REQUESTS));
+    }
+
+    /**
+     * Sends a request, paying the resource if it answers 402.
+     *
+     * @param request     the request
+     * @param bodyHandler the handler of the final response body
+     * @param <T>         the response body type
+     * @return a future of the response, failed with {@link X402PaymentException} if no payment requirements is acceptable,
+     * or with {@link BudgetExceededException} if the payment would exceed a spend limit
+     */
+    public <T> CompletableFuture<X402HttpResponse<T>> sendAsync(@NonNull final HttpRequest request,
+                                                                 @NonNull final HttpResponse.BodyHandler<T> bodyHandler) {
+        return permits.acquire()
+                .thenComposeAsync(unused -> getCachedPaymentRequired(request)
+                        // If the payment required of the resource is known, we pay on the first request.
+                        .flatMap(paymentRequirementsSelector::select)
+                        .map(this::sign)
+                        .orElseGet(() -> CompletableFuture.completedFuture(null))
+                        .thenCompose(prePayment -> {
+                            HttpRequest firstRequest = prePayment == null ? request : withPayment(request, prePayment);
+                            return httpClient.sendAsync(firstRequest, firstAttemptBodyHandler(bodyHandler))
+                                    .thenCompose(response -> {
+                                        FirstAttempt<T> firstAttempt = response.body();
+                                        if (firstAttempt.paymentRequiredBody() == null) {
+                                            return CompletableFuture.completedFuture(new X402HttpResponse<>(
+                                                    new MappedHttpResponse<>(response, firstAttempt.body()),
+                                                    prePayment,
+                                                    getSettleResponse(request, prePayment, response.headers())));
+                                        }
+                                        return pay(request, firstAttempt.paymentRequiredBody(), prePayment != null)
+                                                .thenCompose(paymentPayload -> sendPaid(request, bodyHandler, paymentPayload));
+                                    });
+                        }), executor)
+                .whenComplete((response, throwable) -> permits.release());
+    }
+
+    /**
+     * Sends a request, paying the resource if it answers 402, and waits for the response.
+     * Meant to be called from virtual threads.
+     *
+     * @param request     the request
+     * @param bodyHandler the handler of the final response body
+     * @param <T>         the response body type
+     * @return the response
+     * @throws IOException          if the request fails
+     * @throws InterruptedException if interrupted while waiting (the call is cancelled)
+     * @throws X402PaymentException if no payment requirements is acceptable
+     * @throws BudgetExceededException if the payment would exceed a spend limit
+     */
+    public <T> X402HttpResponse<T> send(@NonNull final HttpRequest request, @NonNull final HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        CompletableFuture<X402HttpResponse<T>> response = sendAsync(request, bodyHandler);
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            // Failures of the asynchronous stages are wrapped: the original exception is thrown as is.
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Returns the number of X-PAYMENT-RESPONSE headers that could not be decoded.
+     *
+     * @return the number of failures
+     */
+    public long getSettleResponseFailureCount() {
+        return settleResponseFailures.sum();
+    }
+
+    /**
+     * Returns the number of settlements that could not be appended to the settlement journal.
+     *
+     * @return the number of failures
+     */
+    public long getJournalFailureCount() {
+        return journalFailures.sum();
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            httpClient.close();
+            ownedExecutor.close();
+        }
+    }
+
+    /**
+     * Sends the request with a payment.
+     *
+     * @param request        the original request
+     * @param bodyHandler    the handler of the response body
+     * @param paymentPayload the signed payment payload
+     * @param <T>            the response body type
+     * @return a future of the response
+     */
+    private <T> CompletableFuture<X402HttpResponse<T>> sendPaid(final HttpRequest request,
+                                                              final HttpResponse.BodyHandler<T> bodyHandler,
+                                                              final PaymentPayload paymentPayload) {
+        return httpClient.sendAsync(withPayment(request, paymentPayload), bodyHandler)
+                .thenApply(response -> {
+                    if (response.statusCode() == PAYMENT_REQUIRED_STATUS_CODE && paymentRequiredCache != null) {
+                        // Payment rejected: the payment required we know may be outdated.
+                        paymentRequiredCache.invalidate(request.method(), request.uri());
+                    }
+                    return new X402HttpResponse<>(response, paymentPayload, getSettleResponse(request, paymentPayload, response.headers()));
+                });
+    }
+
+    /**
+     * Returns a copy of the request with the X-PAYMENT header.
+     *
+     * @param request        the request
+     * @param paymentPayload the signed payment payload
+     * @return the request with payment
+     */
+    private static HttpRequest withPayment(final HttpRequest request, final PaymentPayload paymentPayload) {
+        return HttpRequest.newBuilder(request, (name, value) -> !X_PAYMENT_HEADER.equalsIgnoreCase(name))
+                .header(X_PAYMENT_HEADER, X402PaymentHelper.getPayloadHeader(paymentPayload))
+                .build();
+    }
+
+    /**
+     * Decodes the settle response from the X-PAYMENT-RESPONSE header, and appends it to the settlement journal.
+     * A header that can't be decoded is counted by {@link #getSettleResponseFailureCount()}, and a journal failure
+     * (closed journal, disk full...) by {@link #getJournalFailureCount()}: neither is thrown.
+     *
+     * @param request        the request
+     * @param paymentPayload the signed payment payload sent, or null if none
+     * @param headers        the response headers
+     * @return the settle response, or null if none
+     */
+    private SettleResponse getSettleResponse(final HttpRequest request, final PaymentPayload paymentPayload, final HttpHeaders headers) {
+        SettleResponse settleResponse;
+        try {
+            settleResponse = headers.firstValue(X_PAYMENT_RESPONSE_HEADER)
+                    .flatMap(X402PaymentHelper::getSettleResponseFromHeader)
+                    .orElse(null);
+        } catch (RuntimeException e) {
+            // The payment may be settled: a malformed header must not hide the response from the caller.
+            settleResponseFailures.increment();
+            settleResponse = null;
+        }
+        if (settlementJournal != null && settleResponse != null && paymentPayload != null) {
+            try {
+                settlementJournal.append(request.uri().toString(), paymentPayload, settleResponse);
+            } catch (RuntimeException e) {
+                // The payment is settled: losing its journal record must not fail the call.
+                journalFailures.increment();
+            }
+        }
+        return settleResponse;
+    }
+
+    /**
+     * Returns the cached payment required of the resource requested.
+     *
+     * @param request the request
+     * @return the payment required, if cached
+     */
+    private Optional<PaymentRequired> getCachedPaymentRequired(final HttpRequest request) {
+        if (paymentRequiredCache == null) {
+            return Optional.empty();
+        }
+        return paymentRequiredCache.get(request.method(), request.uri());
+    }
+
+    /**
+     * Chooses a payment requirements from a 402 body and builds the signed payment payload.
+     *
+     * @param request             the request
+     * @param paymentRequiredBody the 402 body
+     * @param prePaid             true if the request was already sent with a payment built from the cache
+     * @return a future of the signed payment payload
+     */
+    private CompletableFuture<PaymentPayload> pay(final HttpRequest request, final String paymentRequiredBody, final boolean prePaid) {
+        PaymentRequired paymentRequired = X402PaymentHelper.getPaymentRequiredFromBody(paymentRequiredBody)
+                .orElseThrow(() -> new X402PaymentException("Payment required without payment requirements", null));
+        if (paymentRequiredCache != null) {
+            if (prePaid) {
+                paymentRequiredCache.invalidate(request.method(), request.uri());
+            }
+            paymentRequiredCache.put(request.method(), request.uri(), paymentRequired);
+        }
+        return sign(paymentRequirementsSelector.select(paymentRequired)
+                .orElseThrow(() -> new X402PaymentException("No acceptable payment requirements", paymentRequired)));
+    }
+
+    /**
+     * Builds the signed payment payload of a payment requirements, after reserving it on the spend ledger.
+     *
+     * @param paymentRequirements the payment requirements
+     * @return a future of the signed payment payload
+     */
+    private CompletableFuture<PaymentPayload> sign(final PaymentRequirements paymentRequirements) {
+        if (spendLedger == null) {
+            return signUnchecked(paymentRequirements);
+        }
+        SpendReservation reservation = spendLedger.reserve(walletAddress, paymentRequirements);
+        CompletableFuture<PaymentPayload> paymentPayload;
+        try {
+            paymentPayload = signUnchecked(paymentRequirements);
+        } catch (RuntimeException e) {
+            paymentPayload = CompletableFuture.failedFuture(e);
+        }
+        return paymentPayload.whenComplete((signedPayload, throwable) -> {
+            if (throwable == null) {
+                reservation.commit();
+            } else {
+                reservation.cancel();
+            }
+        });
+    }
+
+    /**
+     * Builds the signed payment payload of a payment requirements.
+     *
+     * @param paymentRequirements the payment requirements
+     * @return a future of the signed payment payload
+     */
+    private CompletableFuture<PaymentPayload> signUnchecked(final PaymentRequirements paymentRequirements) {
+        if (preSignedPaymentPool != null) {
+            return CompletableFuture.completedFuture(preSignedPaymentPool.takeOrSign(credentials, paymentRequirements));
+        }
+        PaymentPayload unsignedPayload = X402PaymentHelper.getPayloadFromPaymentRequirements(null, walletAddress, paymentRequirements, nonceProvider);
+        if (signer != null) {
+            return X402PaymentHelper.getSignedPayloadAsync(signer, paymentRequirements, unsignedPayload);
+        }
+        return CompletableFuture.completedFuture(X402PaymentHelper.getSignedPayload(credentials, paymentRequirements, unsignedPayload));
+    }
+
+    /**
+     * Body handler of the first attempt: reads 402 bodies as strings, and other bodies with the user handler.
+     *
+     * @param bodyHandler the user body handler
+     * @param <T>         the response body type
+     * @return the body handler
+     */
+    private static <T> HttpResponse.BodyHandler<FirstAttempt<T>> firstAttemptBodyHandler(final HttpResponse.BodyHandler<T> bodyHandler) {
+        return responseInfo -> {
+            if (responseInfo.statusCode() == PAYMENT_REQUIRED_STATUS_CODE) {
+                return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                        body -> new FirstAttempt<>(null, body));
+            }
+            return HttpResponse.BodySubscribers.mapping(bodyHandler.apply(responseInfo), body -> new FirstAttempt<>(body, null));
+        };
+    }
+
+    /**
+     * Body of the first attempt.
+     *
+     * @param body                the body read by the user handler (not a 402)
+     * @param paymentRequiredBody the 402 body
+     * @param <T>                 the response body type
+     */
+    private record FirstAttempt<T>(T body, String paymentRequiredBody) {
+    }
+
+}
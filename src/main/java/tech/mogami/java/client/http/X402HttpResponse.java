@@ -0,0 +1,41 @@
+package tech.mogami.java.client.http;
+
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.header.payment.PaymentPayload;
+
+import java.net.http.HttpResponse;
+import java.util.Optional;
+
+/**
+ * Response of a call made by {@link X402HttpClient}, with the payment made and its settlement.
+ *
+ * @param response       the HTTP response
+ * @param paymentPayload the payment payload sent (null if no payment was required)
+ * @param settleResponse the settle response decoded from X-PAYMENT-RESPONSE (null if none returned)
+ * @param <T>            the response body type
+ */
+public record X402HttpResponse<T>(
+        HttpResponse<T> response,
+        PaymentPayload paymentPayload,
+        SettleResponse settleResponse
+) {
+
+    /**
+     * Returns the payment payload sent, if a payment was required.
+     *
+     * @return the payment payload
+     */
+    public Optional<PaymentPayload> getPaymentPayload() {
+        return Optional.ofNullable(paymentPayload);
+    }
+
+    /**
+     * Returns the settle response returned by the server, if any.
+     *
+     * @return the settle response
+     */
+    public Optional<SettleResponse> getSettleResponse() {
+        return Optional.ofNullable(settleResponse);
+    }
+
+}
@@ -0,0 +1,31 @@
+package tech.mogami.java.client.http;
+
+import lombok.Getter;
+import tech.mogami.commons.header.payment.PaymentRequired;
+
+import java.io.Serial;
+
+/**
+ * Raised when a resource requires a payment the client can't make.
+ */
+@Getter
+public class X402PaymentException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** The payment required returned by the server (null if the body could not be parsed). */
+    private final transient PaymentRequired paymentRequired;
+
+    /**
+     * Constructor.
+     *
+     * @param message         the message
+     * @param paymentRequired the payment required returned by the server
+     */
+    public X402PaymentException(final String message, final PaymentRequired paymentRequired) {
+        super(message);
+        this.paymentRequired = paymentRequired;
+    }
+
+}
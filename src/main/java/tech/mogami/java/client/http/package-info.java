@@ -0,0 +1,4 @@
+/**
+ * Asynchronous HTTP client paying x402 protected resources (402, pay, retry).
+ */
+package tech.mogami.java.client.http;
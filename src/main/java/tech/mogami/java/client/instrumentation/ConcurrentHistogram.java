@@ -0,0 +1,118 @@
+package tech.mogami.java.client.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values, in the manner of HdrHistogram: values below 128 are counted exactly,
+ * larger values in buckets of 64 per power of two, so any recorded value is reported within 1.6%.
+ * The whole long range fits in a fixed array of counters, and recording never allocates.
+ */
+public final class ConcurrentHistogram {
+
+    /** Number of bits of the values counted exactly. */
+    static final int SUB_BUCKET_BITS = 7;
+
+    /** Number of values counted exactly. */
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets per power of two above the values counted exactly. */
+    static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /** Number of buckets. */
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    /** Count of each bucket. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /** Number of values recorded. */
+    private final LongAdder totalCount = new LongAdder();
+
+    /** Sum of the values recorded. */
+    private final LongAdder totalSum = new LongAdder();
+
+    /** Smallest value recorded. */
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    /** Largest value recorded. */
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value the value
+     */
+    public void record(final long value) {
+        final long recorded = Math.max(0, value);
+        counts.incrementAndGet(index(recorded));
+        totalCount.increment();
+        totalSum.add(recorded);
+        // Reading first avoids contended writes once the extremes are established.
+        if (recorded < min.get()) {
+            min.accumulateAndGet(recorded, Math::min);
+        }
+        if (recorded > max.get()) {
+            max.accumulateAndGet(recorded, Math::max);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the histogram. Values recorded during the snapshot may or may not be included.
+     *
+     * @return the snapshot
+     */
+    public HistogramSnapshot snapshot() {
+        final long[] snapshotCounts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshotCounts[i] = counts.get(i);
+            count += snapshotCounts[i];
+        }
+        if (count == 0) {
+            return new HistogramSnapshot(snapshotCounts, 0, 0, 0, 0);
+        }
+        return new HistogramSnapshot(snapshotCounts, count, totalSum.sum(), Math.max(0, min.get()), Math.max(0, max.get()));
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Returns the bucket index of a value.
+     *
+     * @param value the value (not negative)
+     * @return the bucket index
+     */
+    static int index(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift) - HALF_SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * Returns the highest value counted in a bucket.
+     *
+     * @param index the bucket index
+     * @return the highest value
+     */
+    static long highestValue(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        final long subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        final long highest = ((subBucket + 1) << shift) - 1;
+        // The last bucket ends past the long range.
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+
+}
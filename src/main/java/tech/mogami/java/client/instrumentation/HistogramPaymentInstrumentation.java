@@ -0,0 +1,153 @@
+package tech.mogami.java.client.instrumentation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation keeping in memory, per phase and tags, latency and payload size histograms, success counts and
+ * failure counts per cause. Statistics are polled with {@link #getStatistics()}, for example by a metrics exporter.
+ * Recording is lock-free: counters and histograms are only created the first time a phase is seen with a set of tags.
+ * Tags come from the servers paid, so the number of (phase, tags) keys is capped: once it is reached, the measures of
+ * new keys are recorded under the {@link PaymentTags#UNKNOWN unknown tags} of their phase.
+ */
+@SuppressWarnings("unused")
+public final class HistogramPaymentInstrumentation implements PaymentInstrumentation {
+
+    /** Default maximum number of (phase, tags) keys. */
+    public static final int DEFAULT_MAX_KEYS = 256;
+
+    /** Maximum number of (phase, tags) keys, the unknown tags of each phase excluded. */
+    private final int maxKeys;
+
+    /** Metrics per phase and tags. */
+    private final Map<MetricsKey, PhaseMetrics> metrics = new ConcurrentHashMap<>();
+
+    /** Number of keys in the metrics, the unknown tags of each phase excluded. */
+    private final AtomicInteger taggedKeys = new AtomicInteger();
+
+    /**
+     * Creates an instrumentation keeping at most {@link #DEFAULT_MAX_KEYS} (phase, tags) keys.
+     */
+    public HistogramPaymentInstrumentation() {
+        this(DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * Creates an instrumentation.
+     *
+     * @param maxKeys the maximum number of (phase, tags) keys, the unknown tags of each phase excluded
+     */
+    public HistogramPaymentInstrumentation(final int maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("Maximum number of keys must be positive: " + maxKeys);
+        }
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public void onSuccess(final PaymentPhase phase, final PaymentTags tags, final long durationNanos, final int payloadSize) {
+        final PhaseMetrics phaseMetrics = getMetrics(phase, tags);
+        phaseMetrics.successes.increment();
+        phaseMetrics.latency.record(durationNanos);
+        if (payloadSize != NO_PAYLOAD_SIZE) {
+            phaseMetrics.payloadSize.record(payloadSize);
+        }
+    }
+
+    @Override
+    public void onFailure(final PaymentPhase phase, final PaymentTags tags, final long durationNanos, final Throwable cause) {
+        final PhaseMetrics phaseMetrics = getMetrics(phase, tags);
+        phaseMetrics.latency.record(durationNanos);
+        phaseMetrics.failures.computeIfAbsent(cause.getClass().getName(), name -> new LongAdder()).increment();
+    }
+
+    /**
+     * Returns the statistics of every phase and tags seen since the creation or the last reset.
+     *
+     * @return the statistics
+     */
+    public List<PhaseStatistics> getStatistics() {
+        final List<PhaseStatistics> statistics = new ArrayList<>(metrics.size());
+        metrics.forEach((key, phaseMetrics) -> {
+            final Map<String, Long> failures = new TreeMap<>();
+            phaseMetrics.failures.forEach((cause, count) -> failures.put(cause, count.sum()));
+            statistics.add(new PhaseStatistics(key.phase(),
+                    key.tags(),
+                    phaseMetrics.successes.sum(),
+                    Collections.unmodifiableMap(failures),
+                    phaseMetrics.latency.snapshot(),
+                    phaseMetrics.payloadSize.snapshot()));
+        });
+        return statistics;
+    }
+
+    /**
+     * Forgets all the statistics.
+     */
+    public void reset() {
+        metrics.clear();
+        taggedKeys.set(0);
+    }
+
+    /**
+     * Returns the metrics of a phase and tags, creating them if needed, or the metrics of the phase with the unknown
+     * tags if the maximum number of keys is reached. The cap is checked without lock, so concurrent threads may
+     * exceed it by a few keys.
+     *
+     * @param phase the phase
+     * @param tags  the tags
+     * @return the metrics
+     */
+    private PhaseMetrics getMetrics(final PaymentPhase phase, final PaymentTags tags) {
+        final MetricsKey key = new MetricsKey(phase, tags);
+        final PhaseMetrics phaseMetrics = metrics.get(key);
+        if (phaseMetrics != null) {
+            return phaseMetrics;
+        }
+        if (PaymentTags.UNKNOWN.equals(tags)) {
+            return metrics.computeIfAbsent(key, k -> new PhaseMetrics());
+        }
+        if (taggedKeys.get() >= maxKeys) {
+            return metrics.computeIfAbsent(new MetricsKey(phase, PaymentTags.UNKNOWN), k -> new PhaseMetrics());
+        }
+        return metrics.computeIfAbsent(key, k -> {
+            taggedKeys.incrementAndGet();
+            return new PhaseMetrics();
+        });
+    }
+
+    /**
+     * Key of the metrics.
+     *
+     * @param phase the phase
+     * @param tags  the tags
+     */
+    private record MetricsKey(PaymentPhase phase, PaymentTags tags) {
+    }
+
+    /**
+     * Metrics of a phase and tags.
+     */
+    private static final class PhaseMetrics {
+
+        /** Number of successes. */
+        private final LongAdder successes = new LongAdder();
+
+        /** Number of failures per cause class name. */
+        private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        /** Latency, in nanoseconds. */
+        private final ConcurrentHistogram latency = new ConcurrentHistogram();
+
+        /** Payload size, in characters. */
+        private final ConcurrentHistogram payloadSize = new ConcurrentHistogram();
+
+    }
+
+}
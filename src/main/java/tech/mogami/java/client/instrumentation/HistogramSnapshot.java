@@ -0,0 +1,96 @@
+package tech.mogami.java.client.instrumentation;
+
+import lombok.Getter;
+
+/**
+ * Immutable copy of a {@link ConcurrentHistogram}.
+ */
+@SuppressWarnings("unused")
+public final class HistogramSnapshot {
+
+    /** Percentile of the median. */
+    private static final double MEDIAN = 50;
+
+    /** Maximum percentile. */
+    private static final double MAX_PERCENTILE = 100;
+
+    /** Count of each bucket. */
+    private final long[] counts;
+
+    /** Number of values. */
+    @Getter
+    private final long count;
+
+    /** Sum of the values. */
+    @Getter
+    private final long sum;
+
+    /** Smallest value, or 0 if empty. */
+    @Getter
+    private final long min;
+
+    /** Largest value, or 0 if empty. */
+    @Getter
+    private final long max;
+
+    /**
+     * Constructor.
+     *
+     * @param counts the count of each bucket
+     * @param count  the number of values
+     * @param sum    the sum of the values
+     * @param min    the smallest value
+     * @param max    the largest value
+     */
+    HistogramSnapshot(final long[] counts, final long count, final long sum, final long min, final long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Returns the mean of the values.
+     *
+     * @return the mean, or 0 if empty
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the median of the values.
+     *
+     * @return the median, or 0 if empty
+     */
+    public long getMedian() {
+        return getValueAtPercentile(MEDIAN);
+    }
+
+    /**
+     * Returns the value below or at which a percentage of the values are.
+     * The value is the highest of its bucket, capped by the largest value recorded.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the value, or 0 if empty
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (percentile < 0 || percentile > MAX_PERCENTILE) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / MAX_PERCENTILE * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(Math.max(ConcurrentHistogram.highestValue(i), min), max);
+            }
+        }
+        return max;
+    }
+
+}
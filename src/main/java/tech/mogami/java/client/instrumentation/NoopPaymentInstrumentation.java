@@ -0,0 +1,32 @@
+package tech.mogami.java.client.instrumentation;
+
+/**
+ * Instrumentation recording nothing.
+ */
+final class NoopPaymentInstrumentation implements PaymentInstrumentation {
+
+    /** Singleton. */
+    static final NoopPaymentInstrumentation INSTANCE = new NoopPaymentInstrumentation();
+
+    /**
+     * Constructor.
+     */
+    private NoopPaymentInstrumentation() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void onSuccess(final PaymentPhase phase, final PaymentTags tags, final long durationNanos, final int payloadSize) {
+        // Nothing to record.
+    }
+
+    @Override
+    public void onFailure(final PaymentPhase phase, final PaymentTags tags, final long durationNanos, final Throwable cause) {
+        // Nothing to record.
+    }
+
+}
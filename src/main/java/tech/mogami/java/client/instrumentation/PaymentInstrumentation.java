@@ -0,0 +1,52 @@
+package tech.mogami.java.client.instrumentation;
+
+/**
+ * Receives the measures of the payment flow phases, to feed a metrics backend.
+ * Implementations are called on the payment path, from any thread: they must be thread-safe and fast. Exceptions they
+ * throw are ignored (and counted by {@link PaymentInstrumentations#getInstrumentationErrors()}), never failing a payment.
+ * The active instrumentation is set with {@link PaymentInstrumentations#set(PaymentInstrumentation)}.
+ */
+public interface PaymentInstrumentation {
+
+    /** Payload size of phases without payload. */
+    int NO_PAYLOAD_SIZE = -1;
+
+    /**
+     * Returns the instrumentation that records nothing. The phases are not even timed when it is active.
+     *
+     * @return the no-op instrumentation
+     */
+    static PaymentInstrumentation noop() {
+        return NoopPaymentInstrumentation.INSTANCE;
+    }
+
+    /**
+     * Returns true if the phases must be measured.
+     *
+     * @return true if enabled
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Called when a phase succeeds.
+     *
+     * @param phase         the phase
+     * @param tags          the tags
+     * @param durationNanos the duration of the phase, in nanoseconds
+     * @param payloadSize   the size, in characters, of the payload parsed or produced, or {@link #NO_PAYLOAD_SIZE}
+     */
+    void onSuccess(PaymentPhase phase, PaymentTags tags, long durationNanos, int payloadSize);
+
+    /**
+     * Called when a phase fails.
+     *
+     * @param phase         the phase
+     * @param tags          the tags
+     * @param durationNanos the duration of the phase until the failure, in nanoseconds
+     * @param cause         the failure cause
+     */
+    void onFailure(PaymentPhase phase, PaymentTags tags, long durationNanos, Throwable cause);
+
+}
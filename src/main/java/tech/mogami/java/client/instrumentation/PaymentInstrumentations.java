@@ -0,0 +1,66 @@
+package tech.mogami.java.client.instrumentation;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holder of the instrumentation used by {@link tech.mogami.java.client.helper.X402PaymentHelper}.
+ * The no-op instrumentation is active by default. Exceptions thrown by the instrumentation never fail a payment: they
+ * are ignored and counted.
+ */
+@UtilityClass
+@SuppressWarnings({"HideUtilityClassConstructor", "unused"})
+public class PaymentInstrumentations {
+
+    /** Number of exceptions thrown by the instrumentation. */
+    private static final LongAdder INSTRUMENTATION_ERRORS = new LongAdder();
+
+    /** Active instrumentation. */
+    private static volatile PaymentInstrumentation instrumentation = PaymentInstrumentation.noop();
+
+    /**
+     * Returns the active instrumentation.
+     *
+     * @return the active instrumentation
+     */
+    public static PaymentInstrumentation get() {
+        return instrumentation;
+    }
+
+    /**
+     * Sets the active instrumentation.
+     *
+     * @param paymentInstrumentation the instrumentation
+     */
+    public static void set(@NonNull final PaymentInstrumentation paymentInstrumentation) {
+        instrumentation = paymentInstrumentation;
+    }
+
+    /**
+     * Restores the no-op instrumentation.
+     */
+    public static void reset() {
+        instrumentation = PaymentInstrumentation.noop();
+    }
+
+    /**
+     * Returns the number of exceptions thrown by the instrumentation, and ignored, since the JVM started.
+     *
+     * @return the number of exceptions
+     */
+    public static long getInstrumentationErrors() {
+        return INSTRUMENTATION_ERRORS.sum();
+    }
+
+    /**
+     * Records an exception thrown by the instrumentation. Called by the instrumented code, which then ignores it.
+     *
+     * @param exception the exception
+     */
+    public static void onInstrumentationError(@NonNull final RuntimeException exception) {
+        INSTRUMENTATION_ERRORS.increment();
+    }
+
+}
@@ -0,0 +1,23 @@
+package tech.mogami.java.client.instrumentation;
+
+/**
+ * Phase of the payment flow.
+ */
+public enum PaymentPhase {
+
+    /** Parsing of the 402 body into a payment required. */
+    PARSE_PAYMENT_REQUIRED,
+
+    /** Building of the unsigned payment payload. */
+    BUILD_PAYLOAD,
+
+    /** EIP-712 signing of the payment payload. */
+    SIGN_PAYLOAD,
+
+    /** JSON and Base64 encoding of the X-PAYMENT header. */
+    ENCODE_HEADER,
+
+    /** Decoding of the X-PAYMENT-RESPONSE header into a settle response. */
+    DECODE_SETTLE_RESPONSE
+
+}
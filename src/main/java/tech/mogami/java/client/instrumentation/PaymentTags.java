@@ -0,0 +1,42 @@
+package tech.mogami.java.client.instrumentation;
+
+import tech.mogami.commons.header.payment.PaymentRequired;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+
+/**
+ * Tags of a measure. A tag is null when it is not known in the phase measured (for example the asset when encoding
+ * the X-PAYMENT header).
+ *
+ * @param scheme  the payment scheme
+ * @param network the network
+ * @param asset   the asset address
+ */
+public record PaymentTags(String scheme, String network, String asset) {
+
+    /** Tags of a measure made before anything is known about the payment. */
+    public static final PaymentTags UNKNOWN = new PaymentTags(null, null, null);
+
+    /**
+     * Returns the tags of a payment requirements.
+     *
+     * @param paymentRequirements the payment requirements
+     * @return the tags
+     */
+    public static PaymentTags of(final PaymentRequirements paymentRequirements) {
+        return new PaymentTags(paymentRequirements.scheme(), paymentRequirements.network(), paymentRequirements.asset());
+    }
+
+    /**
+     * Returns the tags of a payment required, taken from its first payment requirements.
+     *
+     * @param paymentRequired the payment required
+     * @return the tags
+     */
+    public static PaymentTags of(final PaymentRequired paymentRequired) {
+        if (paymentRequired.accepts() == null || paymentRequired.accepts().isEmpty()) {
+            return UNKNOWN;
+        }
+        return of(paymentRequired.accepts().getFirst());
+    }
+
+}
@@ -0,0 +1,33 @@
+package tech.mogami.java.client.instrumentation;
+
+import java.util.Map;
+
+/**
+ * Statistics of a payment phase for a set of tags.
+ *
+ * @param phase         the phase
+ * @param tags          the tags
+ * @param successes     the number of successes
+ * @param failures      the number of failures, per cause class name
+ * @param latency       the latency of the phase (successes and failures), in nanoseconds
+ * @param payloadSize   the size of the payloads parsed or produced, in characters (empty for phases without payload)
+ */
+public record PhaseStatistics(
+        PaymentPhase phase,
+        PaymentTags tags,
+        long successes,
+        Map<String, Long> failures,
+        HistogramSnapshot latency,
+        HistogramSnapshot payloadSize
+) {
+
+    /**
+     * Returns the total number of failures.
+     *
+     * @return the number of failures
+     */
+    public long getFailureCount() {
+        return failures.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+}
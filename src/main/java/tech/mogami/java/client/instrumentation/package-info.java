@@ -0,0 +1,4 @@
+/**
+ * Instrumentation of the payment flow phases (parsing, payload building, signing, encoding and decoding).
+ */
+package tech.mogami.java.client.instrumentation;
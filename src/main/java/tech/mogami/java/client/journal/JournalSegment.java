@@ -0,0 +1,337 @@
+package tech.mogami.java.client.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Memory-mapped segment file of the settlement journal.
+ * A segment starts with a magic number and a format version, followed by frames aligned on 8 bytes: the record
+ * length, the CRC32C of the record, then the encoded record. Writers reserve their frame by adding its length to the
+ * segment position and mark it at once with its negated frame length, write the record, and publish the record length
+ * last. A negative length is a frame reserved but not (or not yet) written, skipped by readers; a zero length marks
+ * the end of the frames.
+ */
+final class JournalSegment {
+
+    /** Magic number starting every segment ("X402"). */
+    static final int MAGIC = 0x58343032;
+
+    /** Format version. */
+    static final int VERSION = 1;
+
+    /** Size of the segment header: magic number and version. */
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    /** Size of the frame header: record length and CRC. */
+    static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+
+    /** Alignment of the frames, required by the ordered access to their length. */
+    static final int ALIGNMENT = Long.BYTES;
+
+    /** Value returned when a frame is not valid. */
+    static final int INVALID_FRAME = -1;
+
+    /** Prefix of the segment file names. */
+    private static final String FILE_PREFIX = "settlements-";
+
+    /** Suffix of the segment file names. */
+    private static final String FILE_SUFFIX = ".journal";
+
+    /** Format of the segment file names, from the segment index. */
+    private static final String FILE_NAME_FORMAT = FILE_PREFIX + "%020d" + FILE_SUFFIX;
+
+    /** Ordered access to the frame lengths. */
+    private static final VarHandle FRAME_LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    /** Index of the segment in the journal. */
+    private final long index;
+
+    /** Mapped segment file. */
+    private final MappedByteBuffer buffer;
+
+    /** Size of the segment. */
+    private final int capacity;
+
+    /** Offset of the next frame; exceeds the capacity once the segment is full. */
+    private final AtomicLong position;
+
+    /**
+     * Constructor.
+     *
+     * @param index    the segment index
+     * @param buffer   the mapped segment file
+     * @param position the offset of the next frame
+     */
+    private JournalSegment(final long index, final MappedByteBuffer buffer, final int position) {
+        this.index = index;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+        this.position = new AtomicLong(position);
+    }
+
+    /**
+     * Creates a new empty segment.
+     *
+     * @param directory the journal directory
+     * @param index     the segment index
+     * @param size      the segment size
+     * @return the segment
+     */
+    static JournalSegment create(final Path directory, final long index, final int size) {
+        final MappedByteBuffer buffer = map(path(directory, index), size, StandardOpenOption.CREATE_NEW);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(Integer.BYTES, VERSION);
+        return new JournalSegment(index, buffer, HEADER_SIZE);
+    }
+
+    /**
+     * Opens the last segment of a journal after a restart: frames torn by a crash are marked as skipped, the position is
+     * set after the last frame, and the bytes after it are cleared. Frames written after a reservation that crashed
+     * before being marked can't be reached, and are cleared too.
+     *
+     * @param directory the journal directory
+     * @param index     the segment index
+     * @param size      the size of a new segment, used if the file was not fully created
+     * @return the segment
+     */
+    static JournalSegment recover(final Path directory, final long index, final int size) {
+        final Path path = path(directory, index);
+        final MappedByteBuffer buffer;
+        try {
+            final long fileSize = Files.size(path);
+            buffer = map(path, fileSize < HEADER_SIZE ? size : Math.toIntExact(fileSize), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open journal segment " + path, e);
+        }
+        if (buffer.getInt(0) == 0) {
+            // Crash between the creation of the file and the header.
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(Integer.BYTES, VERSION);
+        }
+        checkHeader(buffer, path);
+
+        int end = HEADER_SIZE;
+        int extent;
+        while ((extent = frameExtent(buffer, end)) > 0) {
+            if (readFrame(buffer, end) == INVALID_FRAME) {
+                buffer.putInt(end, -extent);
+            }
+            end += extent;
+        }
+        for (int offset = end; offset + Long.BYTES <= buffer.capacity(); offset += Long.BYTES) {
+            // Reading is cheaper than writing: only the pages holding stale bytes are dirtied.
+            if (buffer.getLong(offset) != 0) {
+                buffer.putLong(offset, 0);
+            }
+        }
+        return new JournalSegment(index, buffer, end);
+    }
+
+    /**
+     * Maps a segment file read-only, for reading.
+     *
+     * @param path the segment path
+     * @return the mapped segment
+     */
+    static ByteBuffer mapReadOnly(final Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            checkHeader(buffer, path);
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open journal segment " + path, e);
+        }
+    }
+
+    /**
+     * Reserves a frame.
+     *
+     * @param frameLength the frame length
+     * @return the frame offset, or -1 if the segment is full
+     */
+    long reserve(final int frameLength) {
+        final long offset = position.getAndAdd(frameLength);
+        if (offset + frameLength > capacity) {
+            return -1;
+        }
+        // Lets the recovery skip the frame if the record is never written.
+        buffer.putInt((int) offset, -frameLength);
+        return offset;
+    }
+
+    /**
+     * Writes a frame reserved with {@link #reserve}, publishing its length last.
+     *
+     * @param offset the frame offset
+     * @param record the encoded record
+     */
+    void write(final long offset, final ByteBuffer record) {
+        final int frameOffset = (int) offset;
+        final int length = record.remaining();
+        final CRC32C crc = new CRC32C();
+        crc.update(record.duplicate());
+        buffer.putInt(frameOffset + Integer.BYTES, (int) crc.getValue());
+        buffer.put(frameOffset + FRAME_HEADER_SIZE, record, record.position(), length);
+        FRAME_LENGTH.setRelease(buffer, frameOffset, length);
+    }
+
+    /**
+     * Forces the segment content to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Returns the segment index.
+     *
+     * @return the index
+     */
+    long index() {
+        return index;
+    }
+
+    /**
+     * Returns the length of the record of a frame, if the frame is complete and its CRC matches.
+     *
+     * @param buffer the mapped segment
+     * @param offset the frame offset
+     * @return the record length, or {@link #INVALID_FRAME}
+     */
+    static int readFrame(final ByteBuffer buffer, final int offset) {
+        if (offset + FRAME_HEADER_SIZE > buffer.capacity()) {
+            return INVALID_FRAME;
+        }
+        final int length = (int) FRAME_LENGTH.getAcquire(buffer, offset);
+        if (length <= 0 || length > buffer.capacity() - offset - FRAME_HEADER_SIZE) {
+            return INVALID_FRAME;
+        }
+        final CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + FRAME_HEADER_SIZE, length));
+        return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES) ? length : INVALID_FRAME;
+    }
+
+    /**
+     * Returns the length of the frame at an offset, whether its record is valid or not, so that a frame torn by a crash
+     * can be skipped.
+     *
+     * @param buffer the mapped segment
+     * @param offset the frame offset
+     * @return the frame length, padding included, or 0 at the end of the frames
+     */
+    static int frameExtent(final ByteBuffer buffer, final int offset) {
+        if (offset + FRAME_HEADER_SIZE > buffer.capacity()) {
+            return 0;
+        }
+        final int length = (int) FRAME_LENGTH.getAcquire(buffer, offset);
+        final int available = buffer.capacity() - offset;
+        if (length > 0) {
+            return length <= available - FRAME_HEADER_SIZE ? frameLength(length) : 0;
+        }
+        final int reserved = -length;
+        return reserved >= FRAME_HEADER_SIZE && reserved <= available && reserved % ALIGNMENT == 0 ? reserved : 0;
+    }
+
+    /**
+     * Returns the length of the frame of a record, padding included.
+     *
+     * @param recordLength the record length
+     * @return the frame length
+     */
+    static int frameLength(final int recordLength) {
+        return (FRAME_HEADER_SIZE + recordLength + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * Returns the paths of the segments of a journal, in index order.
+     *
+     * @param directory the journal directory
+     * @return the segment paths
+     */
+    static List<Path> list(final Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list journal directory " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the index of a segment.
+     *
+     * @param path the segment path
+     * @return the index
+     */
+    static long index(final Path path) {
+        final String fileName = path.getFileName().toString();
+        return Long.parseLong(fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length()));
+    }
+
+    /**
+     * Returns the path of a segment.
+     *
+     * @param directory the journal directory
+     * @param index     the segment index
+     * @return the segment path
+     */
+    static Path path(final Path directory, final long index) {
+        return directory.resolve(FILE_NAME_FORMAT.formatted(index));
+    }
+
+    /**
+     * Returns true if a path is a segment file.
+     *
+     * @param path the path
+     * @return true if it is a segment file
+     */
+    private static boolean isSegment(final Path path) {
+        final String fileName = path.getFileName().toString();
+        return fileName.startsWith(FILE_PREFIX) && fileName.endsWith(FILE_SUFFIX);
+    }
+
+    /**
+     * Maps a segment file read-write.
+     *
+     * @param path       the segment path
+     * @param size       the segment size
+     * @param openOption the option creating or opening the file
+     * @return the mapped segment
+     */
+    private static MappedByteBuffer map(final Path path, final int size, final StandardOpenOption openOption) {
+        // The mapping stays valid once the channel is closed.
+        try (FileChannel channel = FileChannel.open(path, openOption, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map journal segment " + path, e);
+        }
+    }
+
+    /**
+     * Checks the header of a segment.
+     *
+     * @param buffer the mapped segment
+     * @param path   the segment path
+     */
+    private static void checkHeader(final ByteBuffer buffer, final Path path) {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a settlement journal segment: " + path);
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IllegalStateException("Unsupported settlement journal version " + buffer.getInt(Integer.BYTES) + ": " + path);
+        }
+    }
+
+}
@@ -0,0 +1,243 @@
+package tech.mogami.java.client.journal;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.header.payment.PaymentPayload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Append-only journal of settlements, written to memory-mapped segment files rotated when full.
+ * Appending is lock-free: each writer reserves its frame with an atomic add on the segment position and copies its
+ * record into the mapping, so concurrent payments never wait for each other nor for the disk. Only the writer filling
+ * a segment takes a lock, to map the next one.
+ * Records are checksummed, and each frame is marked with its length as soon as it is reserved: when the journal is
+ * opened again, the frames of the last segment torn by a crash are skipped, and the records written after them are
+ * kept. Only a crash between the reservation of a frame and its marking, a few instructions, loses the records written
+ * after it in the segment. Records reach the disk when the operating system writes the mapped pages back, even if the
+ * JVM dies; {@link #flush} forces them, for example to survive a power loss.
+ * A journal directory is locked while open, so that two processes can't append to the same segments.
+ * Segments are read back in order with {@link #read}.
+ */
+@SuppressWarnings("unused")
+public final class SettlementJournal implements AutoCloseable {
+
+    /** Default segment size (64 MiB). */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /** Minimum segment size (64 KiB). */
+    public static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    /** Name of the file locked while the journal is open. */
+    static final String LOCK_FILE_NAME = "journal.lock";
+
+    /** Directory of the segment files. */
+    @Getter
+    private final Path directory;
+
+    /** Size of the new segments. */
+    private final int segmentSize;
+
+    /** Channel of the lock file. */
+    private final FileChannel lockChannel;
+
+    /** Lock held on the journal directory. */
+    private final FileLock lock;
+
+    /** Segment being written. */
+    private volatile JournalSegment current;
+
+    /** True once closed. */
+    private volatile boolean closed;
+
+    /**
+     * Opens a settlement journal, recovering its last segment if it exists.
+     *
+     * @param directory   the directory of the segment files (created if needed)
+     * @param segmentSize the size of the segment files (64 MiB if null)
+     * @throws IllegalStateException if the journal is already open, in this process or another one
+     */
+    @Builder
+    private SettlementJournal(@NonNull final Path directory, final Integer segmentSize) {
+        this.segmentSize = Objects.requireNonNullElse(segmentSize, DEFAULT_SEGMENT_SIZE);
+        if (this.segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + MIN_SEGMENT_SIZE + ": " + this.segmentSize);
+        }
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal directory " + directory, e);
+        }
+        this.lockChannel = openLockFile(directory);
+        this.lock = lock(directory, lockChannel);
+        try {
+            final List<Path> segments = JournalSegment.list(directory);
+            this.current = segments.isEmpty()
+                    ? JournalSegment.create(directory, 0, this.segmentSize)
+                    : JournalSegment.recover(directory, JournalSegment.index(segments.getLast()), this.segmentSize);
+        } catch (RuntimeException e) {
+            releaseLock();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the settlements of a journal, in the order they were appended.
+     *
+     * @param directory the directory of the segment files
+     * @return the reader
+     */
+    public static SettlementJournalReader read(@NonNull final Path directory) {
+        return new SettlementJournalReader(directory);
+    }
+
+    /**
+     * Appends the settlement of a payment received now.
+     *
+     * @param resource       the resource paid
+     * @param paymentPayload the signed payment payload sent
+     * @param settleResponse the settle response received
+     */
+    public void append(final String resource, @NonNull final PaymentPayload paymentPayload, @NonNull final SettleResponse settleResponse) {
+        append(SettlementRecord.of(resource, paymentPayload, settleResponse));
+    }
+
+    /**
+     * Appends a settlement.
+     *
+     * @param settlementRecord the settlement record
+     * @throws IllegalArgumentException if the record doesn't fit in a segment
+     * @throws IllegalStateException    if the journal is closed
+     */
+    public void append(@NonNull final SettlementRecord settlementRecord) {
+        if (closed) {
+            throw new IllegalStateException("Settlement journal closed");
+        }
+        final ByteBuffer encodedRecord = SettlementRecordCodec.encode(settlementRecord);
+        final int frameLength = JournalSegment.frameLength(encodedRecord.remaining());
+        if (frameLength > segmentSize - JournalSegment.HEADER_SIZE) {
+            throw new IllegalArgumentException("Settlement record too large: " + encodedRecord.remaining() + " bytes");
+        }
+        while (true) {
+            final JournalSegment segment = current;
+            final long offset = segment.reserve(frameLength);
+            if (offset >= 0) {
+                segment.write(offset, encodedRecord);
+                return;
+            }
+            rotate(segment);
+        }
+    }
+
+    /**
+     * Forces the records appended so far to the storage device.
+     */
+    public void flush() {
+        current.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            try {
+                current.force();
+            } finally {
+                releaseLock();
+            }
+        }
+    }
+
+    /**
+     * Maps the segment following a full one, unless another writer already did.
+     *
+     * @param full the full segment
+     */
+    private synchronized void rotate(final JournalSegment full) {
+        if (closed) {
+            throw new IllegalStateException("Settlement journal closed");
+        }
+        if (current == full) {
+            full.force();
+            current = JournalSegment.create(directory, full.index() + 1, segmentSize);
+        }
+    }
+
+    /**
+     * Opens the lock file of a journal directory.
+     *
+     * @param directory the journal directory
+     * @return the lock file channel
+     */
+    private static FileChannel openLockFile(final Path directory) {
+        try {
+            return FileChannel.open(directory.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open journal lock file in " + directory, e);
+        }
+    }
+
+    /**
+     * Locks a journal directory, closing the lock file if it is already locked.
+     *
+     * @param directory the journal directory
+     * @param channel   the lock file channel
+     * @return the lock
+     */
+    private static FileLock lock(final Path directory, final FileChannel channel) {
+        FileLock fileLock = null;
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Already locked by this process.
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException("Failed to lock journal directory " + directory, e);
+        }
+        if (fileLock == null) {
+            closeQuietly(channel);
+            throw new IllegalStateException("Settlement journal directory already in use: " + directory);
+        }
+        return fileLock;
+    }
+
+    /**
+     * Releases the lock on the journal directory.
+     */
+    private void releaseLock() {
+        try {
+            lock.release();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to unlock journal directory " + directory, e);
+        } finally {
+            closeQuietly(lockChannel);
+        }
+    }
+
+    /**
+     * Closes a lock file channel, ignoring failures.
+     *
+     * @param channel the channel
+     */
+    private static void closeQuietly(final FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Closing the channel releases the lock anyway.
+        }
+    }
+
+}
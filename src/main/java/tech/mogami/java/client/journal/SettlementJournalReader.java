@@ -0,0 +1,108 @@
+package tech.mogami.java.client.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sequential reader of a settlement journal, for reconciliation and replay.
+ * Segments are mapped read-only one at a time; the frames not valid (torn by a crash, or still being written) are
+ * skipped, up to the end of the frames. Every iteration lists the segments again, and sees the records written before
+ * it reaches them.
+ */
+public final class SettlementJournalReader implements Iterable<SettlementRecord> {
+
+    /** Directory of the segment files. */
+    private final Path directory;
+
+    /**
+     * Constructor.
+     *
+     * @param directory the directory of the segment files
+     */
+    SettlementJournalReader(final Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Iterator<SettlementRecord> iterator() {
+        return new RecordIterator(JournalSegment.list(directory));
+    }
+
+    /**
+     * Returns the records as a sequential stream.
+     *
+     * @return the stream of records
+     */
+    public Stream<SettlementRecord> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Iterator over the records of the segments.
+     */
+    private static final class RecordIterator implements Iterator<SettlementRecord> {
+
+        /** Segments not read yet. */
+        private final Iterator<Path> segments;
+
+        /** Segment being read, or null. */
+        private ByteBuffer segment;
+
+        /** Offset of the next frame in the segment. */
+        private int offset;
+
+        /** Next record, or null if not read yet. */
+        private SettlementRecord next;
+
+        /**
+         * Constructor.
+         *
+         * @param segments the segment paths, in order
+         */
+        RecordIterator(final List<Path> segments) {
+            this.segments = segments.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (segment != null) {
+                    int extent;
+                    while ((extent = JournalSegment.frameExtent(segment, offset)) > 0) {
+                        final int frameOffset = offset;
+                        offset += extent;
+                        final int length = JournalSegment.readFrame(segment, frameOffset);
+                        if (length != JournalSegment.INVALID_FRAME) {
+                            next = SettlementRecordCodec.decode(segment, frameOffset + JournalSegment.FRAME_HEADER_SIZE, length);
+                            return true;
+                        }
+                    }
+                }
+                if (!segments.hasNext()) {
+                    segment = null;
+                    return false;
+                }
+                segment = JournalSegment.mapReadOnly(segments.next());
+                offset = JournalSegment.HEADER_SIZE;
+            }
+            return true;
+        }
+
+        @Override
+        public SettlementRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final SettlementRecord settlementRecord = next;
+            next = null;
+            return settlementRecord;
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package tech.mogami.java.client.journal;
+
+import lombok.Builder;
+import lombok.NonNull;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+
+/**
+ * Settlement of a payment, as written in the {@link SettlementJournal}: the signed payment payload sent and the
+ * settle response received.
+ *
+ * @param recordedAt  the time the settlement was recorded, in milliseconds since the epoch
+ * @param success     true if the payment was settled
+ * @param scheme      the payment scheme
+ * @param network     the network
+ * @param transaction the transaction hash, if any
+ * @param payer       the payer address
+ * @param payTo       the address paid
+ * @param amount      the amount authorized, in the asset atomic units
+ * @param nonce       the authorization nonce
+ * @param validAfter  the authorization validity start, in seconds since the epoch
+ * @param validBefore the authorization validity end, in seconds since the epoch
+ * @param resource    the resource paid
+ * @param errorReason the reason of the failure, if any
+ */
+@Builder
+public record SettlementRecord(
+        long recordedAt,
+        boolean success,
+        String scheme,
+        String network,
+        String transaction,
+        String payer,
+        String payTo,
+        String amount,
+        String nonce,
+        String validAfter,
+        String validBefore,
+        String resource,
+        String errorReason
+) {
+
+    /**
+     * Creates the record of a settlement received now.
+     * The authorization fields are only set for exact scheme payloads.
+     *
+     * @param resource       the resource paid
+     * @param paymentPayload the signed payment payload sent
+     * @param settleResponse the settle response received
+     * @return the settlement record
+     */
+    public static SettlementRecord of(final String resource,
+                                      @NonNull final PaymentPayload paymentPayload,
+                                      @NonNull final SettleResponse settleResponse) {
+        final SettlementRecordBuilder builder = SettlementRecord.builder()
+                .recordedAt(System.currentTimeMillis())
+                .success(settleResponse.success())
+                .scheme(paymentPayload.scheme())
+                .network(settleResponse.network() != null ? settleResponse.network() : paymentPayload.network())
+                .transaction(settleResponse.transaction())
+                .payer(settleResponse.payer())
+                .resource(resource)
+                .errorReason(settleResponse.errorReason());
+        if (paymentPayload.payload() instanceof ExactSchemePayload exactSchemePayload
+                && exactSchemePayload.authorization() != null) {
+            final ExactSchemePayload.Authorization authorization = exactSchemePayload.authorization();
+            builder.payer(settleResponse.payer() != null ? settleResponse.payer() : authorization.from())
+                    .payTo(authorization.to())
+                    .amount(authorization.value())
+                    .nonce(authorization.nonce())
+                    .validAfter(authorization.validAfter())
+                    .validBefore(authorization.validBefore());
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,121 @@
+package tech.mogami.java.client.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of settlement records: the record time, the success flag, then every string as its UTF-8 length
+ * (-1 for null) followed by its bytes, in the record component order.
+ */
+final class SettlementRecordCodec {
+
+    /** Length written for a null string. */
+    private static final int NULL_LENGTH = -1;
+
+    /** Number of string components. */
+    private static final int STRING_COUNT = 11;
+
+    /** Size of the fixed part: record time and success flag. */
+    private static final int FIXED_SIZE = Long.BYTES + 1;
+
+    /** Initial size of the encoding buffer of a thread. */
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    /** Encoding buffer of each thread, grown as needed. */
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+
+    /**
+     * Constructor.
+     */
+    private SettlementRecordCodec() {
+    }
+
+    /**
+     * Encodes a record in the buffer of the calling thread.
+     *
+     * @param settlementRecord the record
+     * @return the buffer, from 0 to the encoded length, valid until the next call from the same thread
+     */
+    static ByteBuffer encode(final SettlementRecord settlementRecord) {
+        final byte[][] strings = {
+                bytes(settlementRecord.scheme()),
+                bytes(settlementRecord.network()),
+                bytes(settlementRecord.transaction()),
+                bytes(settlementRecord.payer()),
+                bytes(settlementRecord.payTo()),
+                bytes(settlementRecord.amount()),
+                bytes(settlementRecord.nonce()),
+                bytes(settlementRecord.validAfter()),
+                bytes(settlementRecord.validBefore()),
+                bytes(settlementRecord.resource()),
+                bytes(settlementRecord.errorReason())
+        };
+        int size = FIXED_SIZE;
+        for (byte[] string : strings) {
+            size += Integer.BYTES + (string == null ? 0 : string.length);
+        }
+
+        ByteBuffer buffer = BUFFERS.get();
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(Math.max(size, buffer.capacity() * 2));
+            BUFFERS.set(buffer);
+        }
+        buffer.clear();
+        buffer.putLong(settlementRecord.recordedAt());
+        buffer.put((byte) (settlementRecord.success() ? 1 : 0));
+        for (byte[] string : strings) {
+            if (string == null) {
+                buffer.putInt(NULL_LENGTH);
+            } else {
+                buffer.putInt(string.length);
+                buffer.put(string);
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes a record.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the encoded record
+     * @param length the length of the encoded record
+     * @return the record
+     * @throws IllegalArgumentException if the bytes are not an encoded record
+     */
+    static SettlementRecord decode(final ByteBuffer buffer, final int offset, final int length) {
+        final ByteBuffer in = buffer.slice(offset, length);
+        if (length < FIXED_SIZE + STRING_COUNT * Integer.BYTES) {
+            throw new IllegalArgumentException("Settlement record too short: " + length);
+        }
+        final long recordedAt = in.getLong();
+        final boolean success = in.get() != 0;
+        final String[] strings = new String[STRING_COUNT];
+        for (int i = 0; i < STRING_COUNT; i++) {
+            final int stringLength = in.getInt();
+            if (stringLength == NULL_LENGTH) {
+                continue;
+            }
+            if (stringLength < 0 || stringLength > in.remaining()) {
+                throw new IllegalArgumentException("Invalid string length in settlement record: " + stringLength);
+            }
+            final byte[] bytes = new byte[stringLength];
+            in.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new SettlementRecord(recordedAt, success,
+                strings[0], strings[1], strings[2], strings[3], strings[4], strings[5],
+                strings[6], strings[7], strings[8], strings[9], strings[10]);
+    }
+
+    /**
+     * Returns the UTF-8 bytes of a string.
+     *
+     * @param string the string
+     * @return the bytes, or null if the string is null
+     */
+    private static byte[] bytes(final String string) {
+        return string == null ? null : string.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Append-only journal of the settlements received by the client, for reconciliation and replay.
+ */
+package tech.mogami.java.client.journal;
@@ -0,0 +1,74 @@
+package tech.mogami.java.client.nonce;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Nonce provider remembering the nonces returned within a validity window, and replacing any duplicate.
+ * A duplicate 32 bytes random nonce is astronomically unlikely with a sound generator: this is a safety net against
+ * broken or misconfigured random sources, as a reused nonce makes the authorization fail on-chain.
+ */
+public final class DuplicateNonceDetector implements NonceProvider {
+
+    /** Number of nonces returned between two purges of the expired ones. */
+    private static final int PURGE_INTERVAL = 1024;
+
+    /** Maximum number of attempts to get a nonce that is not a duplicate. */
+    private static final int MAX_ATTEMPTS = 16;
+
+    /** Nonce provider generating the nonces. */
+    private final NonceProvider delegate;
+
+    /** Window, in nanoseconds. */
+    private final long windowNanos;
+
+    /** Nonces returned, with their expiration time in nanoseconds. */
+    private final Map<String, Long> issued = new ConcurrentHashMap<>();
+
+    /** Number of nonces returned. */
+    private final AtomicLong counter = new AtomicLong();
+
+    /** Number of duplicates detected. */
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param delegate nonce provider generating the nonces
+     * @param window   how long a nonce is remembered
+     */
+    DuplicateNonceDetector(final NonceProvider delegate, final Duration window) {
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+    }
+
+    @Override
+    public String nextNonce() {
+        final long now = System.nanoTime();
+        if (counter.incrementAndGet() % PURGE_INTERVAL == 0) {
+            issued.values().removeIf(expiresAt -> expiresAt - now < 0);
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            final String nonce = delegate.nextNonce();
+            final Long previous = issued.putIfAbsent(nonce, now + windowNanos);
+            if (previous == null || previous - now < 0 && issued.replace(nonce, previous, now + windowNanos)) {
+                return nonce;
+            }
+            duplicates.increment();
+        }
+        throw new IllegalStateException("Nonce provider keeps returning duplicate nonces");
+    }
+
+    /**
+     * Returns the number of duplicates detected.
+     *
+     * @return the number of duplicates
+     */
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+}
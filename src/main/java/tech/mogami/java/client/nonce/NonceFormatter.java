@@ -0,0 +1,33 @@
+package tech.mogami.java.client.nonce;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.HexFormat;
+
+import static tech.mogami.commons.constant.BlockchainConstants.BLOCKCHAIN_ADDRESS_PREFIX;
+
+/**
+ * Formats nonce bytes the way {@link tech.mogami.commons.util.NonceUtil} does.
+ */
+@UtilityClass
+@SuppressWarnings("HideUtilityClassConstructor")
+class NonceFormatter {
+
+    /** Size of a nonce, in bytes. */
+    static final int NONCE_SIZE = 32;
+
+    /** Lowercase hexadecimal formatter. */
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+
+    /**
+     * Formats a nonce.
+     *
+     * @param bytes  the buffer containing the nonce
+     * @param offset the offset of the nonce in the buffer
+     * @return the 0x prefixed hexadecimal nonce
+     */
+    static String format(final byte[] bytes, final int offset) {
+        return BLOCKCHAIN_ADDRESS_PREFIX + HEX_FORMAT.formatHex(bytes, offset, offset + NONCE_SIZE);
+    }
+
+}
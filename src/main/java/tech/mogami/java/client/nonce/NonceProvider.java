@@ -0,0 +1,41 @@
+package tech.mogami.java.client.nonce;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+
+/**
+ * Provides the random 32 bytes nonces (0x prefixed hexadecimal strings) of payment authorizations.
+ */
+@FunctionalInterface
+public interface NonceProvider {
+
+    /**
+     * Returns a new nonce.
+     *
+     * @return the nonce, as a 0x prefixed hexadecimal string
+     */
+    String nextNonce();
+
+    /**
+     * Returns the default nonce provider: one DRBG random generator per platform thread, and a small array of DRBG
+     * random generators shared by the virtual threads.
+     *
+     * @return the default nonce provider
+     */
+    static NonceProvider threadLocal() {
+        return ThreadLocalNonceProvider.INSTANCE;
+    }
+
+    /**
+     * Returns a nonce provider rejecting (and replacing) the nonces it already returned within a validity window.
+     *
+     * @param delegate the nonce provider generating the nonces
+     * @param window   how long a nonce is remembered (at least the validity of the authorizations)
+     * @return the nonce provider
+     */
+    static DuplicateNonceDetector withDuplicateDetection(@NonNull final NonceProvider delegate, @NonNull final Duration window) {
+        return new DuplicateNonceDetector(delegate, window);
+    }
+
+}
@@ -0,0 +1,145 @@
+package tech.mogami.java.client.nonce;
+
+import lombok.Builder;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Nonce provider serving pre-generated nonces from a lock-free ring buffer.
+ * A background thread refills the ring in bulk (one random draw for many nonces) when it falls below half its
+ * capacity. Consumers never block: when the ring is empty, the nonce is generated inline by the thread-local provider.
+ */
+@SuppressWarnings("unused")
+public final class RingBufferNonceProvider implements NonceProvider, AutoCloseable {
+
+    /** Default number of nonces in the ring. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /** Default maximum time the refill thread sleeps between two checks. */
+    public static final Duration DEFAULT_REFILL_INTERVAL = Duration.ofMillis(100);
+
+    /** Ring slots. */
+    private final AtomicReferenceArray<String> slots;
+
+    /** Number of slots. */
+    private final int capacity;
+
+    /** Sequence of the next nonce to consume. */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Sequence of the next nonce to produce (only written by the refill thread). */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Random generator of the refill thread. */
+    private final SecureRandom random = ThreadLocalNonceProvider.newRandom();
+
+    /** Refill thread. */
+    private final Thread refillThread;
+
+    /** Maximum time the refill thread sleeps between two checks, in nanoseconds. */
+    private final long refillIntervalNanos;
+
+    /** True once closed. */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Creates a ring buffer nonce provider and starts its refill thread.
+     *
+     * @param capacity       number of nonces in the ring
+     * @param refillInterval maximum time the refill thread sleeps between two checks
+     */
+    @Builder
+    private RingBufferNonceProvider(final Integer capacity, final Duration refillInterval) {
+        this.capacity = Objects.requireNonNullElse(capacity, DEFAULT_CAPACITY);
+        if (this.capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + this.capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.refillIntervalNanos = Objects.requireNonNullElse(refillInterval, DEFAULT_REFILL_INTERVAL).toNanos();
+        refill();
+        this.refillThread = Thread.ofPlatform()
+                .name("x402-nonce-refill")
+                .daemon(true)
+                .start(this::refillLoop);
+    }
+
+    @Override
+    public String nextNonce() {
+        while (true) {
+            final long sequence = head.get();
+            if (sequence >= tail.get()) {
+                LockSupport.unpark(refillThread);
+                return ThreadLocalNonceProvider.INSTANCE.nextNonce();
+            }
+            // The slot is read before claiming it: the producer can't overwrite it while head is still at this sequence.
+            final String nonce = slots.get(index(sequence));
+            if (head.compareAndSet(sequence, sequence + 1)) {
+                if (tail.get() - sequence < capacity / 2) {
+                    LockSupport.unpark(refillThread);
+                }
+                return nonce;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of nonces ready in the ring.
+     *
+     * @return the number of nonces
+     */
+    public int available() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            LockSupport.unpark(refillThread);
+        }
+    }
+
+    /**
+     * Refills the ring until closed.
+     */
+    private void refillLoop() {
+        while (!closed.get()) {
+            refill();
+            LockSupport.parkNanos(this, refillIntervalNanos);
+        }
+    }
+
+    /**
+     * Fills the free slots of the ring, drawing all their random bytes at once.
+     */
+    private void refill() {
+        final long producedUpTo = tail.get();
+        final int free = (int) (capacity - (producedUpTo - head.get()));
+        if (free <= 0) {
+            return;
+        }
+        final byte[] bytes = new byte[free * NonceFormatter.NONCE_SIZE];
+        random.nextBytes(bytes);
+        for (int i = 0; i < free; i++) {
+            slots.set(index(producedUpTo + i), NonceFormatter.format(bytes, i * NonceFormatter.NONCE_SIZE));
+            // Publishing one by one lets consumers use the first nonces while the others are formatted.
+            tail.set(producedUpTo + i + 1);
+        }
+    }
+
+    /**
+     * Returns the slot index of a sequence.
+     *
+     * @param sequence the sequence
+     * @return the slot index
+     */
+    private int index(final long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+}
@@ -0,0 +1,86 @@
+package tech.mogami.java.client.nonce;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Nonce provider using one DRBG random generator per platform thread, so that concurrent payments don't contend on a
+ * shared {@link SecureRandom} (the default {@code NativePRNG} of Linux serializes all its callers on a global lock).
+ * Virtual threads are short-lived and would each pay the instantiation of a generator: they share a small array of
+ * generators instead, chosen by thread id, and only contend with the virtual threads mapped to the same generator.
+ */
+final class ThreadLocalNonceProvider implements NonceProvider {
+
+    /** Singleton. */
+    static final ThreadLocalNonceProvider INSTANCE = new ThreadLocalNonceProvider();
+
+    /** Algorithm of the random generators. */
+    private static final String RANDOM_ALGORITHM = "DRBG";
+
+    /** Random generator and buffer of each platform thread. */
+    private static final ThreadLocal<ThreadState> STATE = ThreadLocal.withInitial(ThreadState::new);
+
+    /** Random generators shared by the virtual threads (a power of two, at least twice the number of processors). */
+    private static final SecureRandom[] SHARED_RANDOMS = newSharedRandoms(Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * Private constructor.
+     */
+    private ThreadLocalNonceProvider() {
+    }
+
+    @Override
+    public String nextNonce() {
+        final Thread thread = Thread.currentThread();
+        if (thread.isVirtual()) {
+            final byte[] buffer = new byte[NonceFormatter.NONCE_SIZE];
+            SHARED_RANDOMS[(int) thread.threadId() & (SHARED_RANDOMS.length - 1)].nextBytes(buffer);
+            return NonceFormatter.format(buffer, 0);
+        }
+        final ThreadState state = STATE.get();
+        state.random.nextBytes(state.buffer);
+        return NonceFormatter.format(state.buffer, 0);
+    }
+
+    /**
+     * Creates a random generator. DRBG only reads the system seed source when it is instantiated and when it
+     * reseeds; in between, it generates the bytes in memory, under its own lock only.
+     *
+     * @return the random generator
+     */
+    static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance(RANDOM_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(RANDOM_ALGORITHM + " random generator not available", e);
+        }
+    }
+
+    /**
+     * Creates the random generators shared by the virtual threads.
+     *
+     * @param minimumCount the minimum number of generators
+     * @return the random generators
+     */
+    private static SecureRandom[] newSharedRandoms(final int minimumCount) {
+        final SecureRandom[] randoms = new SecureRandom[Integer.highestOneBit(Math.max(minimumCount - 1, 1)) << 1];
+        for (int i = 0; i < randoms.length; i++) {
+            randoms[i] = newRandom();
+        }
+        return randoms;
+    }
+
+    /**
+     * Random generator and buffer of a platform thread.
+     */
+    private static final class ThreadState {
+
+        /** Random generator (seeded when the thread first needs a nonce). */
+        private final SecureRandom random = newRandom();
+
+        /** Nonce buffer. */
+        private final byte[] buffer = new byte[NonceFormatter.NONCE_SIZE];
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Providers of the 32 bytes nonces of payment authorizations.
+ */
+package tech.mogami.java.client.nonce;
@@ -0,0 +1,348 @@
+package tech.mogami.java.client.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import tech.mogami.commons.header.payment.PaymentRequired;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Streaming parser of 402 bodies, reading the JSON token by token instead of binding the whole payment required.
+ * Payment requirements not matching a {@link PaymentRequirementsFilter} are skipped as soon as a field contradicts
+ * it, without building their other fields; {@link #findFirst} stops reading at the first match.
+ * Streams are read but not closed.
+ */
+@UtilityClass
+@SuppressWarnings({"HideUtilityClassConstructor", "unused"})
+public class PaymentRequiredParser {
+
+    /** Field of the x402 version. */
+    static final String X402_VERSION_FIELD = "x402Version";
+
+    /** Field of the payment requirements array. */
+    static final String ACCEPTS_FIELD = "accepts";
+
+    /** Field of the error. */
+    static final String ERROR_FIELD = "error";
+
+    /** Field of the scheme. */
+    static final String SCHEME_FIELD = "scheme";
+
+    /** Field of the network. */
+    static final String NETWORK_FIELD = "network";
+
+    /** Field of the amount required. */
+    static final String MAX_AMOUNT_REQUIRED_FIELD = "maxAmountRequired";
+
+    /** Field of the resource. */
+    static final String RESOURCE_FIELD = "resource";
+
+    /** Field of the description. */
+    static final String DESCRIPTION_FIELD = "description";
+
+    /** Field of the mime type. */
+    static final String MIME_TYPE_FIELD = "mimeType";
+
+    /** Field of the recipient. */
+    static final String PAY_TO_FIELD = "payTo";
+
+    /** Field of the timeout. */
+    static final String MAX_TIMEOUT_SECONDS_FIELD = "maxTimeoutSeconds";
+
+    /** Field of the asset. */
+    static final String ASSET_FIELD = "asset";
+
+    /** Field of the extra parameters. */
+    static final String EXTRA_FIELD = "extra";
+
+    /** JSON factory (thread-safe), leaving the streams of the caller open. */
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    /**
+     * Parses a 402 body, keeping only the payment requirements matching a filter.
+     *
+     * @param body   the 402 body
+     * @param filter the filter
+     * @return the payment required, with the matching payment requirements only
+     */
+    @SneakyThrows
+    public static PaymentRequired parse(@NonNull final InputStream body, @NonNull final PaymentRequirementsFilter filter) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            return parse(parser, filter, false);
+        }
+    }
+
+    /**
+     * Parses a 402 body, keeping only the payment requirements matching a filter.
+     * The buffer is read from its position to its limit; its position is left unchanged.
+     *
+     * @param body   the 402 body
+     * @param filter the filter
+     * @return the payment required, with the matching payment requirements only
+     */
+    @SneakyThrows
+    public static PaymentRequired parse(@NonNull final ByteBuffer body, @NonNull final PaymentRequirementsFilter filter) {
+        try (JsonParser parser = createParser(body)) {
+            return parse(parser, filter, false);
+        }
+    }
+
+    /**
+     * Returns the first payment requirements of a 402 body matching a filter, without reading the rest of the body.
+     *
+     * @param body   the 402 body
+     * @param filter the filter
+     * @return the first matching payment requirements, if any
+     */
+    @SneakyThrows
+    public static Optional<PaymentRequirements> findFirst(@NonNull final InputStream body, @NonNull final PaymentRequirementsFilter filter) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            return parse(parser, filter, true).accepts().stream().findFirst();
+        }
+    }
+
+    /**
+     * Returns the first payment requirements of a 402 body matching a filter, without reading the rest of the body.
+     * The buffer is read from its position to its limit; its position is left unchanged.
+     *
+     * @param body   the 402 body
+     * @param filter the filter
+     * @return the first matching payment requirements, if any
+     */
+    @SneakyThrows
+    public static Optional<PaymentRequirements> findFirst(@NonNull final ByteBuffer body, @NonNull final PaymentRequirementsFilter filter) {
+        try (JsonParser parser = createParser(body)) {
+            return parse(parser, filter, true).accepts().stream().findFirst();
+        }
+    }
+
+    /**
+     * Creates a parser on a buffer, reading its backing array directly when it has one.
+     *
+     * @param body the buffer
+     * @return the parser
+     * @throws IOException if the parser can't be created
+     */
+    private static JsonParser createParser(final ByteBuffer body) throws IOException {
+        if (body.hasArray()) {
+            return JSON_FACTORY.createParser(body.array(), body.arrayOffset() + body.position(), body.remaining());
+        }
+        return JSON_FACTORY.createParser(new ByteBufferInputStream(body.duplicate()));
+    }
+
+    /**
+     * Parses a payment required object.
+     *
+     * @param parser     the parser
+     * @param filter     the filter
+     * @param firstMatch true to stop at the first matching payment requirements
+     * @return the payment required
+     * @throws IOException if the body is not a valid payment required
+     */
+    private static PaymentRequired parse(final JsonParser parser,
+                                         final PaymentRequirementsFilter filter,
+                                         final boolean firstMatch) throws IOException {
+        expect(parser.nextToken(), JsonToken.START_OBJECT, parser);
+        final PaymentRequired.PaymentRequiredBuilder builder = PaymentRequired.builder();
+        final List<PaymentRequirements> accepts = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            final JsonToken token = parser.nextToken();
+            switch (field) {
+                case X402_VERSION_FIELD -> builder.x402Version(parser.getValueAsInt());
+                case ERROR_FIELD -> builder.error(text(parser, token));
+                case ACCEPTS_FIELD -> {
+                    if (token == JsonToken.START_ARRAY) {
+                        JsonToken element;
+                        while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                            if (element == null) {
+                                throw new JsonParseException(parser, "Unexpected end of input in " + ACCEPTS_FIELD);
+                            }
+                            if (element != JsonToken.START_OBJECT) {
+                                // Not a payment requirements (null, number...): skipped like a non-matching one.
+                                parser.skipChildren();
+                                continue;
+                            }
+                            final PaymentRequirements paymentRequirements = parsePaymentRequirements(parser, filter);
+                            if (paymentRequirements != null) {
+                                accepts.add(paymentRequirements);
+                                if (firstMatch) {
+                                    return builder.accepts(accepts).build();
+                                }
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return builder.accepts(accepts).build();
+    }
+
+    /**
+     * Parses a payment requirements object, the parser being on its start.
+     *
+     * @param parser the parser
+     * @param filter the filter
+     * @return the payment requirements, or null if it doesn't match the filter (the object is then skipped)
+     * @throws IOException if the body is not a valid payment required
+     */
+    private static PaymentRequirements parsePaymentRequirements(final JsonParser parser,
+                                                                final PaymentRequirementsFilter filter) throws IOException {
+        final PaymentRequirements.PaymentRequirementsBuilder builder = PaymentRequirements.builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            final JsonToken token = parser.nextToken();
+            if (EXTRA_FIELD.equals(field)) {
+                builder.extra(parseExtra(parser, token));
+                continue;
+            }
+            if (token.isStructStart()) {
+                parser.skipChildren();
+                continue;
+            }
+            final String value = text(parser, token);
+            if (!filter.test(field, value)) {
+                skipRestOfObject(parser);
+                return null;
+            }
+            switch (field) {
+                case SCHEME_FIELD -> builder.scheme(value);
+                case NETWORK_FIELD -> builder.network(value);
+                case MAX_AMOUNT_REQUIRED_FIELD -> builder.maxAmountRequired(value);
+                case RESOURCE_FIELD -> builder.resource(value);
+                case DESCRIPTION_FIELD -> builder.description(value);
+                case MIME_TYPE_FIELD -> builder.mimeType(value);
+                case PAY_TO_FIELD -> builder.payTo(value);
+                case MAX_TIMEOUT_SECONDS_FIELD -> builder.maxTimeoutSeconds(parser.getValueAsInt());
+                case ASSET_FIELD -> builder.asset(value);
+                default -> {
+                    // Unknown field: ignored.
+                }
+            }
+        }
+        final PaymentRequirements paymentRequirements = builder.build();
+        // Criteria on fields absent from the body are only checked now.
+        return filter.test(paymentRequirements) ? paymentRequirements : null;
+    }
+
+    /**
+     * Parses the extra parameters of a payment requirements: nested values are skipped.
+     *
+     * @param parser the parser
+     * @param token  the current token
+     * @return the extra parameters
+     * @throws IOException if the body is not a valid payment required
+     */
+    private static Map<String, String> parseExtra(final JsonParser parser, final JsonToken token) throws IOException {
+        final Map<String, String> extra = new LinkedHashMap<>();
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return extra;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.currentName();
+            final JsonToken valueToken = parser.nextToken();
+            if (valueToken.isStructStart()) {
+                parser.skipChildren();
+            } else if (valueToken != JsonToken.VALUE_NULL) {
+                extra.put(name, parser.getText());
+            }
+        }
+        return extra;
+    }
+
+    /**
+     * Skips the remaining fields of the current object.
+     *
+     * @param parser the parser
+     * @throws IOException if the body is not valid JSON
+     */
+    private static void skipRestOfObject(final JsonParser parser) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_OBJECT && token != null) {
+            if (token.isStructStart()) {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Returns the text of a scalar value.
+     *
+     * @param parser the parser
+     * @param token  the current token
+     * @return the text, or null for a JSON null
+     * @throws IOException if the body is not valid JSON
+     */
+    private static String text(final JsonParser parser, final JsonToken token) throws IOException {
+        return token == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    /**
+     * Checks the current token.
+     *
+     * @param token    the current token
+     * @param expected the expected token
+     * @param parser   the parser
+     * @throws IOException if the token is not the expected one
+     */
+    private static void expect(final JsonToken token, final JsonToken expected, final JsonParser parser) throws IOException {
+        if (token != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but got " + token);
+        }
+    }
+
+    /**
+     * Input stream reading a byte buffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        /** Buffer read. */
+        private final ByteBuffer buffer;
+
+        /**
+         * Constructor.
+         *
+         * @param buffer the buffer to read
+         */
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? Byte.toUnsignedInt(buffer.get()) : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+package tech.mogami.java.client.parser;
+
+import lombok.Builder;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+
+import java.util.function.Predicate;
+
+/**
+ * Criteria on the scheme, network, asset and amount of a payment requirements.
+ * The {@link PaymentRequiredParser} checks each criterion as soon as its field is read, so that a payment
+ * requirements that doesn't match is skipped without reading its other fields.
+ *
+ * @param scheme    the scheme required, or null for any
+ * @param network   the network required, or null for any
+ * @param asset     the asset address required (case-insensitive), or null for any
+ * @param maxAmount the maximum amount required accepted, or null for any
+ */
+@Builder
+public record PaymentRequirementsFilter(
+        String scheme,
+        String network,
+        String asset,
+        Long maxAmount
+) implements Predicate<PaymentRequirements> {
+
+    /** Filter accepting any payment requirements. */
+    public static final PaymentRequirementsFilter ANY = new PaymentRequirementsFilter(null, null, null, null);
+
+    @Override
+    public boolean test(final PaymentRequirements paymentRequirements) {
+        return test(PaymentRequiredParser.SCHEME_FIELD, paymentRequirements.scheme())
+                && test(PaymentRequiredParser.NETWORK_FIELD, paymentRequirements.network())
+                && test(PaymentRequiredParser.ASSET_FIELD, paymentRequirements.asset())
+                && test(PaymentRequiredParser.MAX_AMOUNT_REQUIRED_FIELD, paymentRequirements.maxAmountRequired());
+    }
+
+    /**
+     * Checks the criterion on a field, if any.
+     *
+     * @param field the field name
+     * @param value the field value
+     * @return false if the field value doesn't match the criterion
+     */
+    boolean test(final String field, final String value) {
+        return switch (field) {
+            case PaymentRequiredParser.SCHEME_FIELD -> scheme == null || scheme.equals(value);
+            case PaymentRequiredParser.NETWORK_FIELD -> network == null || network.equals(value);
+            case PaymentRequiredParser.ASSET_FIELD -> asset == null || asset.equalsIgnoreCase(value);
+            case PaymentRequiredParser.MAX_AMOUNT_REQUIRED_FIELD -> maxAmount == null || isAtMost(value, maxAmount);
+            default -> true;
+        };
+    }
+
+    /**
+     * Returns true if an amount is at most a maximum.
+     *
+     * @param amount  the amount, as a string
+     * @param maximum the maximum
+     * @return true if the amount is valid and at most the maximum
+     */
+    private static boolean isAtMost(final String amount, final long maximum) {
+        try {
+            return amount != null && Long.parseLong(amount) <= maximum;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Streaming parsers of x402 bodies.
+ */
+package tech.mogami.java.client.parser;
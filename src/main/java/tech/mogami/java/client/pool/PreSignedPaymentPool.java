@@ -0,0 +1,431 @@
+package tech.mogami.java.client.pool;
+
+import lombok.Builder;
+import lombok.NonNull;
+import org.web3j.crypto.Credentials;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+import tech.mogami.java.client.budget.SpendLedger;
+import tech.mogami.java.client.budget.SpendReservation;
+import tech.mogami.java.client.helper.X402PaymentHelper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of pre-signed payment payloads.
+ * For each registered (network, asset, payTo, amount, wallet) tuple, payloads are built and signed in the background,
+ * so that {@link #take(Credentials, PaymentRequirements)} can hand out a ready-signed payload with a fresh nonce.
+ * A payload is never served once its remaining validity is shorter than the configured minimum, so tuples whose
+ * timeout is not longer than this minimum are never pooled. The number of tuples is bounded, and tuples not used for
+ * the idle timeout are dropped, so that the tuples seen in 402 responses can't grow the pool without end.
+ * With a {@link SpendLedger}, payments are checked against the spend limits when a payload is handed out, not when it
+ * is pre-signed: payloads left in the pool are never spent.
+ */
+@SuppressWarnings("unused")
+public final class PreSignedPaymentPool implements AutoCloseable {
+
+    /** Default number of signed payloads kept per tuple. */
+    public static final int DEFAULT_DEPTH = 16;
+
+    /** Default number of threads used to sign payloads. */
+    public static final int DEFAULT_REFILL_THREADS = 1;
+
+    /** Default minimum remaining validity for a payload to be served. */
+    public static final Duration DEFAULT_MIN_REMAINING_VALIDITY = Duration.ofSeconds(10);
+
+    /** Default interval between two sweeps (eviction of expiring payloads and idle tuples, and refill). */
+    public static final Duration DEFAULT_REFILL_INTERVAL = Duration.ofSeconds(1);
+
+    /** Default maximum number of tuples pooled. */
+    public static final int DEFAULT_MAX_TUPLES = 64;
+
+    /** Default time after which a tuple not used is dropped. */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    /** Number of signed payloads kept per tuple. */
+    private final int depth;
+
+    /** Minimum remaining validity, in seconds, for a payload to be served. */
+    private final long minRemainingValiditySeconds;
+
+    /** Maximum number of tuples pooled. */
+    private final int maxTuples;
+
+    /** Time, in nanoseconds, after which a tuple not used is dropped. */
+    private final long idleTimeoutNanos;
+
+    /** Executor signing payloads and running the periodic sweep. */
+    private final ScheduledExecutorService executor;
+
+    /** Optional ledger enforcing spend limits. */
+    private final SpendLedger spendLedger;
+
+    /** Pooled entries per tuple. */
+    private final Map<PoolKey, PoolEntries> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a pre-signed payment pool.
+     *
+     * @param depth                number of signed payloads kept per tuple
+     * @param refillThreads        number of threads used to sign payloads
+     * @param minRemainingValidity minimum remaining validity for a payload to be served
+     * @param refillInterval       interval between two sweeps
+     * @param maxTuples            maximum number of tuples pooled
+     * @param idleTimeout          time after which a tuple not used is dropped
+     * @param spendLedger          the ledger enforcing spend limits (no limit if null)
+     */
+    @Builder
+    private PreSignedPaymentPool(final Integer depth,
+                                 final Integer refillThreads,
+                                 final Duration minRemainingValidity,
+                                 final Duration refillInterval,
+                                 final Integer maxTuples,
+                                 final Duration idleTimeout,
+                                 final SpendLedger spendLedger) {
+        this.depth = Objects.requireNonNullElse(depth, DEFAULT_DEPTH);
+        this.minRemainingValiditySeconds = Objects.requireNonNullElse(minRemainingValidity, DEFAULT_MIN_REMAINING_VALIDITY).toSeconds();
+        if (this.depth <= 0) {
+            throw new IllegalArgumentException("Pool depth must be positive: " + this.depth);
+        }
+        this.maxTuples = Objects.requireNonNullElse(maxTuples, DEFAULT_MAX_TUPLES);
+        if (this.maxTuples <= 0) {
+            throw new IllegalArgumentException("Maximum number of tuples must be positive: " + this.maxTuples);
+        }
+        this.idleTimeoutNanos = Objects.requireNonNullElse(idleTimeout, DEFAULT_IDLE_TIMEOUT).toNanos();
+        this.spendLedger = spendLedger;
+        final int threads = Objects.requireNonNullElse(refillThreads, DEFAULT_REFILL_THREADS);
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Refill threads must be positive: " + threads);
+        }
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "x402-pre-signed-pool-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = Objects.requireNonNullElse(refillInterval, DEFAULT_REFILL_INTERVAL).toMillis();
+        this.executor.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a hot tuple: the pool starts signing payloads for it in the background.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements to pre-sign
+     * @throws IllegalArgumentException if the payloads of the tuple would expire too soon to ever be served
+     * @throws IllegalStateException    if the maximum number of tuples is reached
+     */
+    public void register(@NonNull final Credentials credentials, @NonNull final PaymentRequirements paymentRequirements) {
+        if (!isPoolable(paymentRequirements)) {
+            throw new IllegalArgumentException("Payment requirements timeout (" + paymentRequirements.maxTimeoutSeconds()
+                    + "s) must be longer than the minimum remaining validity (" + minRemainingValiditySeconds + "s)");
+        }
+        final PoolEntries poolEntries = entriesFor(credentials, paymentRequirements);
+        if (poolEntries == null) {
+            throw new IllegalStateException("Maximum number of pooled tuples reached: " + maxTuples);
+        }
+        poolEntries.scheduleRefill();
+    }
+
+    /**
+     * Returns a ready-signed payload for the tuple, if one with enough remaining validity is available.
+     * The tuple is registered if it was not already, so following calls will be served from the pool, unless its
+     * payloads would expire too soon to be served or the maximum number of tuples is reached.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements to pay
+     * @return a signed payment payload, or empty if none is ready
+     * @throws tech.mogami.java.client.budget.BudgetExceededException if the payment would exceed a spend limit
+     */
+    public Optional<PaymentPayload> take(@NonNull final Credentials credentials, @NonNull final PaymentRequirements paymentRequirements) {
+        if (spendLedger == null) {
+            return poll(credentials, paymentRequirements);
+        }
+        final SpendReservation reservation = spendLedger.reserve(credentials.getAddress(), paymentRequirements);
+        Optional<PaymentPayload> paymentPayload = Optional.empty();
+        try {
+            paymentPayload = poll(credentials, paymentRequirements);
+            return paymentPayload;
+        } finally {
+            if (paymentPayload.isPresent()) {
+                reservation.commit();
+            } else {
+                reservation.cancel();
+            }
+        }
+    }
+
+    /**
+     * Returns a ready-signed payload from the pool, or builds and signs one inline if the pool has none ready.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements to pay
+     * @return a signed payment payload
+     * @throws tech.mogami.java.client.budget.BudgetExceededException if the payment would exceed a spend limit
+     */
+    public PaymentPayload takeOrSign(@NonNull final Credentials credentials, @NonNull final PaymentRequirements paymentRequirements) {
+        if (spendLedger == null) {
+            return poll(credentials, paymentRequirements).orElseGet(() -> sign(credentials, paymentRequirements));
+        }
+        final SpendReservation reservation = spendLedger.reserve(credentials.getAddress(), paymentRequirements);
+        try {
+            final PaymentPayload paymentPayload = poll(credentials, paymentRequirements).orElseGet(() -> sign(credentials, paymentRequirements));
+            reservation.commit();
+            return paymentPayload;
+        } catch (RuntimeException e) {
+            reservation.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a ready-signed payload for the tuple, if one with enough remaining validity is available, registering
+     * the tuple if it was not already.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements to pay
+     * @return a signed payment payload, or empty if none is ready
+     */
+    private Optional<PaymentPayload> poll(final Credentials credentials, final PaymentRequirements paymentRequirements) {
+        if (!isPoolable(paymentRequirements)) {
+            return Optional.empty();
+        }
+        final PoolEntries poolEntries = entriesFor(credentials, paymentRequirements);
+        if (poolEntries == null) {
+            return Optional.empty();
+        }
+        final long now = Instant.now().getEpochSecond();
+        PooledPayload pooledPayload;
+        try {
+            while ((pooledPayload = poolEntries.payloads.poll()) != null) {
+                if (isServable(pooledPayload, now)) {
+                    return Optional.of(pooledPayload.payload());
+                }
+            }
+            return Optional.empty();
+        } finally {
+            poolEntries.scheduleRefill();
+        }
+    }
+
+    /**
+     * Returns the number of payloads currently pooled for a tuple (expiring ones included).
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements
+     * @return the number of pooled payloads
+     */
+    public int size(@NonNull final Credentials credentials, @NonNull final PaymentRequirements paymentRequirements) {
+        return Optional.ofNullable(entries.get(PoolKey.of(credentials, paymentRequirements)))
+                .map(poolEntries -> poolEntries.payloads.size())
+                .orElse(0);
+    }
+
+    /**
+     * Returns true if the payloads handed out are checked against the spend limits of a ledger.
+     *
+     * @return true if the pool has a spend ledger
+     */
+    public boolean hasSpendLedger() {
+        return spendLedger != null;
+    }
+
+    /**
+     * Returns the number of tuples pooled.
+     *
+     * @return the number of tuples
+     */
+    public int tupleCount() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        entries.clear();
+    }
+
+    /**
+     * Returns the entries of a tuple, creating them if needed and the maximum number of tuples is not reached.
+     * Concurrent creations may exceed the maximum by a few tuples.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements
+     * @return the entries of the tuple, or null if the maximum number of tuples is reached
+     */
+    private PoolEntries entriesFor(final Credentials credentials, final PaymentRequirements paymentRequirements) {
+        final PoolKey poolKey = PoolKey.of(credentials, paymentRequirements);
+        PoolEntries poolEntries = entries.get(poolKey);
+        if (poolEntries == null) {
+            if (entries.size() >= maxTuples) {
+                return null;
+            }
+            poolEntries = entries.computeIfAbsent(poolKey, key -> new PoolEntries(credentials, paymentRequirements));
+        }
+        poolEntries.lastUsed = System.nanoTime();
+        return poolEntries;
+    }
+
+    /**
+     * Drops idle tuples, evicts payloads that are too close to expiry and tops up every other tuple.
+     */
+    private void sweep() {
+        final long now = Instant.now().getEpochSecond();
+        final long nanoTime = System.nanoTime();
+        entries.entrySet().removeIf(entry -> nanoTime - entry.getValue().lastUsed > idleTimeoutNanos);
+        entries.values().forEach(poolEntries -> {
+            poolEntries.payloads.removeIf(pooledPayload -> !isServable(pooledPayload, now));
+            poolEntries.scheduleRefill();
+        });
+    }
+
+    /**
+     * Indicates if the payloads of payment requirements live long enough to be served after being pooled.
+     *
+     * @param paymentRequirements the payment requirements
+     * @return true if the payloads can be pooled
+     */
+    private boolean isPoolable(final PaymentRequirements paymentRequirements) {
+        return paymentRequirements.maxTimeoutSeconds() > minRemainingValiditySeconds;
+    }
+
+    /**
+     * Indicates if a pooled payload still has enough remaining validity to be served.
+     *
+     * @param pooledPayload the pooled payload
+     * @param now           the current epoch second
+     * @return true if the payload can be served
+     */
+    private boolean isServable(final PooledPayload pooledPayload, final long now) {
+        return pooledPayload.validBefore() - now >= minRemainingValiditySeconds;
+    }
+
+    /**
+     * Builds and signs a payload.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements
+     * @return the signed payload
+     */
+    private static PaymentPayload sign(final Credentials credentials, final PaymentRequirements paymentRequirements) {
+        return X402PaymentHelper.getSignedPayload(credentials,
+                paymentRequirements,
+                X402PaymentHelper.getPayloadFromPaymentRequirements(null, credentials.getAddress(), paymentRequirements));
+    }
+
+    /**
+     * Identifies a hot tuple.
+     *
+     * @param network the network
+     * @param asset   the asset contract address
+     * @param payTo   the recipient address
+     * @param amount  the amount
+     * @param from    the wallet address paying
+     * @param extra   the scheme extra parameters (EIP-712 domain name and version)
+     */
+    private record PoolKey(String network, String asset, String payTo, String amount, String from, Map<String, String> extra) {
+
+        /**
+         * Builds the key of a tuple.
+         *
+         * @param credentials         the credentials of the user making the payment
+         * @param paymentRequirements the payment requirements
+         * @return the key
+         */
+        static PoolKey of(final Credentials credentials, final PaymentRequirements paymentRequirements) {
+            return new PoolKey(paymentRequirements.network(),
+                    paymentRequirements.asset(),
+                    paymentRequirements.payTo(),
+                    paymentRequirements.maxAmountRequired(),
+                    credentials.getAddress(),
+                    paymentRequirements.extra());
+        }
+
+    }
+
+    /**
+     * A signed payload with its parsed expiry.
+     *
+     * @param payload     the signed payload
+     * @param validBefore the epoch second before which the authorization is valid
+     */
+    private record PooledPayload(PaymentPayload payload, long validBefore) {
+    }
+
+    /**
+     * Pooled payloads of a tuple.
+     */
+    private final class PoolEntries {
+
+        /** Credentials used to sign. */
+        private final Credentials credentials;
+
+        /** Requirements used to build payloads. */
+        private final PaymentRequirements paymentRequirements;
+
+        /** Signed payloads. */
+        private final BlockingQueue<PooledPayload> payloads = new ArrayBlockingQueue<>(depth);
+
+        /** True while a refill task is scheduled or running. */
+        private final AtomicBoolean refilling = new AtomicBoolean();
+
+        /** Last time the tuple was registered or taken from, in nanoseconds. */
+        private volatile long lastUsed = System.nanoTime();
+
+        /**
+         * Constructor.
+         *
+         * @param credentials         credentials used to sign
+         * @param paymentRequirements requirements used to build payloads
+         */
+        PoolEntries(final Credentials credentials, final PaymentRequirements paymentRequirements) {
+            this.credentials = credentials;
+            this.paymentRequirements = paymentRequirements;
+        }
+
+        /**
+         * Schedules a refill if the pool is not full and no refill is already pending.
+         */
+        void scheduleRefill() {
+            if (payloads.remainingCapacity() > 0 && !executor.isShutdown() && refilling.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::refill);
+                } catch (RuntimeException e) {
+                    refilling.set(false);
+                }
+            }
+        }
+
+        /**
+         * Signs payloads until the pool is full.
+         */
+        private void refill() {
+            try {
+                while (payloads.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                    PaymentPayload payload = sign(credentials, paymentRequirements);
+                    long validBefore = Long.parseLong(((ExactSchemePayload) payload.payload()).authorization().validBefore());
+                    if (!payloads.offer(new PooledPayload(payload, validBefore))) {
+                        break;
+                    }
+                }
+            } finally {
+                refilling.set(false);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Pool of pre-signed payment authorizations, used to take EIP-712 signing off the request path.
+ */
+package tech.mogami.java.client.pool;
@@ -0,0 +1,246 @@
+package tech.mogami.java.client.signature;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+import tech.mogami.commons.crypto.signature.EIP712Helper;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static tech.mogami.commons.constant.network.Networks.BASE;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_NAME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_VERSION;
+
+/**
+ * EIP-712 signer of exact scheme payloads (EIP-3009 TransferWithAuthorization).
+ * The domain separator only depends on the network, the asset contract and the "name"/"version" extra parameters:
+ * it is computed once and kept in a bounded cache, so that only the per-payment message struct is hashed on each call.
+ * Signatures are byte-identical to {@link EIP712Helper#sign}, which is still used for networks this signer doesn't know.
+ */
+@UtilityClass
+@SuppressWarnings({"HideUtilityClassConstructor", "unused"})
+public class CachedEIP712Signer {
+
+    /** Maximum number of domain separators kept in cache. */
+    public static final int DOMAIN_SEPARATOR_CACHE_MAX_SIZE = 1024;
+
+    /** Type hash of the EIP-712 domain. */
+    private static final byte[] EIP712_DOMAIN_TYPE_HASH = keccak("EIP712Domain(string name,string version,uint256 chainId,address verifyingContract)");
+
+    /** Type hash of the TransferWithAuthorization struct. */
+    private static final byte[] TRANSFER_WITH_AUTHORIZATION_TYPE_HASH = keccak(
+            "TransferWithAuthorization(address from,address to,uint256 value,uint256 validAfter,uint256 validBefore,bytes32 nonce)");
+
+    /** Chain ids of the networks signed here; other networks are left to {@link EIP712Helper}, as before. */
+    private static final Map<String, Long> CHAIN_IDS = Map.of(
+            BASE.name(), BASE.chainId(),
+            BASE_SEPOLIA.name(), BASE_SEPOLIA.chainId());
+
+    /** Size of an ABI encoded word. */
+    private static final int WORD_SIZE = 32;
+
+    /** Number of words in the encoded domain (type hash, name, version, chain id, contract). */
+    private static final int DOMAIN_WORDS = 5;
+
+    /** Number of words in the encoded message (type hash, from, to, value, validAfter, validBefore, nonce). */
+    private static final int MESSAGE_WORDS = 7;
+
+    /** EIP-191 prefix of typed data ("\x19\x01"). */
+    private static final byte[] TYPED_DATA_PREFIX = {0x19, 0x01};
+
+    /** Size of a signature (r, s and v). */
+    private static final int SIGNATURE_SIZE = 65;
+
+    /** Cached domain separators. */
+    private static final Map<DomainKey, byte[]> DOMAIN_SEPARATORS = new ConcurrentHashMap<>();
+
+    /**
+     * Signs a payment payload.
+     *
+     * @param credentials         the credentials of the user making the payment
+     * @param paymentRequirements the payment requirements (network, asset and domain parameters)
+     * @param paymentPayload      the payment payload to sign
+     * @return the signature, as an hexadecimal string
+     */
+    @SneakyThrows
+    public static String sign(@NonNull final Credentials credentials,
+                              @NonNull final PaymentRequirements paymentRequirements,
+                              @NonNull final PaymentPayload paymentPayload) {
+        Optional<byte[]> typedDataHash = getTypedDataHash(paymentRequirements, paymentPayload);
+        if (typedDataHash.isPresent()) {
+            return signHash(credentials.getEcKeyPair(), typedDataHash.get());
+        }
+        return EIP712Helper.sign(credentials, paymentRequirements, paymentPayload);
+    }
+
+    /**
+     * Computes the EIP-712 hash to sign for a payment payload.
+     *
+     * @param paymentRequirements the payment requirements (network, asset and domain parameters)
+     * @param paymentPayload      the payment payload
+     * @return the hash to sign, or empty if the network or the domain parameters are not supported
+     */
+    public static Optional<byte[]> getTypedDataHash(@NonNull final PaymentRequirements paymentRequirements,
+                                                    @NonNull final PaymentPayload paymentPayload) {
+        if (!(paymentPayload.payload() instanceof ExactSchemePayload exactSchemePayload)) {
+            return Optional.empty();
+        }
+        return getDomainSeparator(paymentRequirements)
+                .map(domainSeparator -> {
+                    byte[] typedData = new byte[TYPED_DATA_PREFIX.length + WORD_SIZE + WORD_SIZE];
+                    System.arraycopy(TYPED_DATA_PREFIX, 0, typedData, 0, TYPED_DATA_PREFIX.length);
+                    System.arraycopy(domainSeparator, 0, typedData, TYPED_DATA_PREFIX.length, WORD_SIZE);
+                    System.arraycopy(hashMessage(exactSchemePayload.authorization()), 0, typedData, TYPED_DATA_PREFIX.length + WORD_SIZE, WORD_SIZE);
+                    return Hash.sha3(typedData);
+                });
+    }
+
+    /**
+     * Signs an EIP-712 hash.
+     *
+     * @param keyPair the key pair of the user making the payment
+     * @param hash    the hash to sign
+     * @return the signature (r, s, v), as an hexadecimal string
+     */
+    public static String signHash(@NonNull final ECKeyPair keyPair, final byte @NonNull [] hash) {
+        Sign.SignatureData signatureData = Sign.signMessage(hash, keyPair, false);
+        byte[] signature = new byte[SIGNATURE_SIZE];
+        System.arraycopy(signatureData.getR(), 0, signature, 0, WORD_SIZE);
+        System.arraycopy(signatureData.getS(), 0, signature, WORD_SIZE, WORD_SIZE);
+        signature[SIGNATURE_SIZE - 1] = signatureData.getV()[0];
+        return Numeric.toHexString(signature);
+    }
+
+    /**
+     * Returns the domain separator of the payment requirements, from cache if possible.
+     *
+     * @param paymentRequirements the payment requirements
+     * @return the domain separator, or empty if the network or the domain parameters are not supported
+     */
+    private static Optional<byte[]> getDomainSeparator(final PaymentRequirements paymentRequirements) {
+        final Map<String, ?> extra = paymentRequirements.extra();
+        if (extra == null
+                || !(extra.get(EXACT_SCHEME_PARAMETER_NAME) instanceof String name)
+                || !(extra.get(EXACT_SCHEME_PARAMETER_VERSION) instanceof String version)
+                || paymentRequirements.asset() == null
+                || !CHAIN_IDS.containsKey(paymentRequirements.network())) {
+            return Optional.empty();
+        }
+        final DomainKey key = new DomainKey(paymentRequirements.network(), paymentRequirements.asset(), name, version);
+        byte[] domainSeparator = DOMAIN_SEPARATORS.get(key);
+        if (domainSeparator == null) {
+            domainSeparator = hashDomain(key);
+            if (DOMAIN_SEPARATORS.size() >= DOMAIN_SEPARATOR_CACHE_MAX_SIZE) {
+                Iterator<DomainKey> iterator = DOMAIN_SEPARATORS.keySet().iterator();
+                if (iterator.hasNext()) {
+                    DOMAIN_SEPARATORS.remove(iterator.next());
+                }
+            }
+            DOMAIN_SEPARATORS.put(key, domainSeparator);
+        }
+        return Optional.of(domainSeparator);
+    }
+
+    /**
+     * Computes a domain separator.
+     *
+     * @param key the domain parameters
+     * @return the domain separator
+     */
+    private static byte[] hashDomain(final DomainKey key) {
+        byte[] encoded = new byte[DOMAIN_WORDS * WORD_SIZE];
+        int offset = putWord(encoded, 0, EIP712_DOMAIN_TYPE_HASH);
+        offset = putWord(encoded, offset, keccak(key.name()));
+        offset = putWord(encoded, offset, keccak(key.version()));
+        offset = putWord(encoded, offset, Numeric.toBytesPadded(BigInteger.valueOf(CHAIN_IDS.get(key.network())), WORD_SIZE));
+        putAddress(encoded, offset, key.asset());
+        return Hash.sha3(encoded);
+    }
+
+    /**
+     * Computes the hash of the TransferWithAuthorization message.
+     *
+     * @param authorization the authorization
+     * @return the message hash
+     */
+    private static byte[] hashMessage(final ExactSchemePayload.Authorization authorization) {
+        byte[] encoded = new byte[MESSAGE_WORDS * WORD_SIZE];
+        int offset = putWord(encoded, 0, TRANSFER_WITH_AUTHORIZATION_TYPE_HASH);
+        offset = putAddress(encoded, offset, authorization.from());
+        offset = putAddress(encoded, offset, authorization.to());
+        offset = putWord(encoded, offset, Numeric.toBytesPadded(new BigInteger(authorization.value()), WORD_SIZE));
+        offset = putWord(encoded, offset, Numeric.toBytesPadded(new BigInteger(authorization.validAfter()), WORD_SIZE));
+        offset = putWord(encoded, offset, Numeric.toBytesPadded(new BigInteger(authorization.validBefore()), WORD_SIZE));
+        putWord(encoded, offset, Numeric.hexStringToByteArray(authorization.nonce()));
+        return Hash.sha3(encoded);
+    }
+
+    /**
+     * Writes a 32 bytes word.
+     *
+     * @param target the target array
+     * @param offset the offset in the target array
+     * @param word   the word
+     * @return the offset of the next word
+     */
+    private static int putWord(final byte[] target, final int offset, final byte[] word) {
+        if (word.length != WORD_SIZE) {
+            throw new IllegalArgumentException("Invalid EIP-712 word length: " + word.length);
+        }
+        System.arraycopy(word, 0, target, offset, WORD_SIZE);
+        return offset + WORD_SIZE;
+    }
+
+    /**
+     * Writes an address as a left-padded 32 bytes word.
+     *
+     * @param target  the target array
+     * @param offset  the offset in the target array
+     * @param address the hexadecimal address
+     * @return the offset of the next word
+     */
+    private static int putAddress(final byte[] target, final int offset, final String address) {
+        byte[] bytes = Numeric.hexStringToByteArray(address);
+        if (bytes.length > WORD_SIZE) {
+            throw new IllegalArgumentException("Invalid address: " + address);
+        }
+        System.arraycopy(bytes, 0, target, offset + WORD_SIZE - bytes.length, bytes.length);
+        return offset + WORD_SIZE;
+    }
+
+    /**
+     * Keccak-256 hash of a string.
+     *
+     * @param value the string
+     * @return the hash
+     */
+    private static byte[] keccak(final String value) {
+        return Hash.sha3(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Domain separator cache key.
+     *
+     * @param network the network
+     * @param asset   the asset contract address
+     * @param name    the EIP-712 domain name
+     * @param version the EIP-712 domain version
+     */
+    private record DomainKey(String network, String asset, String name, String version) {
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Client-side EIP-712 signing of payment payloads.
+ */
+package tech.mogami.java.client.signature;
@@ -0,0 +1,278 @@
+package tech.mogami.java.client.signer;
+
+import lombok.Builder;
+import lombok.NonNull;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.security.SignatureException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Signer coalescing concurrent sign requests into batches sent to an external signing process.
+ * A batch leaves when it reaches {@code maxBatchSize} hashes, or {@code maxDelay} after its first hash; batches are
+ * sent asynchronously, so several can be in flight. Under load, the number of round trips grows with the number of
+ * batches, not of signatures. Every signature returned is checked to recover the signing address: a signature that
+ * doesn't fails its hash with a {@link SignerException}, so a misbehaving signer can't produce unusable payments.
+ * Signatures with a recovery id of 0 or 1 are returned with 27 or 28, the only values the token contracts accept.
+ */
+@SuppressWarnings("unused")
+public final class BatchingSigner implements Signer, AutoCloseable {
+
+    /** Default maximum number of hashes per batch. */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    /** Default maximum time a hash waits for its batch to fill. */
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(1);
+
+    /** Size of a signature (r, s, v), in bytes. */
+    private static final int SIGNATURE_SIZE = 65;
+
+    /** Size of the r and s components of a signature, in bytes. */
+    private static final int SIGNATURE_COMPONENT_SIZE = 32;
+
+    /** Lowest recovery id (v) of an Ethereum signature; signers may also return it minus this offset. */
+    private static final int RECOVERY_ID_OFFSET = 27;
+
+    /** Transport to the signing process. */
+    private final SignerTransport transport;
+
+    /** Address of the wallet signing. */
+    private final String address;
+
+    /** Maximum number of hashes per batch. */
+    private final int maxBatchSize;
+
+    /** Maximum time a hash waits for its batch to fill, in nanoseconds. */
+    private final long maxDelayNanos;
+
+    /** Hashes waiting for a batch. */
+    private final Queue<PendingSignature> queue = new ConcurrentLinkedQueue<>();
+
+    /** Number of hashes waiting for a batch. */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /** Number of batches sent. */
+    private final LongAdder batches = new LongAdder();
+
+    /** Number of hashes sent. */
+    private final LongAdder signatures = new LongAdder();
+
+    /** Thread building and sending the batches. */
+    private final Thread dispatcher;
+
+    /** True once closed. */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Creates a batching signer and starts its dispatcher thread.
+     *
+     * @param transport    the transport to the signing process
+     * @param address      the address of the wallet signing
+     * @param maxBatchSize the maximum number of hashes per batch
+     * @param maxDelay     the maximum time a hash waits for its batch to fill
+     */
+    @Builder
+    private BatchingSigner(@NonNull final SignerTransport transport,
+                           @NonNull final String address,
+                           final Integer maxBatchSize,
+                           final Duration maxDelay) {
+        this.transport = transport;
+        this.address = address;
+        this.maxBatchSize = Objects.requireNonNullElse(maxBatchSize, DEFAULT_MAX_BATCH_SIZE);
+        if (this.maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Maximum batch size must be positive: " + this.maxBatchSize);
+        }
+        this.maxDelayNanos = Objects.requireNonNullElse(maxDelay, DEFAULT_MAX_DELAY).toNanos();
+        this.dispatcher = Thread.ofPlatform()
+                .name("x402-signer-dispatcher")
+                .daemon(true)
+                .start(this::dispatchLoop);
+    }
+
+    @Override
+    public String getAddress() {
+        return address;
+    }
+
+    @Override
+    public CompletableFuture<String> signHash(final byte @NonNull [] hash) {
+        if (closed.get()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Signer is closed"));
+        }
+        final PendingSignature pendingSignature = new PendingSignature(hash, new CompletableFuture<>());
+        queue.add(pendingSignature);
+        final int size = queued.incrementAndGet();
+        if (size == 1 || size >= maxBatchSize) {
+            LockSupport.unpark(dispatcher);
+        }
+        if (closed.get() && !dispatcher.isAlive()) {
+            // Closed while adding: no dispatcher will take the hash anymore.
+            failQueued();
+        }
+        return pendingSignature.future();
+    }
+
+    /**
+     * Returns the number of batches sent.
+     *
+     * @return the number of batches
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Returns the number of hashes sent.
+     *
+     * @return the number of hashes
+     */
+    public long getSignatureCount() {
+        return signatures.sum();
+    }
+
+    /**
+     * Sends the hashes waiting, then stops the dispatcher thread.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            LockSupport.unpark(dispatcher);
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            failQueued();
+        }
+    }
+
+    /**
+     * Builds and sends batches until closed.
+     */
+    private void dispatchLoop() {
+        while (true) {
+            if (queued.get() == 0) {
+                if (closed.get()) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+            // The first hash opens the batch: we wait for it to fill, at most the maximum delay.
+            final long deadline = System.nanoTime() + maxDelayNanos;
+            long remaining = maxDelayNanos;
+            while (queued.get() < maxBatchSize && !closed.get() && remaining > 0) {
+                LockSupport.parkNanos(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+            dispatch();
+        }
+    }
+
+    /**
+     * Sends one batch of the hashes waiting.
+     */
+    private void dispatch() {
+        final List<PendingSignature> batch = new ArrayList<>(Math.min(queued.get(), maxBatchSize));
+        PendingSignature pendingSignature;
+        while (batch.size() < maxBatchSize && (pendingSignature = queue.poll()) != null) {
+            batch.add(pendingSignature);
+        }
+        queued.addAndGet(-batch.size());
+        if (batch.isEmpty()) {
+            return;
+        }
+        batches.increment();
+        signatures.add(batch.size());
+
+        CompletableFuture<List<String>> result;
+        try {
+            result = transport.signBatch(address, batch.stream().map(PendingSignature::hash).toList());
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((batchSignatures, throwable) -> {
+            if (throwable != null) {
+                batch.forEach(pending -> pending.future().completeExceptionally(throwable));
+            } else if (batchSignatures == null || batchSignatures.size() != batch.size()) {
+                final SignerException exception = new SignerException("Signer returned "
+                        + (batchSignatures == null ? 0 : batchSignatures.size()) + " signatures for " + batch.size() + " hashes");
+                batch.forEach(pending -> pending.future().completeExceptionally(exception));
+            } else {
+                for (int i = 0; i < batch.size(); i++) {
+                    final PendingSignature pending = batch.get(i);
+                    final String signature = normalizeSignature(pending.hash(), batchSignatures.get(i));
+                    if (signature != null) {
+                        pending.future().complete(signature);
+                    } else {
+                        pending.future().completeExceptionally(new SignerException("Signer returned a signature not made by " + address));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks that a signature of a hash was made by the wallet of this signer, and sets its recovery id to 27 or 28.
+     *
+     * @param hash      the hash signed
+     * @param signature the signature (r, s, v), as an hexadecimal string
+     * @return the signature with a recovery id of 27 or 28, or null if it doesn't recover the address of the wallet
+     */
+    private String normalizeSignature(final byte[] hash, final String signature) {
+        if (signature == null) {
+            return null;
+        }
+        try {
+            final byte[] bytes = Numeric.hexStringToByteArray(signature);
+            if (bytes.length != SIGNATURE_SIZE) {
+                return null;
+            }
+            if (bytes[SIGNATURE_SIZE - 1] < RECOVERY_ID_OFFSET) {
+                bytes[SIGNATURE_SIZE - 1] += RECOVERY_ID_OFFSET;
+            }
+            final BigInteger publicKey = Sign.signedMessageHashToKey(hash, new Sign.SignatureData(
+                    bytes[SIGNATURE_SIZE - 1],
+                    Arrays.copyOfRange(bytes, 0, SIGNATURE_COMPONENT_SIZE),
+                    Arrays.copyOfRange(bytes, SIGNATURE_COMPONENT_SIZE, 2 * SIGNATURE_COMPONENT_SIZE)));
+            return Numeric.cleanHexPrefix(address).equalsIgnoreCase(Keys.getAddress(publicKey)) ? Numeric.toHexString(bytes) : null;
+        } catch (SignatureException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fails the hashes no dispatcher will send.
+     */
+    private void failQueued() {
+        PendingSignature pendingSignature;
+        while ((pendingSignature = queue.poll()) != null) {
+            queued.decrementAndGet();
+            pendingSignature.future().completeExceptionally(new IllegalStateException("Signer is closed"));
+        }
+    }
+
+    /**
+     * Hash waiting for its signature.
+     *
+     * @param hash   the hash to sign
+     * @param future the future of the signature
+     */
+    private record PendingSignature(byte[] hash, CompletableFuture<String> future) {
+    }
+
+}
@@ -0,0 +1,39 @@
+package tech.mogami.java.client.signer;
+
+import org.web3j.crypto.Credentials;
+import tech.mogami.java.client.signature.CachedEIP712Signer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Signer using credentials held in the JVM. Signing happens in the calling thread.
+ */
+final class CredentialsSigner implements Signer {
+
+    /** Credentials. */
+    private final Credentials credentials;
+
+    /**
+     * Constructor.
+     *
+     * @param credentials the credentials
+     */
+    CredentialsSigner(final Credentials credentials) {
+        this.credentials = credentials;
+    }
+
+    @Override
+    public String getAddress() {
+        return credentials.getAddress();
+    }
+
+    @Override
+    public CompletableFuture<String> signHash(final byte[] hash) {
+        try {
+            return CompletableFuture.completedFuture(CachedEIP712Signer.signHash(credentials.getEcKeyPair(), hash));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package tech.mogami.java.client.signer;
+
+import lombok.Builder;
+import lombok.NonNull;
+import org.web3j.utils.Numeric;
+import tech.mogami.commons.util.JsonUtil;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport posting batches of hashes as JSON to a signer endpoint, usually a daemon listening on localhost.
+ * The request body is a {@link SignBatchRequest}; the endpoint answers 200 with a {@link SignBatchResponse}.
+ */
+@SuppressWarnings("unused")
+public final class HttpSignerTransport implements SignerTransport {
+
+    /** Default timeout of a batch. */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    /** HTTP status code of a successful batch. */
+    private static final int OK_STATUS_CODE = 200;
+
+    /** HTTP client. */
+    private final HttpClient httpClient;
+
+    /** Signer endpoint. */
+    private final URI endpoint;
+
+    /** Timeout of a batch. */
+    private final Duration timeout;
+
+    /**
+     * Creates an HTTP signer transport.
+     *
+     * @param httpClient the HTTP client (a new one if null)
+     * @param endpoint   the signer endpoint
+     * @param timeout    the timeout of a batch
+     */
+    @Builder
+    private HttpSignerTransport(final HttpClient httpClient, @NonNull final URI endpoint, final Duration timeout) {
+        this.httpClient = Objects.requireNonNullElseGet(httpClient, HttpClient::newHttpClient);
+        this.endpoint = endpoint;
+        this.timeout = Objects.requireNonNullElse(timeout, DEFAULT_TIMEOUT);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> signBatch(@NonNull final String address, @NonNull final List<byte[]> hashes) {
+        final SignBatchRequest signBatchRequest = new SignBatchRequest(address, hashes.stream().map(Numeric::toHexString).toList());
+        final HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JsonUtil.toJson(signBatchRequest)))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() != OK_STATUS_CODE) {
+                        throw new SignerException("Signer endpoint answered " + response.statusCode() + ": " + response.body());
+                    }
+                    final SignBatchResponse signBatchResponse = JsonUtil.fromJson(response.body(), SignBatchResponse.class);
+                    if (signBatchResponse.error() != null) {
+                        throw new SignerException("Signer endpoint failed: " + signBatchResponse.error());
+                    }
+                    return signBatchResponse.signatures();
+                });
+    }
+
+}
@@ -0,0 +1,12 @@
+package tech.mogami.java.client.signer;
+
+import java.util.List;
+
+/**
+ * JSON body of a batch signing request sent to a signer endpoint.
+ *
+ * @param address the address of the wallet signing
+ * @param hashes  the hashes to sign, as 0x prefixed hexadecimal strings
+ */
+public record SignBatchRequest(String address, List<String> hashes) {
+}
@@ -0,0 +1,12 @@
+package tech.mogami.java.client.signer;
+
+import java.util.List;
+
+/**
+ * JSON body of the response of a signer endpoint.
+ *
+ * @param signatures the signatures (r, s, v), as 0x prefixed hexadecimal strings, in the order of the hashes
+ * @param error      the error, if the batch could not be signed
+ */
+public record SignBatchResponse(List<String> signatures, String error) {
+}
@@ -0,0 +1,40 @@
+package tech.mogami.java.client.signer;
+
+import lombok.NonNull;
+import org.web3j.crypto.Credentials;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Signs EIP-712 hashes on behalf of a wallet, without exposing its private key.
+ * Implementations may sign in process ({@link #of(Credentials)}) or delegate to an external signing process
+ * ({@link BatchingSigner}).
+ */
+public interface Signer {
+
+    /**
+     * Returns a signer using credentials held in the JVM.
+     *
+     * @param credentials the credentials
+     * @return the signer
+     */
+    static Signer of(@NonNull final Credentials credentials) {
+        return new CredentialsSigner(credentials);
+    }
+
+    /**
+     * Returns the address of the wallet signing.
+     *
+     * @return the address
+     */
+    String getAddress();
+
+    /**
+     * Signs an EIP-712 hash.
+     *
+     * @param hash the 32 bytes hash to sign
+     * @return a future of the signature (r, s, v), as an hexadecimal string
+     */
+    CompletableFuture<String> signHash(byte[] hash);
+
+}
@@ -0,0 +1,32 @@
+package tech.mogami.java.client.signer;
+
+import java.io.Serial;
+
+/**
+ * Raised when an external signing process fails to sign.
+ */
+public class SignerException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     *
+     * @param message the message
+     */
+    public SignerException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param message the message
+     * @param cause   the cause
+     */
+    public SignerException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
+}
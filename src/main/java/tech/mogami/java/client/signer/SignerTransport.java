@@ -0,0 +1,20 @@
+package tech.mogami.java.client.signer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends batches of hashes to an external signing process.
+ */
+public interface SignerTransport {
+
+    /**
+     * Signs a batch of hashes.
+     *
+     * @param address the address of the wallet signing
+     * @param hashes  the 32 bytes hashes to sign
+     * @return a future of the signatures (r, s, v), as hexadecimal strings, in the order of the hashes
+     */
+    CompletableFuture<List<String>> signBatch(String address, List<byte[]> hashes);
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Signers of EIP-712 hashes, in process or in an external signing process.
+ */
+package tech.mogami.java.client.signer;
@@ -0,0 +1,102 @@
+package tech.mogami.java.client.batch.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Credentials;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.java.client.batch.BatchPaymentResult;
+import tech.mogami.java.client.batch.BatchPaymentSigner;
+import tech.mogami.java.client.budget.BudgetExceededException;
+import tech.mogami.java.client.budget.SpendDimension;
+import tech.mogami.java.client.budget.SpendLedger;
+import tech.mogami.java.client.budget.SpendLimit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_NAME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_VERSION;
+import static tech.mogami.commons.test.BaseTestData.TEST_ASSET_CONTRACT_ADDRESS;
+import static tech.mogami.commons.test.BaseTestData.TEST_CLIENT_WALLET_ADDRESS_1_PRIVATE_KEY;
+import static tech.mogami.commons.test.BaseTestData.TEST_SERVER_WALLET_ADDRESS_1;
+
+@DisplayName("BatchPaymentSigner Tests")
+public class BatchPaymentSignerTest {
+
+    /** Credentials of the client. */
+    Credentials credentials = Credentials.create(TEST_CLIENT_WALLET_ADDRESS_1_PRIVATE_KEY);
+
+    /**
+     * Returns payment requirements.
+     *
+     * @param scheme the scheme
+     * @param amount the amount
+     * @return payment requirements
+     */
+    private PaymentRequirements paymentRequirements(final String scheme, final String amount) {
+        return PaymentRequirements.builder()
+                .scheme(scheme)
+                .network(BASE_SEPOLIA.name())
+                .maxAmountRequired(amount)
+                .resource("http://localhost/weather")
+                .payTo(TEST_SERVER_WALLET_ADDRESS_1)
+                .maxTimeoutSeconds(60)
+                .asset(TEST_ASSET_CONTRACT_ADDRESS)
+                .extra(EXACT_SCHEME_PARAMETER_NAME, "USDC")
+                .extra(EXACT_SCHEME_PARAMETER_VERSION, "2")
+                .build();
+    }
+
+    @Test
+    @DisplayName("sign() returns results in order with per-item failures")
+    public void sign() {
+        List<PaymentRequirements> paymentRequirements = IntStream.rangeClosed(1, 20)
+                .mapToObj(i -> paymentRequirements(i == 7 ? "upto" : EXACT_SCHEME.name(), Integer.toString(i)))
+                .toList();
+
+        for (BatchPaymentSigner signer : List.of(BatchPaymentSigner.virtualThreads(), BatchPaymentSigner.forkJoin())) {
+            try (signer) {
+                List<BatchPaymentResult> results = signer.sign(credentials, paymentRequirements);
+                assertThat(results).hasSize(20);
+                for (int i = 0; i < results.size(); i++) {
+                    BatchPaymentResult result = results.get(i);
+                    assertThat(result.paymentRequirements()).isSameAs(paymentRequirements.get(i));
+                    if (i == 6) {
+                        assertThat(result.isSuccess()).isFalse();
+                        assertThat(result.failure()).isInstanceOf(IllegalArgumentException.class);
+                        assertThat(result.getHeader()).isEmpty();
+                    } else {
+                        assertThat(result.isSuccess()).isTrue();
+                        assertThat(result.getHeader()).isPresent();
+                        assertThat(result.paymentPayload().network()).isEqualTo(BASE_SEPOLIA.name());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("sign() fails the items exceeding a spend limit")
+    public void signWithSpendLedger() {
+        var spendLedger = SpendLedger.builder()
+                .limits(List.of(SpendLimit.builder().dimension(SpendDimension.WALLET).maxAmount(25).window(Duration.ofHours(1)).build()))
+                .build();
+        List<PaymentRequirements> paymentRequirements = IntStream.range(0, 10)
+                .mapToObj(i -> paymentRequirements(EXACT_SCHEME.name(), "5"))
+                .toList();
+
+        try (var signer = BatchPaymentSigner.builder().spendLedger(spendLedger).build()) {
+            List<BatchPaymentResult> results = signer.sign(credentials, paymentRequirements);
+            assertThat(results).filteredOn(BatchPaymentResult::isSuccess).hasSize(5);
+            assertThat(results).filteredOn(result -> !result.isSuccess())
+                    .hasSize(5)
+                    .allSatisfy(result -> assertThat(result.failure()).isInstanceOf(BudgetExceededException.class));
+        }
+        assertThat(spendLedger.getTotal(SpendDimension.WALLET, credentials.getAddress(), TEST_ASSET_CONTRACT_ADDRESS)).isEqualTo(25);
+    }
+
+}
@@ -0,0 +1,210 @@
+package tech.mogami.java.client.budget.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.java.client.budget.BudgetExceededException;
+import tech.mogami.java.client.budget.SpendDimension;
+import tech.mogami.java.client.budget.SpendLedger;
+import tech.mogami.java.client.budget.SpendLimit;
+import tech.mogami.java.client.budget.SpendReservation;
+import tech.mogami.java.client.budget.SpendSnapshot;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+import static tech.mogami.commons.test.BaseTestData.TEST_ASSET_CONTRACT_ADDRESS;
+import static tech.mogami.commons.test.BaseTestData.TEST_CLIENT_WALLET_ADDRESS_1;
+import static tech.mogami.commons.test.BaseTestData.TEST_SERVER_WALLET_ADDRESS_1;
+
+@DisplayName("SpendLedger Tests")
+public class SpendLedgerTest {
+
+    /**
+     * Returns payment requirements for a resource.
+     *
+     * @param resource          the resource
+     * @param maxAmountRequired the amount
+     * @return payment requirements
+     */
+    private static PaymentRequirements paymentRequirements(final String resource, final String maxAmountRequired) {
+        return PaymentRequirements.builder()
+                .scheme(EXACT_SCHEME.name())
+                .network(BASE_SEPOLIA.name())
+                .maxAmountRequired(maxAmountRequired)
+                .resource(resource)
+                .payTo(TEST_SERVER_WALLET_ADDRESS_1)
+                .maxTimeoutSeconds(60)
+                .asset(TEST_ASSET_CONTRACT_ADDRESS)
+                .build();
+    }
+
+    @Test
+    @DisplayName("charge() rejects payments over a limit")
+    public void charge() {
+        var ledger = SpendLedger.builder()
+                .limits(List.of(
+                        SpendLimit.builder().dimension(SpendDimension.RESOURCE).maxAmount(2500).window(Duration.ofMinutes(1)).build(),
+                        SpendLimit.builder().dimension(SpendDimension.ASSET).key(TEST_ASSET_CONTRACT_ADDRESS.toUpperCase())
+                                .maxAmount(4000).window(Duration.ofMinutes(1)).build()))
+                .build();
+
+        // Each resource is capped separately at 2500.
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "1000"));
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "1000"));
+        assertThatThrownBy(() -> ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "1000")))
+                .isInstanceOfSatisfying(BudgetExceededException.class, exception -> {
+                    assertThat(exception.getLimit().dimension()).isEqualTo(SpendDimension.RESOURCE);
+                    assertThat(exception.getKey()).isEqualTo("http://localhost/weather");
+                    assertThat(exception.getAmount()).isEqualTo(1000);
+                });
+
+        // The asset is capped at 4000, whatever the case of the address.
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/news", "2000"));
+        assertThatThrownBy(() -> ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/sport", "1")))
+                .isInstanceOfSatisfying(BudgetExceededException.class,
+                        exception -> assertThat(exception.getLimit().dimension()).isEqualTo(SpendDimension.ASSET));
+
+        // A rejected payment reserves nothing.
+        assertThat(ledger.getTotal(SpendDimension.ASSET, TEST_ASSET_CONTRACT_ADDRESS, TEST_ASSET_CONTRACT_ADDRESS)).isEqualTo(4000);
+        assertThat(ledger.getTotal(SpendDimension.RESOURCE, "http://localhost/sport", TEST_ASSET_CONTRACT_ADDRESS)).isZero();
+        assertThat(ledger.getTotal(SpendDimension.WALLET, TEST_CLIENT_WALLET_ADDRESS_1, TEST_ASSET_CONTRACT_ADDRESS)).isEqualTo(4000);
+
+        assertThatThrownBy(() -> ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "abc")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("charge() never adds amounts of different assets")
+    public void chargeAssets() {
+        var otherAsset = "0x833589fCD6eDb6E08f4c7C32D4f71b54bdA02913";
+        var ledger = SpendLedger.builder()
+                .limits(List.of(
+                        SpendLimit.builder().dimension(SpendDimension.WALLET).maxAmount(1500).window(Duration.ofMinutes(1)).build(),
+                        SpendLimit.builder().dimension(SpendDimension.PAY_TO).asset(otherAsset.toUpperCase())
+                                .maxAmount(500).window(Duration.ofMinutes(1)).build()))
+                .build();
+
+        // The wallet limit caps each asset separately, the payTo limit only caps the other asset.
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "1000"));
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "500"));
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "500").toBuilder().asset(otherAsset).build());
+        assertThatThrownBy(() -> ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1,
+                paymentRequirements("http://localhost/weather", "1").toBuilder().asset(otherAsset).build()))
+                .isInstanceOfSatisfying(BudgetExceededException.class, exception -> {
+                    assertThat(exception.getLimit().dimension()).isEqualTo(SpendDimension.PAY_TO);
+                    assertThat(exception.getAsset()).isEqualTo(otherAsset.toLowerCase());
+                });
+        assertThatThrownBy(() -> ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "1")))
+                .isInstanceOfSatisfying(BudgetExceededException.class,
+                        exception -> assertThat(exception.getLimit().dimension()).isEqualTo(SpendDimension.WALLET));
+
+        assertThat(ledger.getTotal(SpendDimension.WALLET, TEST_CLIENT_WALLET_ADDRESS_1, TEST_ASSET_CONTRACT_ADDRESS)).isEqualTo(1500);
+        assertThat(ledger.getTotal(SpendDimension.WALLET, TEST_CLIENT_WALLET_ADDRESS_1, otherAsset)).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("charge() never overspends under contention")
+    public void chargeConcurrently() {
+        var ledger = SpendLedger.builder()
+                .limits(List.of(SpendLimit.builder().dimension(SpendDimension.WALLET).maxAmount(100_000).window(Duration.ofHours(1)).build()))
+                .build();
+        var accepted = new AtomicInteger();
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 8).forEach(thread -> executor.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    try {
+                        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "7"));
+                        accepted.incrementAndGet();
+                    } catch (BudgetExceededException e) {
+                        // Expected once the limit is reached.
+                    }
+                }
+            }));
+        }
+        // 100 000 / 7 = 14 285 payments fit in the limit.
+        assertThat(accepted.get()).isEqualTo(14_285);
+        assertThat(ledger.getTotal(SpendDimension.WALLET, TEST_CLIENT_WALLET_ADDRESS_1, TEST_ASSET_CONTRACT_ADDRESS)).isEqualTo(99_995);
+    }
+
+    @Test
+    @DisplayName("Amounts leave the limit when the window slides")
+    public void windowSlides() throws InterruptedException {
+        var ledger = SpendLedger.builder()
+                .limits(List.of(SpendLimit.builder().dimension(SpendDimension.PAY_TO).maxAmount(1000).window(Duration.ofMillis(200)).build()))
+                .build();
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "1000"));
+        assertThatThrownBy(() -> ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "1000")))
+                .isInstanceOf(BudgetExceededException.class);
+
+        Thread.sleep(300);
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "1000"));
+        assertThat(ledger.getTotal(SpendDimension.PAY_TO, TEST_SERVER_WALLET_ADDRESS_1, TEST_ASSET_CONTRACT_ADDRESS)).isEqualTo(2000);
+    }
+
+    @Test
+    @DisplayName("Cancelled reservations are released, snapshot() and export() report spend")
+    public void reservationAndSnapshot() {
+        var ledger = SpendLedger.builder()
+                .limits(List.of(SpendLimit.builder().dimension(SpendDimension.RESOURCE).maxAmount(1000).window(Duration.ofMinutes(1)).build()))
+                .build();
+        SpendReservation reservation = ledger.reserve(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "1000"));
+        assertThatThrownBy(() -> ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "1")))
+                .isInstanceOf(BudgetExceededException.class);
+        reservation.cancel();
+        // A cancelled reservation can't be committed anymore.
+        reservation.commit();
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "600"));
+
+        SpendSnapshot snapshot = ledger.snapshot();
+        var asset = TEST_ASSET_CONTRACT_ADDRESS.toLowerCase();
+        assertThat(snapshot.totals().get(asset).get(SpendDimension.RESOURCE)).containsEntry("http://localhost/weather", 600L);
+        assertThat(snapshot.totals().get(asset).get(SpendDimension.ASSET)).containsEntry(asset, 600L);
+        assertThat(snapshot.windows()).containsExactly(
+                new SpendSnapshot.WindowSpend(SpendDimension.RESOURCE, "http://localhost/weather", asset, 600, 1000, 60_000));
+        assertThat(ledger.export())
+                .contains("\"totals\":")
+                .contains("\"http://localhost/weather\":600");
+    }
+
+    @Test
+    @DisplayName("High-cardinality resources can't grow the totals or the window counters without end")
+    public void boundedKeys() throws InterruptedException {
+        var otherAsset = "0x833589fCD6eDb6E08f4c7C32D4f71b54bdA02913";
+        var asset = TEST_ASSET_CONTRACT_ADDRESS.toLowerCase();
+        var ledger = SpendLedger.builder()
+                .limits(List.of(SpendLimit.builder().dimension(SpendDimension.RESOURCE).maxAmount(1000).window(Duration.ofMillis(100)).build()))
+                .maxKeys(10)
+                .build();
+        IntStream.range(0, 50).forEach(i -> ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather/" + i, "100")));
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather", "100").toBuilder().asset(otherAsset).build());
+
+        // The asset, payTo and wallet totals, then 7 resources, fill the 10 totals: the other resources are unknown.
+        assertThat(ledger.snapshot().totals().get(asset).get(SpendDimension.RESOURCE))
+                .hasSize(8)
+                .containsEntry("http://localhost/weather/6", 100L)
+                .containsEntry(SpendLedger.UNKNOWN_KEY, 4300L);
+        assertThat(ledger.getTotal(SpendDimension.WALLET, TEST_CLIENT_WALLET_ADDRESS_1, TEST_ASSET_CONTRACT_ADDRESS)).isEqualTo(5000);
+        // The new asset can't be totalled apart.
+        assertThat(ledger.getTotal(SpendDimension.WALLET, TEST_CLIENT_WALLET_ADDRESS_1, otherAsset)).isZero();
+        assertThat(ledger.getTotal(SpendDimension.WALLET, SpendLedger.UNKNOWN_KEY, SpendLedger.UNKNOWN_KEY)).isEqualTo(100);
+        assertThat(ledger.snapshot().windows()).hasSize(51);
+
+        // Once their window is empty, the counters are dropped by the next sweep, and the limits still apply.
+        Thread.sleep(1200);
+        ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather/0", "1000"));
+        assertThat(ledger.snapshot().windows()).singleElement()
+                .extracting(SpendSnapshot.WindowSpend::key)
+                .isEqualTo("http://localhost/weather/0");
+        assertThatThrownBy(() -> ledger.charge(TEST_CLIENT_WALLET_ADDRESS_1, paymentRequirements("http://localhost/weather/0", "1")))
+                .isInstanceOf(BudgetExceededException.class);
+    }
+
+}
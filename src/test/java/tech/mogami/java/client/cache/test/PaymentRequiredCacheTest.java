@@ -0,0 +1,86 @@
+package tech.mogami.java.client.cache.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.mogami.commons.header.payment.PaymentRequired;
+import tech.mogami.java.client.cache.PaymentRequiredCache;
+import tech.mogami.java.client.helper.X402PaymentHelper;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PaymentRequiredCache Tests")
+public class PaymentRequiredCacheTest {
+
+    /** Weather resource. */
+    URI weather = URI.create("http://localhost/weather");
+
+    /** Payment required. */
+    PaymentRequired paymentRequired = X402PaymentHelper
+            .getPaymentRequiredFromBody("{\"x402Version\": 1, \"accepts\": [], \"error\": \"Payment required\"}")
+            .orElseThrow();
+
+    @Test
+    @DisplayName("get(), put() and invalidate()")
+    public void getPutInvalidate() {
+        var cache = PaymentRequiredCache.builder().build();
+
+        assertThat(cache.get("GET", weather)).isEmpty();
+        cache.put("GET", weather, paymentRequired);
+        assertThat(cache.get("GET", weather)).contains(paymentRequired);
+        assertThat(cache.get("POST", weather)).isEmpty();
+        cache.invalidate("GET", weather);
+        assertThat(cache.get("GET", weather)).isEmpty();
+
+        assertThat(cache.getStatistics()).satisfies(statistics -> {
+            assertThat(statistics.hits()).isEqualTo(1);
+            assertThat(statistics.misses()).isEqualTo(3);
+            assertThat(statistics.stale()).isZero();
+            assertThat(statistics.invalidations()).isEqualTo(1);
+            assertThat(statistics.size()).isZero();
+        });
+    }
+
+    @Test
+    @DisplayName("get() with an expired entry")
+    public void getExpired() throws InterruptedException {
+        var cache = PaymentRequiredCache.builder().timeToLive(Duration.ofMillis(10)).build();
+
+        cache.put("GET", weather, paymentRequired);
+        Thread.sleep(50);
+        assertThat(cache.get("GET", weather)).isEmpty();
+        assertThat(cache.getStatistics().stale()).isEqualTo(1);
+        assertThat(cache.getStatistics().size()).isZero();
+    }
+
+    @Test
+    @DisplayName("put() respects the maximum size")
+    public void putMaximumSize() {
+        var cache = PaymentRequiredCache.builder().maximumSize(10).build();
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("GET", URI.create("http://localhost/resource/" + i), paymentRequired);
+        }
+        assertThat(cache.getStatistics().size()).isEqualTo(10);
+        assertThat(cache.getStatistics().evictions()).isEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("put() sweeps the expired entries periodically")
+    public void putSweepsExpired() throws InterruptedException {
+        var cache = PaymentRequiredCache.builder().timeToLive(Duration.ofMillis(10)).maximumSize(1000).build();
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("GET", URI.create("http://localhost/resource/" + i), paymentRequired);
+        }
+        // Expired entries are kept until the next sweep, at most one second later.
+        Thread.sleep(1100);
+        cache.put("GET", weather, paymentRequired);
+        assertThat(cache.getStatistics().size()).isEqualTo(1);
+        assertThat(cache.getStatistics().evictions()).isZero();
+        assertThat(cache.getStatistics().stale()).isZero();
+    }
+
+}
@@ -0,0 +1,83 @@
+package tech.mogami.java.client.encoding.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+import tech.mogami.commons.util.Base64Util;
+import tech.mogami.commons.util.JsonUtil;
+import tech.mogami.commons.util.NonceUtil;
+import tech.mogami.java.client.encoding.PaymentPayloadHeaderEncoder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.constant.version.X402Versions.X402_SUPPORTED_VERSION_BY_MOGAMI;
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+
+@DisplayName("PaymentPayloadHeaderEncoder Tests")
+public class PaymentPayloadHeaderEncoderTest {
+
+    /** Expected header of the reference payload. */
+    String expectedXPaymentHeader = "eyJ4NDAyVmVyc2lvbiI6MSwic2NoZW1lIjoiZXhhY3QiLCJuZXR3b3JrIjoiYmFzZS1zZXBvbGlhIiwicGF5bG9hZCI6eyJzaWduYXR1cmUiOiIweGRkY2Y4N2JiYjg3ZTRmMDU5Zjg4M2Y2YzFlNzZlOTg0OWQzNzNlMDlhNzM0NTgwY2U5MmY1YTA2ODIxYTJiOTk1YzdkMGQ2NzhkODI0MDY4NjAxMWJhNTc0MWNiZjU5ZDMzM2UyYWQ2ZjI1NTk3MWUyYjI0ZWIxMDdhY2E3OWE3MWMiLCJhdXRob3JpemF0aW9uIjp7ImZyb20iOiIweDI5ODBiYzI0YkJGQjM0REUxQkJDOTE0NzlDYjcxMmZmYkNFMDJGNzMiLCJ0byI6IjB4NzU1M0Y2RkE0RmI2Mjk4NmI2NGY3OWFFRmExZkI5M2VhNjRBMjJiMSIsInZhbHVlIjoiMTAwMCIsInZhbGlkQWZ0ZXIiOiIxNzQ4NTU0NjI5IiwidmFsaWRCZWZvcmUiOiIxNzQ4NTU0NzQ5Iiwibm9uY2UiOiIweDE3NjgwNTgxMzQ4ZmRmZjllOWM5ZDc1MTI0ZDJmMjdkZjgwNTAyZWRmYzFlNTAyYzNiMTRhODk2MTVkY2VmNDYifX19";
+
+    /**
+     * Returns a payment payload.
+     *
+     * @param value the authorization value
+     * @param nonce the nonce
+     * @return the payment payload
+     */
+    private PaymentPayload paymentPayload(final String value, final String nonce) {
+        return PaymentPayload.builder()
+                .x402Version(X402_SUPPORTED_VERSION_BY_MOGAMI.version())
+                .scheme(EXACT_SCHEME.name())
+                .network(BASE_SEPOLIA.name())
+                .payload(ExactSchemePayload.builder()
+                        .signature("0xddcf87bbb87e4f059f883f6c1e76e9849d373e09a734580ce92f5a06821a2b995c7d0d678d8240686011ba5741cbf59d333e2ad6f255971e2b24eb107aca79a71c")
+                        .authorization(ExactSchemePayload.Authorization.builder()
+                                .from("0x2980bc24bBFB34DE1BBC91479Cb712ffbCE02F73")
+                                .to("0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1")
+                                .value(value)
+                                .validAfter("1748554629")
+                                .validBefore("1748554749")
+                                .nonce(nonce)
+                                .build())
+                        .build())
+                .build();
+    }
+
+    @Test
+    @DisplayName("encode() with the reference test vector")
+    public void encode() {
+        var paymentPayload = paymentPayload("1000", "0x17680581348fdff9e9c9d75124d2f27df80502edfc1e502c3b14a89615dcef46");
+
+        assertThat(PaymentPayloadHeaderEncoder.encode(paymentPayload)).isEqualTo(expectedXPaymentHeader);
+        assertThat(PaymentPayloadHeaderEncoder.encodeToBytes(paymentPayload))
+                .isEqualTo(expectedXPaymentHeader.getBytes(StandardCharsets.US_ASCII));
+
+        ByteBuffer target = ByteBuffer.allocate(1024);
+        int written = PaymentPayloadHeaderEncoder.encode(paymentPayload, target);
+        assertThat(new String(target.array(), 0, written, StandardCharsets.US_ASCII)).isEqualTo(expectedXPaymentHeader);
+    }
+
+    @Test
+    @DisplayName("encode() is identical to Base64Util.encode(JsonUtil.toJson())")
+    public void encodeIdenticalToJsonUtil() {
+        // Different lengths cover the three Base64 padding cases, and the special values cover escaping and fallback.
+        for (String value : new String[]{"1", "10", "100", "1000", "10000", "with \"quotes\" and \\", "tab\there\u0001", "café"}) {
+            var paymentPayload = paymentPayload(value, NonceUtil.generateNonce());
+            assertThat(PaymentPayloadHeaderEncoder.encode(paymentPayload))
+                    .isEqualTo(Base64Util.encode(JsonUtil.toJson(paymentPayload)));
+        }
+
+        // Unsigned payload.
+        var unsigned = paymentPayload("1000", NonceUtil.generateNonce()).toBuilder()
+                .payload(ExactSchemePayload.builder().build())
+                .build();
+        assertThat(PaymentPayloadHeaderEncoder.encode(unsigned)).isEqualTo(Base64Util.encode(JsonUtil.toJson(unsigned)));
+    }
+
+}
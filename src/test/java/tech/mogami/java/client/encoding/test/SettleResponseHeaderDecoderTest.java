@@ -0,0 +1,80 @@
+package tech.mogami.java.client.encoding.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.util.Base64Util;
+import tech.mogami.commons.util.JsonUtil;
+import tech.mogami.java.client.encoding.LazySettleResponse;
+import tech.mogami.java.client.encoding.SettleResponseHeaderDecoder;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SettleResponseHeaderDecoder Tests")
+public class SettleResponseHeaderDecoderTest {
+
+    /** X-PAYMENT-RESPONSE header of a successful settlement (unpadded). */
+    static final String SETTLE_RESPONSE_HEADER = "eyJzdWNjZXNzIjp0cnVlLCJuZXR3b3JrIjoiYmFzZS1zZXBvbGlhIiwidHJhbnNhY3Rpb24iOiIweDI5YWEzYzdhMDgyNzRlNmRmZjY2Yzc5YjFiMDg2ZDQzM2MyYWI5Yzg1MDUxZWNlZTAyNGIwNTMxYjIyOTQ0ZGUiLCJlcnJvclJlYXNvbiI6bnVsbCwicGF5ZXIiOiIweDI5ODBiYzI0YkJGQjM0REUxQkJDOTE0NzlDYjcxMmZmYkNFMDJGNzMifQ";
+
+    @Test
+    @DisplayName("decode() gives the same result as the JSON mapping")
+    public void decode() {
+        SettleResponse expected = JsonUtil.fromJson(Base64Util.decode(SETTLE_RESPONSE_HEADER), SettleResponse.class);
+        assertThat(expected.success()).isTrue();
+
+        assertThat(SettleResponseHeaderDecoder.decode(SETTLE_RESPONSE_HEADER)).isEqualTo(expected);
+        assertThat(SettleResponseHeaderDecoder.decode(SETTLE_RESPONSE_HEADER.getBytes(StandardCharsets.US_ASCII))).isEqualTo(expected);
+        assertThat(SettleResponseHeaderDecoder.decode(CharBuffer.wrap(SETTLE_RESPONSE_HEADER.toCharArray()))).isEqualTo(expected);
+        assertThat(SettleResponseHeaderDecoder.decode(SETTLE_RESPONSE_HEADER + "=")).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("decode() handles failures, escapes, unknown fields and both Base64 alphabets")
+    public void decodeVariants() {
+        String json = """
+                {
+                  "success" : false,
+                  "extensions": {"retry": [1, 2, {"after": "1s"}], "note": "a \\"quoted\\" }"},
+                  "errorReason": "insufficient_funds: \\u00e9t\\u00e9 \\\\ é / \\n",
+                  "network": "base-sepolia",
+                  "transaction": "",
+                  "amount": -1.5e3,
+                  "verified": true,
+                  "payer": null
+                }
+                """;
+        SettleResponse expected = JsonUtil.fromJson(json, SettleResponse.class);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        for (String header : new String[]{Base64.getEncoder().encodeToString(bytes), Base64.getUrlEncoder().withoutPadding().encodeToString(bytes)}) {
+            SettleResponse settleResponse = SettleResponseHeaderDecoder.decode(header);
+            assertThat(settleResponse).isEqualTo(expected);
+            assertThat(settleResponse.errorReason()).isEqualTo("insufficient_funds: été \\ é / \n");
+        }
+
+        assertThatThrownBy(() -> SettleResponseHeaderDecoder.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SettleResponseHeaderDecoder.decode(Base64.getEncoder().encodeToString("{\"success\":tru".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("decodeLazily() reads the other fields on demand")
+    public void decodeLazily() {
+        SettleResponse expected = SettleResponseHeaderDecoder.decode(SETTLE_RESPONSE_HEADER);
+
+        LazySettleResponse lazySettleResponse = SettleResponseHeaderDecoder.decodeLazily(SETTLE_RESPONSE_HEADER);
+        assertThat(lazySettleResponse.success()).isTrue();
+        assertThat(lazySettleResponse.transaction()).isEqualTo("0x29aa3c7a08274e6dff66c79b1b086d433c2ab9c85051ecee024b0531b22944de");
+        assertThat(lazySettleResponse.errorReason()).isNull();
+        assertThat(lazySettleResponse.payer()).isEqualTo("0x2980bc24bBFB34DE1BBC91479Cb712ffbCE02F73");
+        assertThat(lazySettleResponse.toSettleResponse()).isEqualTo(expected);
+        assertThat(SettleResponseHeaderDecoder.decodeLazily(SETTLE_RESPONSE_HEADER.getBytes(StandardCharsets.US_ASCII)).toSettleResponse())
+                .isEqualTo(expected);
+    }
+
+}
@@ -0,0 +1,51 @@
+package tech.mogami.java.client.http.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.mogami.commons.header.payment.PaymentRequired;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.java.client.http.PaymentRequirementsSelector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+
+@DisplayName("PaymentRequirementsSelector Tests")
+public class PaymentRequirementsSelectorTest {
+
+    /**
+     * Returns exact scheme payment requirements with the given amount.
+     *
+     * @param maxAmountRequired the amount
+     * @return the payment requirements
+     */
+    private PaymentRequirements paymentRequirements(final String maxAmountRequired) {
+        return PaymentRequirements.builder()
+                .scheme(EXACT_SCHEME.name())
+                .network(BASE_SEPOLIA.name())
+                .maxAmountRequired(maxAmountRequired)
+                .resource("http://localhost/weather")
+                .payTo("0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1")
+                .asset("0x036CbD53842c5426634e7929541eC2318f3dCF7e")
+                .build();
+    }
+
+    @Test
+    @DisplayName("cheapestExact() skips malformed amounts")
+    public void cheapestExactMalformedAmount() {
+        var paymentRequired = PaymentRequired.builder()
+                .accept(paymentRequirements("not-a-number"))
+                .accept(paymentRequirements("3000"))
+                .accept(paymentRequirements(null))
+                .accept(paymentRequirements("2000"))
+                .build();
+        assertThat(PaymentRequirementsSelector.cheapestExact().select(paymentRequired))
+                .get()
+                .extracting(PaymentRequirements::maxAmountRequired)
+                .isEqualTo("2000");
+
+        var malformedOnly = PaymentRequired.builder().accept(paymentRequirements("0x")).build();
+        assertThat(PaymentRequirementsSelector.cheapestExact().select(malformedOnly)).isEmpty();
+    }
+
+}
@@ -0,0 +1,336 @@
+package tech.mogami.java.client.http.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.web3j.crypto.Credentials;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+import tech.mogami.java.client.budget.BudgetExceededException;
+import tech.mogami.java.client.budget.SpendDimension;
+import tech.mogami.java.client.budget.SpendLedger;
+import tech.mogami.java.client.budget.SpendLimit;
+import tech.mogami.java.client.cache.PaymentRequiredCache;
+import tech.mogami.java.client.http.X402HttpClient;
+import tech.mogami.java.client.http.X402HttpResponse;
+import tech.mogami.java.client.http.X402PaymentException;
+import tech.mogami.java.client.journal.SettlementJournal;
+import tech.mogami.java.client.journal.SettlementRecord;
+import tech.mogami.java.client.pool.PreSignedPaymentPool;
+import tech.mogami.java.client.signer.Signer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.test.BaseTestData.TEST_ASSET_CONTRACT_ADDRESS;
+import static tech.mogami.commons.test.BaseTestData.TEST_CLIENT_WALLET_ADDRESS_1_PRIVATE_KEY;
+
+@DisplayName("X402HttpClient Tests")
+public class X402HttpClientTest {
+
+    /** Payment requirements returned by the weather resource. */
+    static final String WEATHER_PAYMENT_REQUIRED = """
+            {
+              "x402Version": 1,
+              "accepts": [
+                {
+                  "scheme": "exact",
+                  "network": "base-sepolia",
+                  "maxAmountRequired": "1000",
+                  "resource": "http://localhost/weather",
+                  "description": "",
+                  "mimeType": "",
+                  "payTo": "0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1",
+                  "maxTimeoutSeconds": 60,
+                  "asset": "0x036CbD53842c5426634e7929541eC2318f3dCF7e",
+                  "extra": {
+                    "name": "USDC",
+                    "version": "2"
+                  }
+                }
+              ],
+              "error": "X-PAYMENT header is required"
+            }
+            """;
+
+    /** Payment requirements no client can pay. */
+    static final String UNPAYABLE_PAYMENT_REQUIRED = """
+            {
+              "x402Version": 1,
+              "accepts": [
+                {
+                  "scheme": "upto",
+                  "network": "base-sepolia",
+                  "maxAmountRequired": "1000",
+                  "resource": "http://localhost/unpayable",
+                  "payTo": "0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1",
+                  "maxTimeoutSeconds": 60,
+                  "asset": "0x036CbD53842c5426634e7929541eC2318f3dCF7e",
+                  "extra": {}
+                }
+              ],
+              "error": "X-PAYMENT header is required"
+            }
+            """;
+
+    /** X-PAYMENT-RESPONSE header returned after payment. */
+    static final String SETTLE_RESPONSE_HEADER = "eyJzdWNjZXNzIjp0cnVlLCJuZXR3b3JrIjoiYmFzZS1zZXBvbGlhIiwidHJhbnNhY3Rpb24iOiIweDI5YWEzYzdhMDgyNzRlNmRmZjY2Yzc5YjFiMDg2ZDQzM2MyYWI5Yzg1MDUxZWNlZTAyNGIwNTMxYjIyOTQ0ZGUiLCJlcnJvclJlYXNvbiI6bnVsbCwicGF5ZXIiOiIweDI5ODBiYzI0YkJGQjM0REUxQkJDOTE0NzlDYjcxMmZmYkNFMDJGNzMifQ";
+
+    /** Credentials of the client. */
+    Credentials credentials = Credentials.create(TEST_CLIENT_WALLET_ADDRESS_1_PRIVATE_KEY);
+
+    /** Local resource server. */
+    HttpServer server;
+
+    /** Number of requests received by the weather resource. */
+    AtomicInteger weatherRequests = new AtomicInteger();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/free", exchange -> respond(exchange, 200, "free"));
+        server.createContext("/unpayable", exchange -> respond(exchange, 402, UNPAYABLE_PAYMENT_REQUIRED));
+        server.createContext("/garbled", exchange -> {
+            if (exchange.getRequestHeaders().getFirst(X402HttpClient.X_PAYMENT_HEADER) == null) {
+                respond(exchange, 402, WEATHER_PAYMENT_REQUIRED);
+            } else {
+                exchange.getResponseHeaders().add(X402HttpClient.X_PAYMENT_RESPONSE_HEADER, "%%% not a settle response %%%");
+                respond(exchange, 200, "sunny");
+            }
+        });
+        server.createContext("/weather", exchange -> {
+            weatherRequests.incrementAndGet();
+            String payment = exchange.getRequestHeaders().getFirst(X402HttpClient.X_PAYMENT_HEADER);
+            if (payment == null) {
+                respond(exchange, 402, WEATHER_PAYMENT_REQUIRED);
+            } else if (new String(Base64.getDecoder().decode(payment), StandardCharsets.UTF_8).contains("\"signature\":\"0x")) {
+                exchange.getResponseHeaders().add(X402HttpClient.X_PAYMENT_RESPONSE_HEADER, SETTLE_RESPONSE_HEADER);
+                respond(exchange, 200, "sunny");
+            } else {
+                respond(exchange, 402, WEATHER_PAYMENT_REQUIRED);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    /**
+     * Sends a response.
+     *
+     * @param exchange   the exchange
+     * @param statusCode the status code
+     * @param body       the body
+     * @throws IOException if the response can't be sent
+     */
+    private static void respond(final HttpExchange exchange, final int statusCode, final String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (var outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    /**
+     * Returns a GET request on the local server.
+     *
+     * @param path the path
+     * @return the request
+     */
+    private HttpRequest get(final String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getAddress().getPort() + path)).GET().build();
+    }
+
+    @Test
+    @DisplayName("sendAsync() on a resource without payment")
+    public void sendAsyncFree() throws Exception {
+        try (var client = X402HttpClient.builder().credentials(credentials).build()) {
+            X402HttpResponse<String> response = client.send(get("/free"), HttpResponse.BodyHandlers.ofString());
+            assertThat(response.response().statusCode()).isEqualTo(200);
+            assertThat(response.response().body()).isEqualTo("free");
+            assertThat(response.getPaymentPayload()).isEmpty();
+            assertThat(response.getSettleResponse()).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("sendAsync() pays and retries on 402")
+    public void sendAsyncPaid() {
+        try (var client = X402HttpClient.builder().credentials(credentials).maxConcurrentRequests(8).build()) {
+            List<CompletableFuture<X402HttpResponse<String>>> futures = IntStream.range(0, 50)
+                    .mapToObj(i -> client.sendAsync(get("/weather"), HttpResponse.BodyHandlers.ofString()))
+                    .toList();
+            futures.forEach(future -> assertThat(future.join()).satisfies(response -> {
+                assertThat(response.response().statusCode()).isEqualTo(200);
+                assertThat(response.response().body()).isEqualTo("sunny");
+                assertThat(response.getPaymentPayload()).isPresent().get()
+                        .satisfies(paymentPayload -> {
+                            assertThat(paymentPayload.network()).isEqualTo(BASE_SEPOLIA.name());
+                            assertThat(paymentPayload.payload()).isInstanceOfSatisfying(ExactSchemePayload.class,
+                                    exactSchemePayload -> assertThat(exactSchemePayload.authorization().from()).isEqualTo(credentials.getAddress()));
+                        });
+                assertThat(response.getSettleResponse()).isPresent().get()
+                        .satisfies(settleResponse -> {
+                            assertThat(settleResponse.success()).isTrue();
+                            assertThat(settleResponse.transaction()).isEqualTo("0x29aa3c7a08274e6dff66c79b1b086d433c2ab9c85051ecee024b0531b22944de");
+                        });
+            }));
+            // One 402 and one paid request per call.
+            assertThat(weatherRequests.get()).isEqualTo(100);
+        }
+    }
+
+    @Test
+    @DisplayName("sendAsync() pays on the first request with a payment required cache, and journals the settlements")
+    public void sendAsyncWithCache(@TempDir final Path journalDirectory) throws Exception {
+        var cache = PaymentRequiredCache.builder().build();
+        try (var journal = SettlementJournal.builder().directory(journalDirectory).build();
+             var client = X402HttpClient.builder().credentials(credentials).paymentRequiredCache(cache).settlementJournal(journal).build()) {
+            // First call: 402 then paid request.
+            assertThat(client.send(get("/weather"), HttpResponse.BodyHandlers.ofString()).response().body()).isEqualTo("sunny");
+            assertThat(weatherRequests.get()).isEqualTo(2);
+
+            // Following calls: paid on the first request.
+            for (int i = 0; i < 10; i++) {
+                X402HttpResponse<String> response = client.send(get("/weather"), HttpResponse.BodyHandlers.ofString());
+                assertThat(response.response().body()).isEqualTo("sunny");
+                assertThat(response.getPaymentPayload()).isPresent();
+                assertThat(response.getSettleResponse()).isPresent();
+            }
+            assertThat(weatherRequests.get()).isEqualTo(12);
+            assertThat(cache.getStatistics().hits()).isEqualTo(10);
+            assertThat(cache.getStatistics().misses()).isEqualTo(1);
+            assertThat(cache.getStatistics().invalidations()).isZero();
+        }
+        assertThat(SettlementJournal.read(journalDirectory).stream().toList())
+                .hasSize(11)
+                .allSatisfy(settlementRecord -> {
+                    assertThat(settlementRecord.success()).isTrue();
+                    assertThat(settlementRecord.payer()).isEqualTo("0x2980bc24bBFB34DE1BBC91479Cb712ffbCE02F73");
+                    assertThat(settlementRecord.amount()).isEqualTo("1000");
+                    assertThat(settlementRecord.resource()).endsWith("/weather");
+                })
+                .extracting(SettlementRecord::nonce)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("send() returns the paid response when the X-PAYMENT-RESPONSE header can't be decoded")
+    public void sendWithGarbledSettleResponse(@TempDir final Path journalDirectory) throws Exception {
+        try (var journal = SettlementJournal.builder().directory(journalDirectory).build();
+             var client = X402HttpClient.builder().credentials(credentials).settlementJournal(journal).build()) {
+            X402HttpResponse<String> response = client.send(get("/garbled"), HttpResponse.BodyHandlers.ofString());
+            assertThat(response.response().statusCode()).isEqualTo(200);
+            assertThat(response.response().body()).isEqualTo("sunny");
+            assertThat(response.getPaymentPayload()).isPresent();
+            assertThat(response.getSettleResponse()).isEmpty();
+            assertThat(client.getSettleResponseFailureCount()).isEqualTo(1);
+            assertThat(client.getJournalFailureCount()).isZero();
+        }
+        assertThat(SettlementJournal.read(journalDirectory)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("send() returns the paid response when the settlement can't be journaled")
+    public void sendWithJournalFailure(@TempDir final Path journalDirectory) throws Exception {
+        var journal = SettlementJournal.builder().directory(journalDirectory).build();
+        journal.close();
+        try (var client = X402HttpClient.builder().credentials(credentials).settlementJournal(journal).build()) {
+            X402HttpResponse<String> response = client.send(get("/weather"), HttpResponse.BodyHandlers.ofString());
+            assertThat(response.response().body()).isEqualTo("sunny");
+            assertThat(response.getSettleResponse()).isPresent();
+            assertThat(client.getJournalFailureCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("sendAsync() pays with a signer instead of credentials")
+    public void sendAsyncWithSigner() throws Exception {
+        try (var client = X402HttpClient.builder().signer(Signer.of(credentials)).build()) {
+            X402HttpResponse<String> response = client.send(get("/weather"), HttpResponse.BodyHandlers.ofString());
+            assertThat(response.response().body()).isEqualTo("sunny");
+            assertThat(response.getPaymentPayload()).isPresent();
+        }
+        assertThatThrownBy(() -> X402HttpClient.builder().build()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("sendAsync() fails when no payment requirements is acceptable")
+    public void sendAsyncUnpayable() {
+        try (var client = X402HttpClient.builder().credentials(credentials).build()) {
+            assertThatThrownBy(() -> client.sendAsync(get("/unpayable"), HttpResponse.BodyHandlers.ofString()).join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
+                    .isInstanceOfSatisfying(X402PaymentException.class, exception ->
+                            assertThat(exception.getPaymentRequired().accepts()).hasSize(1));
+        }
+    }
+
+    @Test
+    @DisplayName("sendAsync() fails when the payment would exceed a spend limit")
+    public void sendAsyncOverBudget() throws Exception {
+        var spendLedger = SpendLedger.builder()
+                .limits(List.of(SpendLimit.builder().dimension(SpendDimension.RESOURCE).maxAmount(2000).window(Duration.ofHours(1)).build()))
+                .build();
+        try (var client = X402HttpClient.builder().credentials(credentials).spendLedger(spendLedger).build()) {
+            client.send(get("/weather"), HttpResponse.BodyHandlers.ofString());
+            client.send(get("/weather"), HttpResponse.BodyHandlers.ofString());
+            assertThatThrownBy(() -> client.sendAsync(get("/weather"), HttpResponse.BodyHandlers.ofString()).join())
+                    .isInstanceOf(CompletionException.class)
+                    .cause()
+                    .isInstanceOf(BudgetExceededException.class);
+            // The third call got its 402 but was never paid.
+            assertThat(weatherRequests.get()).isEqualTo(5);
+
+            // send() throws the exception itself rather than a CompletionException.
+            assertThatThrownBy(() -> client.send(get("/weather"), HttpResponse.BodyHandlers.ofString()))
+                    .isInstanceOf(BudgetExceededException.class);
+            assertThat(weatherRequests.get()).isEqualTo(6);
+            assertThat(spendLedger.getTotal(SpendDimension.WALLET, credentials.getAddress(), TEST_ASSET_CONTRACT_ADDRESS)).isEqualTo(2000);
+        }
+    }
+
+    @Test
+    @DisplayName("A spend ledger enforced by the pre-signed payment pool counts each payment once")
+    public void sendWithPoolSpendLedger() throws Exception {
+        var spendLedger = SpendLedger.builder()
+                .limits(List.of(SpendLimit.builder().dimension(SpendDimension.RESOURCE).maxAmount(2000).window(Duration.ofHours(1)).build()))
+                .build();
+        try (var pool = PreSignedPaymentPool.builder().spendLedger(spendLedger).build()) {
+            assertThatThrownBy(() -> X402HttpClient.builder().credentials(credentials).preSignedPaymentPool(pool).spendLedger(spendLedger).build())
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            try (var client = X402HttpClient.builder().credentials(credentials).preSignedPaymentPool(pool).build()) {
+                client.send(get("/weather"), HttpResponse.BodyHandlers.ofString());
+                client.send(get("/weather"), HttpResponse.BodyHandlers.ofString());
+                assertThat(spendLedger.getTotal(SpendDimension.WALLET, credentials.getAddress(), TEST_ASSET_CONTRACT_ADDRESS)).isEqualTo(2000);
+                assertThatThrownBy(() -> client.send(get("/weather"), HttpResponse.BodyHandlers.ofString()))
+                        .isInstanceOf(BudgetExceededException.class);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+package tech.mogami.java.client.instrumentation.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Credentials;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.java.client.helper.X402PaymentHelper;
+import tech.mogami.java.client.instrumentation.ConcurrentHistogram;
+import tech.mogami.java.client.instrumentation.HistogramPaymentInstrumentation;
+import tech.mogami.java.client.instrumentation.HistogramSnapshot;
+import tech.mogami.java.client.instrumentation.PaymentInstrumentation;
+import tech.mogami.java.client.instrumentation.PaymentInstrumentations;
+import tech.mogami.java.client.instrumentation.PaymentPhase;
+import tech.mogami.java.client.instrumentation.PaymentTags;
+import tech.mogami.java.client.instrumentation.PhaseStatistics;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static tech.mogami.commons.test.BaseTestData.TEST_CLIENT_WALLET_ADDRESS_1_PRIVATE_KEY;
+
+@DisplayName("PaymentInstrumentation Tests")
+public class PaymentInstrumentationTest {
+
+    /** Payment required body. */
+    static final String PAYMENT_REQUIRED_BODY = """
+            {
+              "x402Version": 1,
+              "accepts": [
+                {
+                  "scheme": "exact",
+                  "network": "base-sepolia",
+                  "maxAmountRequired": "1000",
+                  "resource": "http://localhost/weather",
+                  "payTo": "0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1",
+                  "maxTimeoutSeconds": 60,
+                  "asset": "0x036CbD53842c5426634e7929541eC2318f3dCF7e",
+                  "extra": {
+                    "name": "USDC",
+                    "version": "2"
+                  }
+                }
+              ],
+              "error": "X-PAYMENT header is required"
+            }
+            """;
+
+    /** X-PAYMENT-RESPONSE header. */
+    static final String SETTLE_RESPONSE_HEADER = "eyJzdWNjZXNzIjp0cnVlLCJuZXR3b3JrIjoiYmFzZS1zZXBvbGlhIiwidHJhbnNhY3Rpb24iOiIweDI5YWEzYzdhMDgyNzRlNmRmZjY2Yzc5YjFiMDg2ZDQzM2MyYWI5Yzg1MDUxZWNlZTAyNGIwNTMxYjIyOTQ0ZGUiLCJlcnJvclJlYXNvbiI6bnVsbCwicGF5ZXIiOiIweDI5ODBiYzI0YkJGQjM0REUxQkJDOTE0NzlDYjcxMmZmYkNFMDJGNzMifQ";
+
+    /** Credentials of the client. */
+    Credentials credentials = Credentials.create(TEST_CLIENT_WALLET_ADDRESS_1_PRIVATE_KEY);
+
+    @AfterEach
+    public void resetInstrumentation() {
+        PaymentInstrumentations.reset();
+    }
+
+    @Test
+    @DisplayName("ConcurrentHistogram reports percentiles within its precision")
+    public void histogram() {
+        var histogram = new ConcurrentHistogram();
+        assertThat(histogram.snapshot().getValueAtPercentile(99)).isZero();
+
+        LongStream.rangeClosed(1, 100_000).forEach(histogram::record);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(100_000);
+        assertThat(snapshot.getMin()).isEqualTo(1);
+        assertThat(snapshot.getMax()).isEqualTo(100_000);
+        assertThat(snapshot.getMean()).isCloseTo(50_000.5, within(0.001));
+        assertThat((double) snapshot.getMedian()).isCloseTo(50_000, within(50_000 * 0.016));
+        assertThat((double) snapshot.getValueAtPercentile(99)).isCloseTo(99_000, within(99_000 * 0.016));
+        assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(100_000);
+        assertThatThrownBy(() -> snapshot.getValueAtPercentile(101)).isInstanceOf(IllegalArgumentException.class);
+
+        // Small values are exact, extreme values are supported.
+        var exact = new ConcurrentHistogram();
+        exact.record(42);
+        exact.record(Long.MAX_VALUE);
+        assertThat(exact.snapshot().getMedian()).isEqualTo(42);
+        assertThat(exact.snapshot().getValueAtPercentile(100)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("X402PaymentHelper operations are measured per phase")
+    public void helperPhases() {
+        assertThat(PaymentInstrumentations.get().isEnabled()).isFalse();
+        var instrumentation = new HistogramPaymentInstrumentation();
+        PaymentInstrumentations.set(instrumentation);
+
+        for (int i = 0; i < 10; i++) {
+            PaymentRequirements paymentRequirements = X402PaymentHelper.getPaymentRequiredFromBody(PAYMENT_REQUIRED_BODY)
+                    .orElseThrow()
+                    .accepts()
+                    .getFirst();
+            PaymentPayload paymentPayload = X402PaymentHelper.getSignedPayload(credentials,
+                    paymentRequirements,
+                    X402PaymentHelper.getPayloadFromPaymentRequirements(null, credentials.getAddress(), paymentRequirements));
+            X402PaymentHelper.getPayloadHeader(paymentPayload);
+            X402PaymentHelper.getSettleResponseFromHeader(SETTLE_RESPONSE_HEADER);
+        }
+        assertThatThrownBy(() -> X402PaymentHelper.getPaymentRequiredFromBody("{not json")).isInstanceOf(Exception.class);
+
+        Map<PaymentPhase, PhaseStatistics> statistics = instrumentation.getStatistics().stream()
+                .filter(phaseStatistics -> phaseStatistics.successes() > 0)
+                .collect(Collectors.toMap(PhaseStatistics::phase, Function.identity()));
+        assertThat(statistics).containsOnlyKeys(PaymentPhase.values());
+        statistics.values().forEach(phaseStatistics -> {
+            assertThat(phaseStatistics.successes()).isEqualTo(10);
+            assertThat(phaseStatistics.latency().getCount()).isEqualTo(10);
+            assertThat(phaseStatistics.latency().getMax()).isPositive();
+        });
+
+        PaymentTags requirementsTags = new PaymentTags("exact", "base-sepolia", "0x036CbD53842c5426634e7929541eC2318f3dCF7e");
+        assertThat(statistics.get(PaymentPhase.PARSE_PAYMENT_REQUIRED).tags()).isEqualTo(requirementsTags);
+        assertThat(statistics.get(PaymentPhase.PARSE_PAYMENT_REQUIRED).payloadSize().getMax()).isEqualTo(PAYMENT_REQUIRED_BODY.length());
+        assertThat(statistics.get(PaymentPhase.SIGN_PAYLOAD).tags()).isEqualTo(requirementsTags);
+        assertThat(statistics.get(PaymentPhase.SIGN_PAYLOAD).payloadSize().getCount()).isZero();
+        assertThat(statistics.get(PaymentPhase.ENCODE_HEADER).tags()).isEqualTo(new PaymentTags("exact", "base-sepolia", null));
+        assertThat(statistics.get(PaymentPhase.ENCODE_HEADER).payloadSize().getMin()).isPositive();
+        assertThat(statistics.get(PaymentPhase.DECODE_SETTLE_RESPONSE).payloadSize().getMax()).isEqualTo(SETTLE_RESPONSE_HEADER.length());
+
+        // The parsing failure is recorded with its cause, without tags.
+        assertThat(instrumentation.getStatistics())
+                .filteredOn(phaseStatistics -> phaseStatistics.tags().equals(PaymentTags.UNKNOWN))
+                .singleElement()
+                .satisfies(phaseStatistics -> {
+                    assertThat(phaseStatistics.phase()).isEqualTo(PaymentPhase.PARSE_PAYMENT_REQUIRED);
+                    assertThat(phaseStatistics.getFailureCount()).isEqualTo(1);
+                    assertThat(phaseStatistics.failures()).hasSize(1);
+                });
+
+        instrumentation.reset();
+        assertThat(instrumentation.getStatistics()).isEmpty();
+        assertThat(PaymentInstrumentation.noop().isEnabled()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Instrumentation exceptions never fail a payment")
+    public void failingInstrumentation() {
+        PaymentInstrumentations.set(new PaymentInstrumentation() {
+            @Override
+            public void onSuccess(final PaymentPhase phase, final PaymentTags tags, final long durationNanos, final int payloadSize) {
+                throw new IllegalStateException("onSuccess");
+            }
+
+            @Override
+            public void onFailure(final PaymentPhase phase, final PaymentTags tags, final long durationNanos, final Throwable cause) {
+                throw new IllegalStateException("onFailure");
+            }
+        });
+        long errors = PaymentInstrumentations.getInstrumentationErrors();
+
+        PaymentRequirements paymentRequirements = X402PaymentHelper.getPaymentRequiredFromBody(PAYMENT_REQUIRED_BODY)
+                .orElseThrow()
+                .accepts()
+                .getFirst();
+        PaymentPayload paymentPayload = X402PaymentHelper.getSignedPayload(credentials,
+                paymentRequirements,
+                X402PaymentHelper.getPayloadFromPaymentRequirements(null, credentials.getAddress(), paymentRequirements));
+        assertThat(X402PaymentHelper.getPayloadHeader(paymentPayload)).isNotEmpty();
+        assertThat(X402PaymentHelper.getSettleResponseFromHeader(SETTLE_RESPONSE_HEADER)).isPresent();
+        // The original failure is thrown, not the instrumentation one.
+        assertThatThrownBy(() -> X402PaymentHelper.getPaymentRequiredFromBody("{not json"))
+                .isNotInstanceOf(IllegalStateException.class);
+
+        assertThat(PaymentInstrumentations.getInstrumentationErrors() - errors).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("HistogramPaymentInstrumentation caps the number of keys")
+    public void histogramMaxKeys() {
+        var instrumentation = new HistogramPaymentInstrumentation(2);
+        for (int i = 0; i < 10; i++) {
+            instrumentation.onSuccess(PaymentPhase.SIGN_PAYLOAD, new PaymentTags("exact", "network-" + i, null), 1000, PaymentInstrumentation.NO_PAYLOAD_SIZE);
+        }
+        instrumentation.onFailure(PaymentPhase.SIGN_PAYLOAD, new PaymentTags("exact", "network-0", null), 1000, new IllegalStateException());
+
+        assertThat(instrumentation.getStatistics())
+                .hasSize(3)
+                .filteredOn(phaseStatistics -> phaseStatistics.tags().equals(PaymentTags.UNKNOWN))
+                .singleElement()
+                .satisfies(phaseStatistics -> assertThat(phaseStatistics.successes()).isEqualTo(8));
+        assertThatThrownBy(() -> new HistogramPaymentInstrumentation(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -0,0 +1,211 @@
+package tech.mogami.java.client.journal.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.mogami.commons.api.facilitator.settle.SettleResponse;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+import tech.mogami.java.client.journal.SettlementJournal;
+import tech.mogami.java.client.journal.SettlementRecord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SettlementJournal Tests")
+public class SettlementJournalTest {
+
+    @Test
+    @DisplayName("Concurrent appends are all read back, across segment rotations")
+    public void concurrentAppends(@TempDir final Path directory) throws IOException {
+        try (var journal = SettlementJournal.builder().directory(directory).segmentSize(SettlementJournal.MIN_SEGMENT_SIZE).build()) {
+            try (var executor = Executors.newFixedThreadPool(8)) {
+                IntStream.range(0, 8).forEach(thread -> executor.execute(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        journal.append(settlementRecord(thread + "-" + i));
+                    }
+                }));
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+
+        List<SettlementRecord> settlementRecords = SettlementJournal.read(directory).stream().toList();
+        assertThat(settlementRecords).hasSize(8000)
+                .allSatisfy(settlementRecord -> assertThat(settlementRecord.payTo()).isEqualTo("0x209693Bc6afc0C5328bA36FaF03C514EF312287C"));
+        // The records of each thread are read in the order the thread appended them.
+        Map<String, Integer> lastByThread = new HashMap<>();
+        settlementRecords.forEach(settlementRecord -> {
+            String[] threadAndIndex = settlementRecord.nonce().split("-");
+            int index = Integer.parseInt(threadAndIndex[1]);
+            assertThat(lastByThread.put(threadAndIndex[0], index)).isEqualTo(index == 0 ? null : index - 1);
+        });
+    }
+
+    @Test
+    @DisplayName("Reopening the journal discards a torn record and appends after the last valid one")
+    public void recovery(@TempDir final Path directory) throws IOException {
+        try (var journal = SettlementJournal.builder().directory(directory).segmentSize(SettlementJournal.MIN_SEGMENT_SIZE).build()) {
+            IntStream.range(0, 10).forEach(i -> journal.append(settlementRecord("before-" + i)));
+        }
+
+        // Simulates a crash in the middle of a write: a frame length and garbage after the last record.
+        Path segment = firstSegment(directory);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int end = (int) (channel.size() - 1);
+            while (content.get(end) == 0) {
+                end--;
+            }
+            end = (end + Long.BYTES) & -Long.BYTES;
+            channel.write(ByteBuffer.allocate(16).putInt(100).putInt(42).putLong(-1).flip(), end);
+        }
+        assertThat(SettlementJournal.read(directory)).hasSize(10);
+
+        try (var journal = SettlementJournal.builder().directory(directory).segmentSize(SettlementJournal.MIN_SEGMENT_SIZE).build()) {
+            journal.append(settlementRecord("after"));
+            journal.flush();
+        }
+        assertThat(SettlementJournal.read(directory).stream().map(SettlementRecord::nonce))
+                .hasSize(11)
+                .startsWith("before-0")
+                .endsWith("before-9", "after");
+    }
+
+    @Test
+    @DisplayName("Reopening the journal skips a torn record and keeps the records written after it")
+    public void recoveryTornRecordInTheMiddle(@TempDir final Path directory) throws IOException {
+        try (var journal = SettlementJournal.builder().directory(directory).segmentSize(SettlementJournal.MIN_SEGMENT_SIZE).build()) {
+            IntStream.range(0, 10).forEach(i -> journal.append(settlementRecord("before-" + i)));
+        }
+
+        // Simulates a crash while writing the fifth record, after the following ones were written: its last byte is lost.
+        try (FileChannel channel = FileChannel.open(firstSegment(directory), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer content = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int offset = 2 * Integer.BYTES;
+            for (int i = 0; i < 4; i++) {
+                offset += (2 * Integer.BYTES + content.getInt(offset) + Long.BYTES - 1) & -Long.BYTES;
+            }
+            int last = offset + 2 * Integer.BYTES + content.getInt(offset) - 1;
+            content.put(last, (byte) ~content.get(last));
+        }
+        assertThat(SettlementJournal.read(directory)).hasSize(9);
+
+        try (var journal = SettlementJournal.builder().directory(directory).segmentSize(SettlementJournal.MIN_SEGMENT_SIZE).build()) {
+            journal.append(settlementRecord("after"));
+        }
+        assertThat(SettlementJournal.read(directory).stream().map(SettlementRecord::nonce))
+                .containsExactly("before-0", "before-1", "before-2", "before-3",
+                        "before-5", "before-6", "before-7", "before-8", "before-9", "after");
+    }
+
+    @Test
+    @DisplayName("A journal directory can't be opened twice")
+    public void directoryLocked(@TempDir final Path directory) {
+        try (var journal = SettlementJournal.builder().directory(directory).segmentSize(SettlementJournal.MIN_SEGMENT_SIZE).build()) {
+            assertThatThrownBy(() -> SettlementJournal.builder().directory(directory).segmentSize(SettlementJournal.MIN_SEGMENT_SIZE).build())
+                    .isInstanceOf(IllegalStateException.class);
+            journal.append(settlementRecord("locked"));
+        }
+
+        // Closing the journal releases the directory.
+        try (var journal = SettlementJournal.builder().directory(directory).segmentSize(SettlementJournal.MIN_SEGMENT_SIZE).build()) {
+            journal.append(settlementRecord("reopened"));
+        }
+        assertThat(SettlementJournal.read(directory).stream().map(SettlementRecord::nonce)).containsExactly("locked", "reopened");
+    }
+
+    @Test
+    @DisplayName("SettlementRecord.of() keeps the payment and its settlement")
+    public void settlementRecordOf(@TempDir final Path directory) {
+        PaymentPayload paymentPayload = PaymentPayload.builder()
+                .x402Version(1)
+                .scheme("exact")
+                .network("base-sepolia")
+                .payload(ExactSchemePayload.builder()
+                        .signature("0x01")
+                        .authorization(ExactSchemePayload.Authorization.builder()
+                                .from("0x2980bc24bBFB34DE1BBC91479Cb712ffbCE02F73")
+                                .to("0x209693Bc6afc0C5328bA36FaF03C514EF312287C")
+                                .value("10000")
+                                .validAfter("1748534647")
+                                .validBefore("1748534767")
+                                .nonce("0x02")
+                                .build())
+                        .build())
+                .build();
+        SettleResponse settleResponse = SettleResponse.builder()
+                .success(false)
+                .network("base-sepolia")
+                .errorReason("insufficient_funds — été")
+                .build();
+
+        try (var journal = SettlementJournal.builder().directory(directory).segmentSize(SettlementJournal.MIN_SEGMENT_SIZE).build()) {
+            journal.append("https://example.com/weather", paymentPayload, settleResponse);
+            assertThatThrownBy(() -> journal.append(settlementRecord("x".repeat(SettlementJournal.MIN_SEGMENT_SIZE))))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        assertThat(SettlementJournal.read(directory)).singleElement().satisfies(settlementRecord -> {
+            assertThat(settlementRecord.recordedAt()).isPositive();
+            assertThat(settlementRecord.success()).isFalse();
+            assertThat(settlementRecord.scheme()).isEqualTo("exact");
+            assertThat(settlementRecord.transaction()).isNull();
+            assertThat(settlementRecord.payer()).isEqualTo("0x2980bc24bBFB34DE1BBC91479Cb712ffbCE02F73");
+            assertThat(settlementRecord.amount()).isEqualTo("10000");
+            assertThat(settlementRecord.validBefore()).isEqualTo("1748534767");
+            assertThat(settlementRecord.resource()).isEqualTo("https://example.com/weather");
+            assertThat(settlementRecord.errorReason()).isEqualTo("insufficient_funds — été");
+        });
+    }
+
+    /**
+     * Returns the first segment file of a journal.
+     *
+     * @param directory the journal directory
+     * @return the segment path
+     */
+    private static Path firstSegment(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".journal")).sorted().findFirst().orElseThrow();
+        }
+    }
+
+    /**
+     * Returns a settlement record.
+     *
+     * @param nonce the authorization nonce
+     * @return the settlement record
+     */
+    private static SettlementRecord settlementRecord(final String nonce) {
+        return SettlementRecord.builder()
+                .recordedAt(System.currentTimeMillis())
+                .success(true)
+                .scheme("exact")
+                .network("base-sepolia")
+                .transaction("0x29aa3c7a08274e6dff66c79b1b086d433c2ab9c85051ecee024b0531b22944de")
+                .payer("0x2980bc24bBFB34DE1BBC91479Cb712ffbCE02F73")
+                .payTo("0x209693Bc6afc0C5328bA36FaF03C514EF312287C")
+                .amount("10000")
+                .nonce(nonce)
+                .validAfter("1748534647")
+                .validBefore("1748534767")
+                .resource("https://example.com/weather")
+                .build();
+    }
+
+}
@@ -0,0 +1,85 @@
+package tech.mogami.java.client.nonce.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.mogami.java.client.nonce.DuplicateNonceDetector;
+import tech.mogami.java.client.nonce.NonceProvider;
+import tech.mogami.java.client.nonce.RingBufferNonceProvider;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tech.mogami.commons.constant.BlockchainConstants.BLOCKCHAIN_ADDRESS_PREFIX;
+
+@DisplayName("NonceProvider Tests")
+public class NonceProviderTest {
+
+    /** Length of a 0x prefixed 32 bytes nonce. */
+    static final int NONCE_LENGTH = 66;
+
+    @Test
+    @DisplayName("threadLocal() generates unique 32 bytes nonces")
+    public void threadLocal() {
+        assertUniqueNonces(NonceProvider.threadLocal());
+    }
+
+    @Test
+    @DisplayName("threadLocal() generates unique 32 bytes nonces on virtual threads")
+    public void threadLocalVirtualThreads() {
+        Set<String> nonces = ConcurrentHashMap.newKeySet();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 8000).forEach(i -> executor.execute(() -> nonces.add(NonceProvider.threadLocal().nextNonce())));
+        }
+        assertThat(nonces).hasSize(8000).allSatisfy(nonce -> assertThat(nonce).hasSize(NONCE_LENGTH));
+    }
+
+    @Test
+    @DisplayName("RingBufferNonceProvider generates unique 32 bytes nonces")
+    public void ringBuffer() {
+        try (var provider = RingBufferNonceProvider.builder().capacity(256).refillInterval(Duration.ofMillis(1)).build()) {
+            assertThat(provider.available()).isEqualTo(256);
+            // More nonces than the ring capacity, consumed concurrently.
+            assertUniqueNonces(provider);
+        }
+    }
+
+    @Test
+    @DisplayName("withDuplicateDetection() replaces duplicates")
+    public void withDuplicateDetection() {
+        Iterator<String> nonces = List.of("0x01", "0x01", "0x02", "0x01", "0x03").iterator();
+        DuplicateNonceDetector provider = NonceProvider.withDuplicateDetection(nonces::next, Duration.ofMinutes(1));
+
+        assertThat(provider.nextNonce()).isEqualTo("0x01");
+        assertThat(provider.nextNonce()).isEqualTo("0x02");
+        assertThat(provider.nextNonce()).isEqualTo("0x03");
+        assertThat(provider.getDuplicates()).isEqualTo(2);
+    }
+
+    /**
+     * Checks that a provider generates unique well-formed nonces when used concurrently.
+     *
+     * @param provider the nonce provider
+     */
+    private static void assertUniqueNonces(final NonceProvider provider) {
+        Set<String> nonces = ConcurrentHashMap.newKeySet();
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 8).forEach(thread -> executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    nonces.add(provider.nextNonce());
+                }
+            }));
+        }
+        assertThat(nonces).hasSize(8000)
+                .allSatisfy(nonce -> {
+                    assertThat(nonce).startsWith(BLOCKCHAIN_ADDRESS_PREFIX);
+                    assertThat(nonce).hasSize(NONCE_LENGTH);
+                });
+    }
+
+}
@@ -0,0 +1,152 @@
+package tech.mogami.java.client.parser.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.mogami.commons.header.payment.PaymentRequired;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.java.client.helper.X402PaymentHelper;
+import tech.mogami.java.client.parser.PaymentRequiredParser;
+import tech.mogami.java.client.parser.PaymentRequirementsFilter;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PaymentRequiredParser Tests")
+public class PaymentRequiredParserTest {
+
+    /** Payment requirements on base-sepolia. */
+    static final String BASE_SEPOLIA_REQUIREMENTS = """
+            {
+              "scheme": "exact",
+              "network": "base-sepolia",
+              "maxAmountRequired": "1000",
+              "resource": "http://localhost/weather",
+              "description": "Weather",
+              "mimeType": "application/json",
+              "payTo": "0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1",
+              "maxTimeoutSeconds": 60,
+              "asset": "0x036CbD53842c5426634e7929541eC2318f3dCF7e",
+              "outputSchema": {"input": {"type": "http"}},
+              "extra": {
+                "name": "USDC",
+                "version": "2"
+              }
+            }""";
+
+    /**
+     * Returns payment requirements on another network, with the extra parameters first.
+     *
+     * @param index the index of the network
+     * @return the JSON payment requirements
+     */
+    private static String otherRequirements(final int index) {
+        return """
+                {
+                  "extra": {"name": "Token %1$d", "version": "1"},
+                  "scheme": "%2$s",
+                  "network": "network-%1$d",
+                  "maxAmountRequired": "%1$d000",
+                  "resource": "http://localhost/weather",
+                  "payTo": "0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1",
+                  "maxTimeoutSeconds": 60,
+                  "asset": "0x00000000000000000000000000000000000000%1$02d"
+                }""".formatted(index, index % 2 == 0 ? "exact" : "upto");
+    }
+
+    /**
+     * Returns a 402 body with many payment requirements, the base-sepolia one in the middle.
+     *
+     * @param trailer text appended after the base-sepolia payment requirements
+     * @return the 402 body
+     */
+    private static String body(final String trailer) {
+        return """
+                {
+                  "x402Version": 1,
+                  "error": "X-PAYMENT header is required",
+                  "accepts": [%s, %s%s
+                """.formatted(
+                IntStream.range(0, 40).mapToObj(PaymentRequiredParserTest::otherRequirements).collect(Collectors.joining(", ")),
+                BASE_SEPOLIA_REQUIREMENTS,
+                trailer);
+    }
+
+    @Test
+    @DisplayName("parse() keeps the matching payment requirements only")
+    public void parse() {
+        String body = body(", " + otherRequirements(41) + "]}");
+        PaymentRequired expected = X402PaymentHelper.getPaymentRequiredFromBody(body).orElseThrow();
+
+        // Without filter, the result is the one of the JSON mapping.
+        PaymentRequired all = PaymentRequiredParser.parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), PaymentRequirementsFilter.ANY);
+        assertThat(all.x402Version()).isEqualTo(1);
+        assertThat(all.error()).isEqualTo("X-PAYMENT header is required");
+        assertThat(all.accepts()).hasSize(42);
+        assertThat(all.accepts().get(40)).isEqualTo(expected.accepts().get(40));
+        assertThat(all.accepts().get(3).extra()).containsEntry("name", "Token 3");
+
+        // Filter on the exact scheme and an amount.
+        var filter = PaymentRequirementsFilter.builder().scheme("exact").maxAmount(9_999L).build();
+        PaymentRequired filtered = PaymentRequiredParser.parse(ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8)), filter);
+        assertThat(filtered.accepts())
+                .extracting(PaymentRequirements::network)
+                .containsExactly("network-0", "network-2", "network-4", "network-6", "network-8", "base-sepolia");
+        assertThat(filtered.accepts()).allMatch(filter);
+    }
+
+    @Test
+    @DisplayName("findFirst() stops reading at the first match")
+    public void findFirst() {
+        // Everything after the base-sepolia payment requirements is invalid: it must not be read.
+        String body = body(", this is not JSON");
+        var filter = PaymentRequirementsFilter.builder()
+                .network("base-sepolia")
+                .asset("0x036cbd53842c5426634e7929541ec2318f3dcf7e")
+                .build();
+        PaymentRequirements expected = X402PaymentHelper.getPaymentRequiredFromBody(body(", " + otherRequirements(41) + "]}"))
+                .orElseThrow()
+                .accepts()
+                .get(40);
+
+        assertThat(PaymentRequiredParser.findFirst(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), filter))
+                .contains(expected);
+        ByteBuffer direct = ByteBuffer.allocateDirect(body.length()).put(body.getBytes(StandardCharsets.UTF_8)).flip();
+        assertThat(PaymentRequiredParser.findFirst(direct, filter)).contains(expected);
+        assertThat(direct.position()).isZero();
+
+        assertThatThrownBy(() -> PaymentRequiredParser.parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), filter))
+                .isInstanceOf(Exception.class);
+        assertThat(PaymentRequiredParser.findFirst(ByteBuffer.wrap(body(", " + otherRequirements(41) + "]}").getBytes(StandardCharsets.UTF_8)),
+                PaymentRequirementsFilter.builder().network("unknown").build()))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("parse() skips the accepts elements that are not objects")
+    public void parseNonObjectElements() {
+        String body = """
+                {
+                  "accepts": [null, 42, "text", [%1$s], %2$s, {}, true, %3$s],
+                  "x402Version": 1
+                }
+                """.formatted(otherRequirements(1), BASE_SEPOLIA_REQUIREMENTS, otherRequirements(2));
+
+        PaymentRequired paymentRequired = PaymentRequiredParser.parse(ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8)),
+                PaymentRequirementsFilter.ANY);
+        assertThat(paymentRequired.x402Version()).isEqualTo(1);
+        assertThat(paymentRequired.accepts())
+                .extracting(PaymentRequirements::network)
+                .containsExactly("base-sepolia", null, "network-2");
+
+        assertThatThrownBy(() -> PaymentRequiredParser.parse(ByteBuffer.wrap("{\"accepts\": [null, ".getBytes(StandardCharsets.UTF_8)),
+                PaymentRequirementsFilter.ANY))
+                .isInstanceOf(Exception.class);
+    }
+
+}
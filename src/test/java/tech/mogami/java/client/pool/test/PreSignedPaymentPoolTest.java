@@ -0,0 +1,149 @@
+package tech.mogami.java.client.pool.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Credentials;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+import tech.mogami.java.client.budget.BudgetExceededException;
+import tech.mogami.java.client.budget.SpendDimension;
+import tech.mogami.java.client.budget.SpendLedger;
+import tech.mogami.java.client.budget.SpendLimit;
+import tech.mogami.java.client.pool.PreSignedPaymentPool;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_NAME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_VERSION;
+import static tech.mogami.commons.test.BaseTestData.TEST_ASSET_CONTRACT_ADDRESS;
+import static tech.mogami.commons.test.BaseTestData.TEST_CLIENT_WALLET_ADDRESS_1_PRIVATE_KEY;
+import static tech.mogami.commons.test.BaseTestData.TEST_SERVER_WALLET_ADDRESS_1;
+
+@DisplayName("PreSignedPaymentPool Tests")
+public class PreSignedPaymentPoolTest {
+
+    /** Credentials of the client. */
+    Credentials credentials = Credentials.create(TEST_CLIENT_WALLET_ADDRESS_1_PRIVATE_KEY);
+
+    /**
+     * Returns payment requirements with the given timeout.
+     *
+     * @param maxTimeoutSeconds the timeout
+     * @return payment requirements
+     */
+    private PaymentRequirements paymentRequirements(final int maxTimeoutSeconds) {
+        return PaymentRequirements.builder()
+                .scheme(EXACT_SCHEME.name())
+                .network(BASE_SEPOLIA.name())
+                .maxAmountRequired("1000")
+                .resource("http://localhost/weather")
+                .payTo(TEST_SERVER_WALLET_ADDRESS_1)
+                .maxTimeoutSeconds(maxTimeoutSeconds)
+                .asset(TEST_ASSET_CONTRACT_ADDRESS)
+                .extra(EXACT_SCHEME_PARAMETER_NAME, "USDC")
+                .extra(EXACT_SCHEME_PARAMETER_VERSION, "2")
+                .build();
+    }
+
+    @Test
+    @DisplayName("take() serves pre-signed payloads with fresh nonces")
+    public void take() throws InterruptedException {
+        var paymentRequirements = paymentRequirements(60);
+        try (var pool = PreSignedPaymentPool.builder().depth(4).refillThreads(2).build()) {
+            pool.register(credentials, paymentRequirements);
+            for (int i = 0; i < 100 && pool.size(credentials, paymentRequirements) < 4; i++) {
+                Thread.sleep(50);
+            }
+            assertThat(pool.size(credentials, paymentRequirements)).isEqualTo(4);
+
+            Set<String> nonces = new HashSet<>();
+            for (int i = 0; i < 4; i++) {
+                assertThat(pool.take(credentials, paymentRequirements))
+                        .isPresent()
+                        .get()
+                        .satisfies(paymentPayload -> assertThat(paymentPayload.payload())
+                                .isInstanceOfSatisfying(ExactSchemePayload.class, exactSchemePayload -> {
+                                    assertThat(exactSchemePayload.signature()).isNotEmpty();
+                                    assertThat(exactSchemePayload.authorization().from()).isEqualTo(credentials.getAddress());
+                                    assertThat(exactSchemePayload.authorization().to()).isEqualTo(TEST_SERVER_WALLET_ADDRESS_1);
+                                    assertThat(exactSchemePayload.authorization().value()).isEqualTo("1000");
+                                    nonces.add(exactSchemePayload.authorization().nonce());
+                                }));
+            }
+            assertThat(nonces).hasSize(4);
+        }
+    }
+
+    @Test
+    @DisplayName("take() never pools payloads that would expire too soon to be served")
+    public void takeExpiring() throws InterruptedException {
+        var paymentRequirements = paymentRequirements(1);
+        try (var pool = PreSignedPaymentPool.builder().depth(2).minRemainingValidity(Duration.ofSeconds(30)).build()) {
+            assertThatThrownBy(() -> pool.register(credentials, paymentRequirements)).isInstanceOf(IllegalArgumentException.class);
+            assertThat(pool.take(credentials, paymentRequirements)).isEmpty();
+            Thread.sleep(100);
+            // Nothing is signed in the background for such a tuple.
+            assertThat(pool.size(credentials, paymentRequirements)).isZero();
+            assertThat(pool.tupleCount()).isZero();
+            // The inline fallback still signs.
+            assertThat(pool.takeOrSign(credentials, paymentRequirements).payload())
+                    .isInstanceOfSatisfying(ExactSchemePayload.class, exactSchemePayload ->
+                            assertThat(exactSchemePayload.signature()).isNotEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("The number of tuples is bounded, and idle tuples are dropped")
+    public void boundedTuples() throws InterruptedException {
+        var pool = PreSignedPaymentPool.builder()
+                .depth(1)
+                .maxTuples(1)
+                .idleTimeout(Duration.ofMillis(100))
+                .refillInterval(Duration.ofMillis(50))
+                .build();
+        var otherPaymentRequirements = paymentRequirements(60).toBuilder().maxAmountRequired("2000").build();
+        try (pool) {
+            assertThat(pool.take(credentials, paymentRequirements(60))).isEmpty();
+            assertThat(pool.tupleCount()).isEqualTo(1);
+            // Another tuple seen in a 402 is not registered.
+            assertThat(pool.take(credentials, otherPaymentRequirements)).isEmpty();
+            assertThat(pool.tupleCount()).isEqualTo(1);
+            assertThatThrownBy(() -> pool.register(credentials, otherPaymentRequirements)).isInstanceOf(IllegalStateException.class);
+
+            for (int i = 0; i < 100 && pool.tupleCount() > 0; i++) {
+                Thread.sleep(50);
+            }
+            assertThat(pool.tupleCount()).isZero();
+            pool.register(credentials, otherPaymentRequirements);
+            assertThat(pool.tupleCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("take() and takeOrSign() only charge the payloads handed out")
+    public void takeWithSpendLedger() {
+        var paymentRequirements = paymentRequirements(60);
+        var spendLedger = SpendLedger.builder()
+                .limits(List.of(SpendLimit.builder().dimension(SpendDimension.WALLET).maxAmount(2000).window(Duration.ofHours(1)).build()))
+                .build();
+        try (var pool = PreSignedPaymentPool.builder().depth(4).refillInterval(Duration.ofHours(1)).spendLedger(spendLedger).build()) {
+            // Nothing is charged while the pool has no payload ready.
+            assertThat(pool.take(credentials, paymentRequirements)).isEmpty();
+            assertThat(spendLedger.getTotal(SpendDimension.WALLET, credentials.getAddress(), TEST_ASSET_CONTRACT_ADDRESS)).isZero();
+
+            assertThat(pool.takeOrSign(credentials, paymentRequirements)).isNotNull();
+            assertThat(pool.takeOrSign(credentials, paymentRequirements)).isNotNull();
+            assertThatThrownBy(() -> pool.takeOrSign(credentials, paymentRequirements)).isInstanceOf(BudgetExceededException.class);
+            assertThatThrownBy(() -> pool.take(credentials, paymentRequirements)).isInstanceOf(BudgetExceededException.class);
+            assertThat(spendLedger.getTotal(SpendDimension.WALLET, credentials.getAddress(), TEST_ASSET_CONTRACT_ADDRESS)).isEqualTo(2000);
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package tech.mogami.java.client.signature.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Credentials;
+import tech.mogami.commons.crypto.signature.EIP712Helper;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+import tech.mogami.commons.util.NonceUtil;
+import tech.mogami.java.client.signature.CachedEIP712Signer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.constant.version.X402Versions.X402_SUPPORTED_VERSION_BY_MOGAMI;
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_NAME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_VERSION;
+
+@DisplayName("CachedEIP712Signer Tests")
+public class CachedEIP712SignerTest {
+
+    /** Credentials of the client. */
+    Credentials credentials = Credentials.create("0x9d2675820d55300a05c8991df217a619bcfdc86e2fd91e56443dbbcf159337fd");
+
+    /** Payment requirements. */
+    PaymentRequirements paymentRequirements = PaymentRequirements.builder()
+            .scheme(EXACT_SCHEME.name())
+            .network(BASE_SEPOLIA.name())
+            .maxAmountRequired("10000")
+            .resource("http://localhost/weather")
+            .payTo("0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1")
+            .asset("0x036CbD53842c5426634e7929541eC2318f3dCF7e")
+            .extra(EXACT_SCHEME_PARAMETER_NAME, "USDC")
+            .extra(EXACT_SCHEME_PARAMETER_VERSION, "2")
+            .build();
+
+    /**
+     * Returns a payment payload with the given nonce.
+     *
+     * @param nonce the nonce
+     * @return the payment payload
+     */
+    private PaymentPayload paymentPayload(final String nonce) {
+        return PaymentPayload.builder()
+                .x402Version(X402_SUPPORTED_VERSION_BY_MOGAMI.version())
+                .scheme(EXACT_SCHEME.name())
+                .network(BASE_SEPOLIA.name())
+                .payload(ExactSchemePayload.builder()
+                        .authorization(ExactSchemePayload.Authorization.builder()
+                                .from("0x2980bc24bBFB34DE1BBC91479Cb712ffbCE02F73")
+                                .to("0x7553F6FA4Fb62986b64f79aEFa1fB93ea64A22b1")
+                                .value("10000")
+                                .validAfter("1748534647")
+                                .validBefore("1748534767")
+                                .nonce(nonce)
+                                .build())
+                        .build())
+                .build();
+    }
+
+    @Test
+    @DisplayName("sign() with the reference test vector")
+    public void sign() {
+        assertThat(CachedEIP712Signer.sign(credentials, paymentRequirements,
+                paymentPayload("0x9b750f5097972d82c02ac371278b83ecf3ca3be8387db59e664eb38c98f97a3d")))
+                .isEqualTo("0xde533856d81c76984a8dbc8d563bbb6d6d4ca36ce6c4d6e8cf315de3bfc14ab26d6bcdc37549aeed78bf92e39d5180268f8f399a4ffb816cfbf500823882b6001c");
+    }
+
+    @Test
+    @DisplayName("sign() is byte-identical to EIP712Helper.sign()")
+    public void signIdenticalToEIP712Helper() throws Exception {
+        var otherDomain = paymentRequirements.toBuilder()
+                .clearExtra()
+                .extra(EXACT_SCHEME_PARAMETER_NAME, "USD Coin")
+                .extra(EXACT_SCHEME_PARAMETER_VERSION, "2")
+                .build();
+        for (int i = 0; i < 10; i++) {
+            var paymentPayload = paymentPayload(NonceUtil.generateNonce());
+            assertThat(CachedEIP712Signer.sign(credentials, paymentRequirements, paymentPayload))
+                    .isEqualTo(EIP712Helper.sign(credentials, paymentRequirements, paymentPayload));
+            assertThat(CachedEIP712Signer.sign(credentials, otherDomain, paymentPayload))
+                    .isEqualTo(EIP712Helper.sign(credentials, otherDomain, paymentPayload));
+        }
+    }
+
+    @Test
+    @DisplayName("sign() still rejects the networks EIP712Helper rejects")
+    public void signUnsupportedNetwork() {
+        var polygon = paymentRequirements.toBuilder().network("polygon").build();
+        var paymentPayload = paymentPayload(NonceUtil.generateNonce());
+
+        assertThat(CachedEIP712Signer.getTypedDataHash(polygon, paymentPayload)).isEmpty();
+        assertThatThrownBy(() -> CachedEIP712Signer.sign(credentials, polygon, paymentPayload))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -0,0 +1,130 @@
+package tech.mogami.java.client.signer.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.web3j.crypto.Credentials;
+import org.web3j.utils.Numeric;
+import tech.mogami.commons.util.JsonUtil;
+import tech.mogami.java.client.signature.CachedEIP712Signer;
+import tech.mogami.java.client.signer.SignBatchRequest;
+import tech.mogami.java.client.signer.SignBatchResponse;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stand-in for an external signing process: signs batches of hashes posted to {@code /sign}.
+ */
+public class LocalSignerDaemon implements AutoCloseable {
+
+    /** Lowest recovery id (v) of an Ethereum signature. */
+    private static final int RECOVERY_ID_OFFSET = 27;
+
+    /** Credentials of the wallet signing. */
+    private final Credentials credentials;
+
+    /** True to return recovery ids of 0 or 1 instead of 27 or 28, as some signers do. */
+    private final boolean zeroBasedRecoveryId;
+
+    /** HTTP server. */
+    private final HttpServer server;
+
+    /** Number of batches received. */
+    private final AtomicInteger batches = new AtomicInteger();
+
+    /**
+     * Starts a signer daemon on a free local port.
+     *
+     * @param credentials the credentials of the wallet signing
+     * @throws IOException if the server can't start
+     */
+    public LocalSignerDaemon(final Credentials credentials) throws IOException {
+        this(credentials, false);
+    }
+
+    /**
+     * Starts a signer daemon on a free local port.
+     *
+     * @param credentials         the credentials of the wallet signing
+     * @param zeroBasedRecoveryId true to return recovery ids of 0 or 1 instead of 27 or 28
+     * @throws IOException if the server can't start
+     */
+    public LocalSignerDaemon(final Credentials credentials, final boolean zeroBasedRecoveryId) throws IOException {
+        this.credentials = credentials;
+        this.zeroBasedRecoveryId = zeroBasedRecoveryId;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/sign", this::sign);
+        server.start();
+    }
+
+    /**
+     * Returns the signing endpoint.
+     *
+     * @return the endpoint
+     */
+    public URI getEndpoint() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/sign");
+    }
+
+    /**
+     * Returns the number of batches received.
+     *
+     * @return the number of batches
+     */
+    public int getBatchCount() {
+        return batches.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * Signs a batch.
+     *
+     * @param exchange the exchange
+     * @throws IOException if the response can't be sent
+     */
+    private void sign(final HttpExchange exchange) throws IOException {
+        batches.incrementAndGet();
+        SignBatchRequest request = JsonUtil.fromJson(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8),
+                SignBatchRequest.class);
+        SignBatchResponse response;
+        if (!credentials.getAddress().equalsIgnoreCase(request.address())) {
+            response = new SignBatchResponse(null, "Unknown address " + request.address());
+        } else {
+            response = new SignBatchResponse(request.hashes().stream()
+                    .map(hash -> CachedEIP712Signer.signHash(credentials.getEcKeyPair(), Numeric.hexStringToByteArray(hash)))
+                    .map(this::toRecoveryIdFormat)
+                    .toList(), null);
+        }
+        byte[] bytes = JsonUtil.toJson(response).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (var outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    /**
+     * Returns a signature with the recovery id format of this daemon.
+     *
+     * @param signature the signature, with a recovery id of 27 or 28
+     * @return the signature
+     */
+    private String toRecoveryIdFormat(final String signature) {
+        if (!zeroBasedRecoveryId) {
+            return signature;
+        }
+        byte[] bytes = Numeric.hexStringToByteArray(signature);
+        bytes[bytes.length - 1] -= RECOVERY_ID_OFFSET;
+        return Numeric.toHexString(bytes);
+    }
+
+}
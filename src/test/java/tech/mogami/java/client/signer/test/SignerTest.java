@@ -0,0 +1,156 @@
+package tech.mogami.java.client.signer.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Credentials;
+import org.web3j.utils.Numeric;
+import tech.mogami.commons.header.payment.PaymentPayload;
+import tech.mogami.commons.header.payment.PaymentRequirements;
+import tech.mogami.commons.header.payment.schemes.exact.ExactSchemePayload;
+import tech.mogami.java.client.helper.X402PaymentHelper;
+import tech.mogami.java.client.signature.CachedEIP712Signer;
+import tech.mogami.java.client.signer.BatchingSigner;
+import tech.mogami.java.client.signer.HttpSignerTransport;
+import tech.mogami.java.client.signer.Signer;
+import tech.mogami.java.client.signer.SignerException;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tech.mogami.commons.constant.network.Networks.BASE_SEPOLIA;
+import static tech.mogami.commons.header.payment.schemes.Schemes.EXACT_SCHEME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_NAME;
+import static tech.mogami.commons.header.payment.schemes.exact.ExactSchemeConstants.EXACT_SCHEME_PARAMETER_VERSION;
+import static tech.mogami.commons.test.BaseTestData.TEST_ASSET_CONTRACT_ADDRESS;
+import static tech.mogami.commons.test.BaseTestData.TEST_CLIENT_WALLET_ADDRESS_1_PRIVATE_KEY;
+import static tech.mogami.commons.test.BaseTestData.TEST_SERVER_WALLET_ADDRESS_1;
+
+@DisplayName("Signer Tests")
+public class SignerTest {
+
+    /** Credentials of the client. */
+    Credentials credentials = Credentials.create(TEST_CLIENT_WALLET_ADDRESS_1_PRIVATE_KEY);
+
+    /** Payment requirements. */
+    PaymentRequirements paymentRequirements = PaymentRequirements.builder()
+            .scheme(EXACT_SCHEME.name())
+            .network(BASE_SEPOLIA.name())
+            .maxAmountRequired("1000")
+            .resource("http://localhost/weather")
+            .payTo(TEST_SERVER_WALLET_ADDRESS_1)
+            .maxTimeoutSeconds(60)
+            .asset(TEST_ASSET_CONTRACT_ADDRESS)
+            .extra(EXACT_SCHEME_PARAMETER_NAME, "USDC")
+            .extra(EXACT_SCHEME_PARAMETER_VERSION, "2")
+            .build();
+
+    @Test
+    @DisplayName("getSignedPayloadAsync() with an in-process signer signs like credentials")
+    public void inProcessSigner() {
+        PaymentPayload unsigned = X402PaymentHelper.getPayloadFromPaymentRequirements(null, credentials.getAddress(), paymentRequirements);
+
+        PaymentPayload signed = X402PaymentHelper.getSignedPayloadAsync(Signer.of(credentials), paymentRequirements, unsigned).join();
+        assertThat(signed).isEqualTo(X402PaymentHelper.getSignedPayload(credentials, paymentRequirements, unsigned));
+
+        // Unknown network: the hash can't be computed without the domain.
+        assertThatThrownBy(() -> X402PaymentHelper.getSignedPayloadAsync(Signer.of(credentials),
+                paymentRequirements.toBuilder().network("unknown").build(), unsigned).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("BatchingSigner coalesces concurrent requests into batches sent to the signer daemon")
+    public void batchingSigner() throws IOException {
+        try (var daemon = new LocalSignerDaemon(credentials);
+             var signer = BatchingSigner.builder()
+                     .transport(HttpSignerTransport.builder().endpoint(daemon.getEndpoint()).build())
+                     .address(credentials.getAddress())
+                     .maxBatchSize(64)
+                     .maxDelay(Duration.ofMillis(5))
+                     .build()) {
+            List<PaymentPayload> unsignedPayloads = IntStream.range(0, 500)
+                    .mapToObj(i -> X402PaymentHelper.getPayloadFromPaymentRequirements(null, signer.getAddress(), paymentRequirements))
+                    .toList();
+            List<CompletableFuture<PaymentPayload>> futures = unsignedPayloads.stream()
+                    .map(unsigned -> X402PaymentHelper.getSignedPayloadAsync(signer, paymentRequirements, unsigned))
+                    .toList();
+
+            for (int i = 0; i < unsignedPayloads.size(); i++) {
+                String expected = CachedEIP712Signer.sign(credentials, paymentRequirements, unsignedPayloads.get(i));
+                assertThat(((ExactSchemePayload) futures.get(i).join().payload()).signature()).isEqualTo(expected);
+            }
+            assertThat(signer.getSignatureCount()).isEqualTo(500);
+            assertThat(signer.getBatchCount()).isEqualTo(daemon.getBatchCount()).isLessThan(50);
+        }
+    }
+
+    @Test
+    @DisplayName("BatchingSigner returns recovery ids of 27 or 28 when the signer daemon returns 0 or 1")
+    public void batchingSignerZeroBasedRecoveryId() throws IOException {
+        try (var daemon = new LocalSignerDaemon(credentials, true);
+             var signer = BatchingSigner.builder()
+                     .transport(HttpSignerTransport.builder().endpoint(daemon.getEndpoint()).build())
+                     .address(credentials.getAddress())
+                     .build()) {
+            for (int i = 0; i < 20; i++) {
+                PaymentPayload unsigned = X402PaymentHelper.getPayloadFromPaymentRequirements(null, signer.getAddress(), paymentRequirements);
+                String signature = ((ExactSchemePayload) X402PaymentHelper.getSignedPayloadAsync(signer, paymentRequirements, unsigned)
+                        .join().payload()).signature();
+                assertThat(signature).isEqualTo(CachedEIP712Signer.sign(credentials, paymentRequirements, unsigned));
+                assertThat(Numeric.hexStringToByteArray(signature)[64]).isIn((byte) 27, (byte) 28);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("BatchingSigner fails the batch when the signer daemon refuses it")
+    public void batchingSignerFailure() throws IOException {
+        try (var daemon = new LocalSignerDaemon(credentials);
+             var signer = BatchingSigner.builder()
+                     .transport(HttpSignerTransport.builder().endpoint(daemon.getEndpoint()).build())
+                     .address(TEST_SERVER_WALLET_ADDRESS_1)
+                     .build()) {
+            assertThatThrownBy(() -> signer.signHash(new byte[32]).join())
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(SignerException.class);
+            signer.close();
+            assertThatThrownBy(() -> signer.signHash(new byte[32]).join())
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("BatchingSigner fails the hashes whose signature was not made by its address")
+    public void batchingSignerWrongSignature() {
+        Credentials otherCredentials = Credentials.create("0x59c6995e998f97a5a0044966f0945389dc9e86dae88c7a8412f4603b6b78690d");
+        // The transport signs the even hashes with the wrong key, and garbles the third one.
+        try (var signer = BatchingSigner.builder()
+                .transport((address, hashes) -> CompletableFuture.completedFuture(IntStream.range(0, hashes.size())
+                        .mapToObj(i -> i == 3 ? "0x1234"
+                                : CachedEIP712Signer.signHash((i % 2 == 0 ? otherCredentials : credentials).getEcKeyPair(), hashes.get(i)))
+                        .toList()))
+                .address(credentials.getAddress())
+                .maxBatchSize(4)
+                .maxDelay(Duration.ofSeconds(1))
+                .build()) {
+            List<CompletableFuture<String>> futures = IntStream.range(0, 4)
+                    .mapToObj(i -> signer.signHash(Numeric.toBytesPadded(BigInteger.valueOf(i + 1), 32)))
+                    .toList();
+            assertThat(futures.get(1).join()).isNotEmpty();
+            for (int i : new int[]{0, 2, 3}) {
+                assertThatThrownBy(futures.get(i)::join)
+                        .isInstanceOf(CompletionException.class)
+                        .hasCauseInstanceOf(SignerException.class);
+            }
+        }
+    }
+
+}